@@ -0,0 +1,3 @@
+#!/bin/bash
+# Lets the db-replica service stream WAL from the primary
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,5 @@
+#!/bin/bash
+# Local stand-ins for the customer shards, see customer.sharding in application.yml
+for shard in customer_shard_0 customer_shard_1; do
+  psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" -c "CREATE DATABASE $shard"
+done
@@ -0,0 +1,156 @@
+package com.codemountain.customer;
+
+import com.codemountain.Main;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Measures every CustomerDao operation for each implementation.
+The jdbc and jpa implementations run against the local Postgres
+started by docker-compose (see application.yml). The caches are
+switched off so every lookup reaches the implementation.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerDaoBenchmark {
+
+    // Ids handed to the list implementation, which does not generate its own
+    private static final int LIST_ID_OFFSET = 1_000_000;
+    private static final String EMAIL_PREFIX = "jmh-";
+
+    @Param({"list", "jdbc", "jpa"})
+    public String dao;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerDao customerDao;
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final String runId = UUID.randomUUID().toString();
+
+    private CustomerView existingCustomer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.jpa.show-sql=false",
+                        "--customer.warmup.enabled=false",
+                        "--customer.cache.enabled=false",
+                        "--customer.response-cache.enabled=false"
+                );
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        customerDao = context.getBean(dao, CustomerDao.class);
+
+        Customer seeded = newCustomer();
+        customerDao.insertCustomer(seeded);
+        existingCustomer = new CustomerView(
+                idOf(seeded.getEmail()),
+                seeded.getName(),
+                seeded.getEmail(),
+                seeded.getAge()
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("""
+                DELETE FROM customer
+                WHERE id IN (SELECT customer_id FROM customer_email WHERE email LIKE ?)
+                """, EMAIL_PREFIX + runId + "%");
+        context.close();
+    }
+
+    @Benchmark
+    public List<CustomerView> selectAllCustomers() {
+        return customerDao.selectAllCustomers();
+    }
+
+    @Benchmark
+    public Optional<CustomerView> selectCustomerById() {
+        return customerDao.selectCustomerById(existingCustomer.id());
+    }
+
+    @Benchmark
+    public boolean existsCustomerWithEmail() {
+        return customerDao.existsCustomerWithEmail(existingCustomer.email());
+    }
+
+    @Benchmark
+    public boolean existsCustomerWithId() {
+        return customerDao.existsCustomerWithId(existingCustomer.id());
+    }
+
+    @Benchmark
+    public void insertCustomer() {
+        customerDao.insertCustomer(newCustomer());
+    }
+
+    @Benchmark
+    public void updateCustomer() {
+        customerDao.updateCustomer(new Customer(
+                existingCustomer.id(),
+                existingCustomer.name(),
+                existingCustomer.email(),
+                16 + sequence.incrementAndGet() % 60
+        ));
+    }
+
+    @Benchmark
+    public void deleteCustomerWithId(DeletableCustomer deletable) {
+        customerDao.deleteCustomerWithId(deletable.id);
+    }
+
+    /*
+    Inserts a fresh row before every delete invocation so each
+    measured call actually removes something.
+     */
+    @State(Scope.Thread)
+    public static class DeletableCustomer {
+
+        Integer id;
+
+        @Setup(Level.Invocation)
+        public void setUp(CustomerDaoBenchmark benchmark) {
+            Customer customer = benchmark.newCustomer();
+            benchmark.customerDao.insertCustomer(customer);
+            id = benchmark.idOf(customer.getEmail());
+        }
+    }
+
+    Customer newCustomer() {
+        int next = sequence.incrementAndGet();
+        return new Customer(
+                "list".equals(dao) ? LIST_ID_OFFSET + next : null,
+                "Benchmark Customer " + next,
+                EMAIL_PREFIX + runId + "-" + next + "@codemountain.com",
+                16 + next % 60
+        );
+    }
+
+    Integer idOf(String email) {
+        if ("list".equals(dao)) {
+            return customerDao.selectAllCustomers()
+                    .stream()
+                    .filter(customer -> customer.email().equals(email))
+                    .map(CustomerView::id)
+                    .findFirst()
+                    .orElseThrow();
+        }
+        return jdbcTemplate.queryForObject("SELECT customer_id FROM customer_email WHERE email = ?", Integer.class, email);
+    }
+}
@@ -0,0 +1,127 @@
+package com.codemountain.customer;
+
+import com.codemountain.Main;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Measures the hot CustomerDao paths against a large, hash partitioned
+customer table. The table has to be seeded beforehand, e.g.
+    java -jar customer-api.jar --spring.profiles.active=seed --customer.seed.count=50000000
+and then benchmarked with
+    ./mvnw -P benchmark test -Djmh.include=CustomerPartitionBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class CustomerPartitionBenchmark {
+
+    private static final int SAMPLE_SIZE = 10_000;
+    private static final String EMAIL_PREFIX = "jmh-partition-";
+
+    @Param({"50000000"})
+    public long rows;
+
+    @Param({"jdbc", "jpa"})
+    public String dao;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerDao customerDao;
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final String runId = UUID.randomUUID().toString();
+
+    private int minId;
+    private int maxId;
+    private List<String> sampledEmails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.jpa.show-sql=false",
+                        "--customer.warmup.enabled=false",
+                        "--customer.cache.enabled=false",
+                        "--customer.response-cache.enabled=false"
+                );
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        customerDao = context.getBean(dao, CustomerDao.class);
+
+        // reltuples sums the partitions' estimates, a count(*) would scan all of them
+        long estimatedRows = jdbcTemplate.queryForObject("""
+                SELECT coalesce(sum(child.reltuples), 0)::bigint
+                FROM pg_inherits
+                JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                WHERE pg_inherits.inhparent = 'customer'::regclass
+                """, Long.class);
+        if (estimatedRows < rows * 0.9) {
+            throw new IllegalStateException(
+                    "Expected about %d customers but found %d, seed the table first".formatted(rows, estimatedRows)
+            );
+        }
+
+        minId = jdbcTemplate.queryForObject("SELECT min(id) FROM customer", Integer.class);
+        maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM customer", Integer.class);
+        sampledEmails = jdbcTemplate.queryForList(
+                "SELECT email FROM customer_email TABLESAMPLE SYSTEM (1) LIMIT ?",
+                String.class,
+                SAMPLE_SIZE
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("""
+                DELETE FROM customer
+                WHERE id IN (SELECT customer_id FROM customer_email WHERE email LIKE ?)
+                """, EMAIL_PREFIX + runId + "%");
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<CustomerView> selectCustomerById() {
+        return customerDao.selectCustomerById(randomId());
+    }
+
+    @Benchmark
+    public boolean existsCustomerWithId() {
+        return customerDao.existsCustomerWithId(randomId());
+    }
+
+    @Benchmark
+    public boolean existsCustomerWithEmail() {
+        return customerDao.existsCustomerWithEmail(
+                sampledEmails.get(ThreadLocalRandom.current().nextInt(sampledEmails.size()))
+        );
+    }
+
+    @Benchmark
+    public void insertCustomer() {
+        int next = sequence.incrementAndGet();
+        customerDao.insertCustomer(new Customer(
+                "Partition Benchmark " + next,
+                EMAIL_PREFIX + runId + "-" + next + "@codemountain.com",
+                16 + next % 60
+        ));
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(minId, maxId + 1);
+    }
+}
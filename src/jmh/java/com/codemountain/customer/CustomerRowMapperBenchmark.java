@@ -0,0 +1,65 @@
+package com.codemountain.customer;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/*
+Measures the cost of turning a single row into a CustomerView.
+An in-memory CachedRowSet stands in for the driver's ResultSet
+so the numbers only reflect the mapping itself.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerRowMapperBenchmark {
+
+    private final CustomerRowMapper rowMapper = new CustomerRowMapper();
+    private CachedRowSet resultSet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(4);
+        addColumn(metaData, 1, "id", Types.INTEGER);
+        addColumn(metaData, 2, "name", Types.VARCHAR);
+        addColumn(metaData, 3, "email", Types.VARCHAR);
+        addColumn(metaData, 4, "age", Types.INTEGER);
+
+        resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        resultSet.moveToInsertRow();
+        resultSet.updateInt(1, 42);
+        resultSet.updateString(2, "Alex");
+        resultSet.updateString(3, "alex@codemountain.com");
+        resultSet.updateInt(4, 28);
+        resultSet.insertRow();
+        resultSet.moveToCurrentRow();
+        resultSet.first();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        resultSet.close();
+    }
+
+    @Benchmark
+    public CustomerView mapRow() throws SQLException {
+        return rowMapper.mapRow(resultSet, 1);
+    }
+
+    private static void addColumn(RowSetMetaDataImpl metaData, int index, String name, int type) throws SQLException {
+        metaData.setColumnName(index, name);
+        metaData.setColumnLabel(index, name);
+        metaData.setColumnType(index, type);
+    }
+}
@@ -0,0 +1,44 @@
+package com.codemountain.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Measures Jackson serialization of customer lists using
+the same ObjectMapper defaults Spring MVC applies to
+GET api/v1/customers.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerSerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<CustomerView> customers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        customers = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            customers.add(new CustomerView(i, "Customer " + i, "customer." + i + "@codemountain.com", 16 + i % 60));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeCustomers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customers);
+    }
+}
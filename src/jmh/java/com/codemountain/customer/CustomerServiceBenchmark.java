@@ -0,0 +1,131 @@
+package com.codemountain.customer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Measures the validation and orchestration logic in CustomerService
+in isolation, backed by a map so no I/O is involved.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerServiceBenchmark {
+
+    private static final int EXISTING_ID = 1;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private CustomerService customerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryCustomerDao customerDao = new InMemoryCustomerDao();
+        customerDao.insertCustomer(new Customer(EXISTING_ID, "Alex", "alex@codemountain.com", 28));
+        // No listeners, events are dropped
+        customerService = new CustomerService(customerDao, event -> {
+        });
+    }
+
+    @Benchmark
+    public void addCustomer() {
+        int next = sequence.incrementAndGet();
+        customerService.addCustomer(new CustomerRegistrationRequest(
+                "Customer " + next,
+                "customer." + next + "@codemountain.com",
+                16 + next % 60
+        ));
+    }
+
+    @Benchmark
+    public void updateCustomer() {
+        int next = sequence.incrementAndGet();
+        customerService.updateCustomer(EXISTING_ID, new CustomerUpdateRequest(
+                "Alex " + next,
+                "alex." + next + "@codemountain.com",
+                16 + next % 60
+        ));
+    }
+
+    static class InMemoryCustomerDao implements CustomerDao {
+
+        private final Map<Integer, CustomerView> customers = new ConcurrentHashMap<>();
+        private final Map<String, Integer> emails = new ConcurrentHashMap<>();
+        private final AtomicInteger ids = new AtomicInteger(1_000);
+
+        @Override
+        public List<CustomerView> selectAllCustomers() {
+            return new ArrayList<>(customers.values());
+        }
+
+        @Override
+        public Optional<CustomerView> selectCustomerById(Integer customerId) {
+            return Optional.ofNullable(customers.get(customerId));
+        }
+
+        @Override
+        public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+            return customerIds.stream()
+                    .map(customers::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+
+        @Override
+        public List<CustomerView> selectCustomers(CustomerQuery query) {
+            return customers.values()
+                    .stream()
+                    .filter(query::matches)
+                    .sorted(query.sort().comparator())
+                    .limit(query.limit())
+                    .toList();
+        }
+
+        @Override
+        public void insertCustomer(Customer customer) {
+            Integer id = customer.getId() != null ? customer.getId() : ids.incrementAndGet();
+            customer.setId(id);
+            customers.put(id, CustomerView.of(customer));
+            emails.put(customer.getEmail(), id);
+        }
+
+        @Override
+        public boolean existsCustomerWithEmail(String email) {
+            return emails.containsKey(email);
+        }
+
+        @Override
+        public boolean existsCustomerWithId(Integer customerId) {
+            return customers.containsKey(customerId);
+        }
+
+        @Override
+        public void deleteCustomerWithId(Integer customerId) {
+            CustomerView removed = customers.remove(customerId);
+            if (removed != null) {
+                emails.remove(removed.email());
+            }
+        }
+
+        @Override
+        public void updateCustomer(Customer updatedCustomer) {
+            CustomerView previous = customers.put(updatedCustomer.getId(), CustomerView.of(updatedCustomer));
+            if (previous != null) {
+                emails.remove(previous.email());
+            }
+            emails.put(updatedCustomer.getEmail(), updatedCustomer.getId());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.codemountain.customer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Compares GET api/v1/customers as it works today, mapping every row to a
+CustomerView, collecting a List and serializing it, with CustomerJsonStreamer
+writing rows straight to the output. Run with -prof gc for allocation rates:
+    ./mvnw -P benchmark test -Djmh.include=CustomerStreamingSerialization
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerStreamingSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final CustomerRowMapper rowMapper = new CustomerRowMapper();
+    private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream(1 << 20);
+    private CachedRowSet resultSet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(4);
+        addColumn(metaData, 1, "id", Types.INTEGER);
+        addColumn(metaData, 2, "name", Types.VARCHAR);
+        addColumn(metaData, 3, "email", Types.VARCHAR);
+        addColumn(metaData, 4, "age", Types.INTEGER);
+
+        resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        for (int i = 1; i <= size; i++) {
+            resultSet.moveToInsertRow();
+            resultSet.updateInt(1, i);
+            resultSet.updateString(2, "Customer " + i);
+            resultSet.updateString(3, "customer." + i + "@codemountain.com");
+            resultSet.updateInt(4, 16 + i % 60);
+            resultSet.insertRow();
+        }
+        resultSet.moveToCurrentRow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        resultSet.close();
+    }
+
+    @Benchmark
+    public int mapToListAndSerialize() throws SQLException, IOException {
+        responseBody.reset();
+        resultSet.beforeFirst();
+        List<CustomerView> customers = new ArrayList<>();
+        int rowNum = 0;
+        while (resultSet.next()) {
+            customers.add(rowMapper.mapRow(resultSet, rowNum++));
+        }
+        objectMapper.writeValue(responseBody, customers);
+        return responseBody.size();
+    }
+
+    @Benchmark
+    public int streamFromResultSet() throws SQLException, IOException {
+        responseBody.reset();
+        resultSet.beforeFirst();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(responseBody, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            while (resultSet.next()) {
+                CustomerJsonStreamer.writeCustomer(generator, resultSet);
+            }
+            generator.writeEndArray();
+        }
+        return responseBody.size();
+    }
+
+    private static void addColumn(RowSetMetaDataImpl metaData, int index, String name, int type) throws SQLException {
+        metaData.setColumnName(index, name);
+        metaData.setColumnLabel(index, name);
+        metaData.setColumnType(index, type);
+    }
+}
@@ -0,0 +1,99 @@
+package com.codemountain.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/*
+Builds the requests of the mixed customer workload. Ids of
+existing customers are sampled from list responses so get,
+update and delete mostly target rows that actually exist.
+ */
+
+class CustomerScenario {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final int MAX_KNOWN_IDS = 10_000;
+
+    private final String customersUri;
+    private final Operation[] weightedOperations;
+    private volatile int[] knownIds = new int[0];
+    private final AtomicLong sequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    CustomerScenario(String baseUrl, Map<Operation, Integer> mix) {
+        this.customersUri = baseUrl + "/api/v1/customers";
+        this.weightedOperations = mix.entrySet()
+                .stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                .toArray(Operation[]::new);
+    }
+
+    Operation nextOperation() {
+        Operation operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+        if (knownIds.length == 0 && operation != Operation.REGISTER) {
+            return Operation.LIST;
+        }
+        return operation;
+    }
+
+    HttpRequest requestFor(Operation operation) {
+        return switch (operation) {
+            case REGISTER -> HttpRequest.newBuilder(URI.create(customersUri))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(customerJson()))
+                    .build();
+            case GET -> HttpRequest.newBuilder(URI.create(customersUri + "/" + randomKnownId()))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            case UPDATE -> HttpRequest.newBuilder(URI.create(customersUri + "/" + randomKnownId()))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(customerJson()))
+                    .build();
+            case DELETE -> HttpRequest.newBuilder(URI.create(customersUri + "/" + randomKnownId()))
+                    .timeout(REQUEST_TIMEOUT)
+                    .DELETE()
+                    .build();
+            case LIST -> HttpRequest.newBuilder(URI.create(customersUri))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+        };
+    }
+
+    void onResponse(Operation operation, String body) {
+        if (operation != Operation.LIST) {
+            return;
+        }
+        int[] ids = new int[MAX_KNOWN_IDS];
+        int count = 0;
+        Matcher matcher = ID_PATTERN.matcher(body);
+        while (count < MAX_KNOWN_IDS && matcher.find()) {
+            ids[count++] = Integer.parseInt(matcher.group(1));
+        }
+        knownIds = Arrays.copyOf(ids, count);
+    }
+
+    private int randomKnownId() {
+        int[] ids = knownIds;
+        return ids.length == 0 ? 0 : ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private String customerJson() {
+        long next = sequence.incrementAndGet();
+        return """
+                {"name":"Load Test %d","email":"load-%s-%d@codemountain.com","age":%d}
+                """.formatted(next, runId, next, 16 + next % 60);
+    }
+}
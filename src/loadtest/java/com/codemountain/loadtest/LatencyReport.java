@@ -0,0 +1,90 @@
+package com.codemountain.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Writes HdrHistogram percentile distributions (.hgrm, in milliseconds)
+per step and operation, plus a throughput-vs-latency curve as CSV.
+ */
+
+class LatencyReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Path outputDirectory;
+    private final List<StepResult> steps = new ArrayList<>();
+
+    LatencyReport(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    void add(StepResult step) throws IOException {
+        steps.add(step);
+        Files.createDirectories(outputDirectory);
+
+        for (Operation operation : Operation.values()) {
+            writeDistribution(
+                    step.correctedLatencies().get(operation),
+                    "%drps-%s.hgrm".formatted(step.targetRate(), operation.name().toLowerCase())
+            );
+            writeDistribution(
+                    step.uncorrectedLatencies().get(operation),
+                    "%drps-%s-uncorrected.hgrm".formatted(step.targetRate(), operation.name().toLowerCase())
+            );
+        }
+        writeDistribution(step.allCorrectedLatencies(), "%drps-all.hgrm".formatted(step.targetRate()));
+
+        Histogram all = step.allCorrectedLatencies();
+        System.out.printf(
+                "rate=%d/s achieved=%.1f/s p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms failures=%d unfinished=%d%n",
+                step.targetRate(),
+                step.achievedThroughput(),
+                millis(all, 50.0),
+                millis(all, 99.0),
+                millis(all, 99.9),
+                all.getMaxValue() / MICROS_PER_MILLI,
+                step.totalFailures(),
+                step.unfinishedRequests()
+        );
+    }
+
+    void writeCurve() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("target_rate,achieved_rate,requests,failures,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms");
+        for (StepResult step : steps) {
+            Histogram all = step.allCorrectedLatencies();
+            lines.add("%d,%.1f,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f".formatted(
+                    step.targetRate(),
+                    step.achievedThroughput(),
+                    all.getTotalCount(),
+                    step.totalFailures(),
+                    millis(all, 50.0),
+                    millis(all, 90.0),
+                    millis(all, 99.0),
+                    millis(all, 99.9),
+                    all.getMaxValue() / MICROS_PER_MILLI
+            ));
+        }
+        Files.write(outputDirectory.resolve("throughput-latency.csv"), lines);
+    }
+
+    private void writeDistribution(Histogram histogram, String fileName) throws IOException {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(outputDirectory.resolve(fileName)))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,45 @@
+package com.codemountain.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/*
+Entry point of the open-model load test run by the load-test
+Maven profile. Each configured rate is held for one step and
+reported separately, producing a throughput-vs-latency curve.
+ */
+
+public class LoadTest {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        CustomerScenario scenario = new CustomerScenario(settings.baseUrl(), settings.mix());
+
+        // Prime the scenario with ids of customers that already exist
+        HttpResponse<String> initialList = httpClient.send(
+                scenario.requestFor(Operation.LIST),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        scenario.onResponse(Operation.LIST, initialList.body());
+
+        OpenModelRunner runner = new OpenModelRunner(httpClient, scenario);
+        LatencyReport report = new LatencyReport(settings.outputDirectory());
+
+        System.out.printf("Warming up at %d requests/s for %s%n", settings.rates().get(0), settings.warmupDuration());
+        runner.run(settings.rates().get(0), settings.warmupDuration());
+
+        for (Integer rate : settings.rates()) {
+            report.add(runner.run(rate, settings.stepDuration()));
+        }
+        report.writeCurve();
+
+        System.out.println("Load test reports written to " + settings.outputDirectory().toAbsolutePath());
+    }
+}
@@ -0,0 +1,46 @@
+package com.codemountain.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Load test settings, read from system properties so they
+can be supplied by the load-test Maven profile.
+ */
+
+record LoadTestSettings(
+        String baseUrl,
+        List<Integer> rates,
+        Duration stepDuration,
+        Duration warmupDuration,
+        Map<Operation, Integer> mix,
+        Path outputDirectory
+) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                System.getProperty("load-test.base-url", "http://localhost:1234"),
+                Arrays.stream(System.getProperty("load-test.rates", "25,50,100").split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .toList(),
+                Duration.parse(System.getProperty("load-test.step-duration", "PT30S")),
+                Duration.parse(System.getProperty("load-test.warmup-duration", "PT10S")),
+                parseMix(System.getProperty("load-test.mix", "register=10,get=60,update=10,delete=5,list=15")),
+                Path.of(System.getProperty("load-test.output-dir", "target/load-test"))
+        );
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.valueOf(parts[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,108 @@
+package com.codemountain.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Issues requests at a constant arrival rate regardless of how fast
+the server responds (open model). Latency is measured from the time
+a request was scheduled to be sent rather than from when it was
+actually sent, which corrects for coordinated omission.
+ */
+
+class OpenModelRunner {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient;
+    private final CustomerScenario scenario;
+
+    OpenModelRunner(HttpClient httpClient, CustomerScenario scenario) {
+        this.httpClient = httpClient;
+        this.scenario = scenario;
+    }
+
+    StepResult run(int requestsPerSecond, Duration duration) throws InterruptedException {
+        Map<Operation, Recorder> corrected = new EnumMap<>(Operation.class);
+        Map<Operation, Recorder> uncorrected = new EnumMap<>(Operation.class);
+        Map<Operation, AtomicLong> failures = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            corrected.put(operation, new Recorder(3));
+            uncorrected.put(operation, new Recorder(3));
+            failures.put(operation, new AtomicLong());
+        }
+
+        AtomicInteger outstanding = new AtomicInteger();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            final long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = scenario.nextOperation();
+            HttpRequest request = scenario.requestFor(operation);
+            long actualStart = System.nanoTime();
+            outstanding.incrementAndGet();
+
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        long completed = System.nanoTime();
+                        corrected.get(operation).recordValue(toMicros(completed - intendedStart));
+                        uncorrected.get(operation).recordValue(toMicros(completed - actualStart));
+                        if (error != null || response.statusCode() >= 400) {
+                            failures.get(operation).incrementAndGet();
+                        } else {
+                            scenario.onResponse(operation, response.body());
+                        }
+                        outstanding.decrementAndGet();
+                    });
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<Operation, Histogram> correctedHistograms = new EnumMap<>(Operation.class);
+        Map<Operation, Histogram> uncorrectedHistograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> failureCounts = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            correctedHistograms.put(operation, corrected.get(operation).getIntervalHistogram());
+            uncorrectedHistograms.put(operation, uncorrected.get(operation).getIntervalHistogram());
+            failureCounts.put(operation, failures.get(operation).get());
+        }
+
+        return new StepResult(
+                requestsPerSecond,
+                Duration.ofNanos(elapsed),
+                correctedHistograms,
+                uncorrectedHistograms,
+                failureCounts,
+                outstanding.get()
+        );
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
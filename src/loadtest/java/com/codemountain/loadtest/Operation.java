@@ -0,0 +1,9 @@
+package com.codemountain.loadtest;
+
+enum Operation {
+    REGISTER,
+    GET,
+    UPDATE,
+    DELETE,
+    LIST
+}
@@ -0,0 +1,147 @@
+package com.codemountain.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Starts the application in each startup mode that has been built and
+measures the startup time Spring reports as well as the time until
+the first request to api/v1/customers is answered. Modes whose
+artifacts are missing are skipped.
+ */
+
+public class StartupBenchmark {
+
+    private static final int RUNS_PER_MODE = 5;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Pattern STARTED_PATTERN = Pattern.compile("Started Main in ([0-9.]+) seconds");
+
+    private record Mode(String name, Path requiredArtifact, List<String> command) {
+    }
+
+    private record Run(String mode, double reportedStartupSeconds, long timeToFirstRequestMillis) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(System.getProperty("startup-benchmark.jar"));
+        Path targetDirectory = Path.of(System.getProperty("startup-benchmark.target-dir", "target"));
+        Path cdsArchive = targetDirectory.resolve("fast-startup/customer-api.jsa");
+        Path nativeImage = targetDirectory.resolve("customer-api");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<Mode> modes = List.of(
+                new Mode("jvm", jar, List.of(java, "-jar", jar.toString())),
+                new Mode("cds-aot", cdsArchive, List.of(
+                        java,
+                        "-XX:SharedArchiveFile=" + cdsArchive,
+                        "-Dspring.aot.enabled=true",
+                        "-cp", targetDirectory.resolve("classes") + ":" + targetDirectory.resolve("fast-startup/lib/*"),
+                        "com.codemountain.Main"
+                )),
+                new Mode("native", nativeImage, List.of(nativeImage.toString()))
+        );
+
+        List<Run> runs = new ArrayList<>();
+        for (Mode mode : modes) {
+            if (!Files.exists(mode.requiredArtifact())) {
+                System.out.printf("Skipping %s, %s has not been built%n", mode.name(), mode.requiredArtifact());
+                continue;
+            }
+            for (int i = 0; i < RUNS_PER_MODE; i++) {
+                Run run = measure(mode);
+                System.out.printf("%s: started in %.3fs, first request after %dms%n",
+                        run.mode(), run.reportedStartupSeconds(), run.timeToFirstRequestMillis());
+                runs.add(run);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("mode,reported_startup_seconds,time_to_first_request_ms");
+        runs.forEach(run -> lines.add("%s,%.3f,%d".formatted(
+                run.mode(), run.reportedStartupSeconds(), run.timeToFirstRequestMillis())));
+        Files.write(targetDirectory.resolve("startup-benchmark.csv"), lines);
+    }
+
+    private static Run measure(Mode mode) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(mode.command());
+        command.add("--server.port=" + port);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try {
+            CompletableFuture<Double> reportedStartup = new CompletableFuture<>();
+            Thread logReader = new Thread(() -> readStartupTime(process, reportedStartup));
+            logReader.setDaemon(true);
+            logReader.start();
+
+            long timeToFirstRequest = awaitFirstResponse(port, start);
+            return new Run(mode.name(), reportedStartup.completeOnTimeout(Double.NaN, 5, TimeUnit.SECONDS).join(), timeToFirstRequest);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static long awaitFirstResponse(int port, long start) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/customers/1"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = start + STARTUP_TIMEOUT.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() < 500) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            } catch (IOException e) {
+                // Connection reset while starting up
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Application did not answer within " + STARTUP_TIMEOUT);
+    }
+
+    private static void readStartupTime(Process process, CompletableFuture<Double> reportedStartup) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = STARTED_PATTERN.matcher(line);
+                if (matcher.find()) {
+                    reportedStartup.complete(Double.parseDouble(matcher.group(1)));
+                }
+            }
+        } catch (IOException e) {
+            // Process output closed
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
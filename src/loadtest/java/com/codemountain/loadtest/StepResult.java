@@ -0,0 +1,36 @@
+package com.codemountain.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+
+/*
+Latencies (in microseconds) and failures of a single
+constant-rate step of the load test.
+ */
+
+record StepResult(
+        int targetRate,
+        Duration elapsed,
+        Map<Operation, Histogram> correctedLatencies,
+        Map<Operation, Histogram> uncorrectedLatencies,
+        Map<Operation, Long> failures,
+        int unfinishedRequests
+) {
+
+    Histogram allCorrectedLatencies() {
+        Histogram total = new Histogram(3);
+        total.setAutoResize(true);
+        correctedLatencies.values().forEach(total::add);
+        return total;
+    }
+
+    long totalFailures() {
+        return failures.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    double achievedThroughput() {
+        return allCorrectedLatencies().getTotalCount() / (elapsed.toNanos() / 1_000_000_000.0);
+    }
+}
@@ -1,38 +1,15 @@
 package com.codemountain;
 
-import com.codemountain.customer.Customer;
-import com.codemountain.customer.CustomerRepository;
-import com.github.javafaker.Faker;
-import org.springframework.boot.CommandLineRunner;
+import com.codemountain.customer.CustomerRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-
-import java.util.ArrayList;
-import java.util.List;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(CustomerRuntimeHints.class)
 public class Main {
 
     public static void main(String[] args) {
         SpringApplication.run(Main.class, args);
     }
-
-    @Bean
-    CommandLineRunner runner(CustomerRepository customerRepository) {
-
-        return args -> {
-            Faker faker = new Faker();
-            String firstName = faker.name().firstName();
-            String lastName = faker.name().lastName();
-
-            Customer customer = new Customer(
-                    firstName + " " + lastName,
-                    firstName.toLowerCase() + "." + lastName.toLowerCase() + "@codemountain.com",
-                    faker.number().numberBetween(16, 75)
-            );
-
-            customerRepository.save(customer);
-        };
-    }
 }
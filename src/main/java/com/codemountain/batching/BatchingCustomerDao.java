@@ -0,0 +1,215 @@
+package com.codemountain.batching;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerQuery;
+import com.codemountain.customer.CustomerView;
+import com.codemountain.datasource.DataSourceRoute;
+import com.codemountain.datasource.DataSourceRouting;
+import com.codemountain.datasource.ReadYourWritesTracker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/*
+Merges concurrent selectCustomerById calls into one selectCustomersByIds.
+The first lookup of a batch leads it: it waits up to the window, or until
+the batch is full, then runs the query on its own thread and hands every
+waiting caller its customer. No extra threads are involved.
+Lookups are batched per route, and a client inside its read-your-writes
+window is batched with the primary reads, so merging never sends a read
+to a replica it would not have gone to on its own. Lookups inside a
+transaction are not batched, they must see the transaction's own writes.
+ */
+
+public class BatchingCustomerDao implements CustomerDao {
+
+    private final CustomerDao delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final DistributionSummary batchFill;
+    private final Timer addedWait;
+
+    // Open batches by route, null when no route is set
+    private final Map<DataSourceRoute, Batch> openBatches = new HashMap<>();
+
+    public BatchingCustomerDao(CustomerDao delegate,
+                               Duration window,
+                               int maxBatchSize,
+                               ReadYourWritesTracker readYourWritesTracker,
+                               String qualifier,
+                               MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.batchFill = DistributionSummary.builder("customer.dao.batch.fill")
+                .description("Share of the maximum batch size used by each batched lookup query")
+                .tag("dao", qualifier)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.addedWait = Timer.builder("customer.dao.batch.wait")
+                .description("Time lookups waited for their batch to be sent")
+                .tag("dao", qualifier)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return delegate.selectCustomerById(customerId);
+        }
+
+        long arrived = System.nanoTime();
+        DataSourceRoute route = effectiveRoute();
+        Batch batch;
+        CompletableFuture<Optional<CustomerView>> lookup;
+        boolean leader;
+        synchronized (openBatches) {
+            batch = openBatches.get(route);
+            leader = batch == null;
+            if (leader) {
+                batch = new Batch(route);
+                openBatches.put(route, batch);
+            }
+            lookup = batch.lookups.computeIfAbsent(customerId, id -> new CompletableFuture<>());
+            if (batch.lookups.size() >= maxBatchSize) {
+                openBatches.remove(route);
+                batch.full.countDown();
+            }
+        }
+
+        if (leader) {
+            run(batch);
+        }
+
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            addedWait.record(Math.max(0, batch.sentAt - arrived), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private DataSourceRoute effectiveRoute() {
+        DataSourceRoute route = DataSourceRouting.current();
+        if (route == DataSourceRoute.REPLICA
+                && readYourWritesTracker != null
+                && readYourWritesTracker.isWithinWriteWindow()) {
+            return DataSourceRoute.PRIMARY;
+        }
+        return route;
+    }
+
+    private void run(Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Once closed nothing joins the batch any more
+        synchronized (openBatches) {
+            openBatches.remove(batch.route, batch);
+        }
+        batch.sentAt = System.nanoTime();
+        batchFill.record((double) batch.lookups.size() / maxBatchSize);
+
+        boolean answered = false;
+        RuntimeException failure = null;
+        try {
+            List<Integer> customerIds = List.copyOf(batch.lookups.keySet());
+            List<CustomerView> customers = batch.route == null
+                    ? delegate.selectCustomersByIds(customerIds)
+                    : DataSourceRouting.with(batch.route, () -> delegate.selectCustomersByIds(customerIds));
+
+            for (CustomerView customer : customers) {
+                CompletableFuture<Optional<CustomerView>> lookup = batch.lookups.get(customer.id());
+                if (lookup != null) {
+                    lookup.complete(Optional.of(customer));
+                }
+            }
+            answered = true;
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            // Also when an Error escapes, a lookup left pending would block its caller forever
+            for (CompletableFuture<Optional<CustomerView>> lookup : batch.lookups.values()) {
+                if (answered) {
+                    lookup.complete(Optional.empty());
+                } else {
+                    lookup.completeExceptionally(failure != null
+                            ? failure
+                            : new IllegalStateException("Batched customer lookup failed"));
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomers() {
+        return delegate.selectAllCustomers();
+    }
+
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        return delegate.selectCustomersByIds(customerIds);
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        return delegate.selectCustomers(query);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        delegate.insertCustomer(customer);
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return delegate.existsCustomerWithEmail(email);
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Integer customerId) {
+        return delegate.existsCustomerWithId(customerId);
+    }
+
+    @Override
+    public void deleteCustomerWithId(Integer customerId) {
+        delegate.deleteCustomerWithId(customerId);
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        delegate.updateCustomer(updatedCustomer);
+    }
+
+    private static final class Batch {
+
+        private final DataSourceRoute route;
+        // Only changed under the openBatches lock while the batch is open
+        private final Map<Integer, CompletableFuture<Optional<CustomerView>>> lookups = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private volatile long sentAt;
+
+        Batch(DataSourceRoute route) {
+            this.route = route;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.codemountain.batching;
+
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.datasource.ReadYourWritesTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/*
+Wraps every CustomerDao bean in a BatchingCustomerDao.
+Runs before replica routing, so batches are routed per lookup,
+and before caching, so only cache misses are batched.
+ */
+
+@Component
+@EnableConfigurationProperties(CustomerBatchingProperties.class)
+@ConditionalOnProperty(prefix = "customer.batching", name = "enabled", havingValue = "true")
+public class BatchingCustomerDaoPostProcessor implements BeanPostProcessor, Ordered {
+
+    public static final int ORDER = 5;
+
+    private final ObjectProvider<CustomerBatchingProperties> properties;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public BatchingCustomerDaoPostProcessor(ObjectProvider<CustomerBatchingProperties> properties,
+                                            ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof CustomerDao customerDao) {
+            CustomerBatchingProperties batchingProperties = properties.getObject();
+            return new BatchingCustomerDao(
+                    customerDao,
+                    batchingProperties.window(),
+                    batchingProperties.maxBatchSize(),
+                    readYourWritesTracker.getIfAvailable(),
+                    beanName,
+                    meterRegistry.getObject()
+            );
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
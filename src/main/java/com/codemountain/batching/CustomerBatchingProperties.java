@@ -0,0 +1,18 @@
+package com.codemountain.batching;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+window: how long the first lookup of a batch waits for others to join it.
+maxBatchSize: lookups after which a batch is sent without waiting for the window.
+ */
+
+@ConfigurationProperties(prefix = "customer.batching")
+public record CustomerBatchingProperties(
+        boolean enabled,
+        Duration window,
+        int maxBatchSize
+) {
+}
@@ -0,0 +1,148 @@
+package com.codemountain.bulkimport;
+
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Imports a CSV file of name,email,age rows with a header line.
+The file is streamed with COPY into a temporary staging table and
+then merged into customer with a single INSERT ... SELECT, skipping
+emails that are already taken or repeated within the file.
+Everything runs in one transaction, so a failed import leaves no rows behind.
+ */
+
+class CopyCustomerImporter {
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMPORARY TABLE customer_import_staging(
+                line BIGINT GENERATED ALWAYS AS IDENTITY,
+                name TEXT NOT NULL,
+                email TEXT NOT NULL,
+                age INT NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL = """
+            COPY customer_import_staging(name, email, age) FROM STDIN WITH (FORMAT csv, HEADER true)
+            """;
+
+    private static final String DUPLICATE_SAMPLE_SQL = """
+            SELECT email
+            FROM (
+                SELECT email, row_number() OVER (PARTITION BY email ORDER BY line) AS occurrence
+                FROM customer_import_staging
+            ) staged
+            WHERE occurrence > 1
+               OR EXISTS (SELECT 1 FROM customer_email taken WHERE taken.email = staged.email)
+            LIMIT ?
+            """;
+
+    // Keeps the first row per email and the order of the file
+    private static final String MERGE_SQL = """
+            INSERT INTO customer(name, email, age)
+            SELECT name, email, age
+            FROM (
+                SELECT DISTINCT ON (email) line, name, email, age
+                FROM customer_import_staging
+                ORDER BY email, line
+            ) first_occurrence
+            WHERE NOT EXISTS (SELECT 1 FROM customer_email taken WHERE taken.email = first_occurrence.email)
+            ORDER BY line
+            """;
+
+    private final DataSource dataSource;
+    private final int sampleSize;
+
+    CopyCustomerImporter(DataSource dataSource, int sampleSize) {
+        this.dataSource = dataSource;
+        this.sampleSize = sampleSize;
+    }
+
+    void importFile(CustomerImportJob job) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                job.copying();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_SQL);
+                }
+
+                long rowsStaged;
+                try (InputStream file = new CountingInputStream(Files.newInputStream(job.getFile()), job.bytesRead())) {
+                    rowsStaged = connection.unwrap(PGConnection.class)
+                            .getCopyAPI()
+                            .copyIn(COPY_SQL, file);
+                }
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ANALYZE customer_import_staging");
+                }
+                job.merging(rowsStaged, duplicateSample(connection));
+
+                long rowsImported;
+                try (Statement statement = connection.createStatement()) {
+                    rowsImported = statement.executeLargeUpdate(MERGE_SQL);
+                }
+                connection.commit();
+                job.completed(rowsImported);
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private List<String> duplicateSample(Connection connection) throws SQLException {
+        List<String> emails = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(DUPLICATE_SAMPLE_SQL)) {
+            statement.setInt(1, sampleSize);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    emails.add(resultSet.getString(1));
+                }
+            }
+        }
+        return emails;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count.incrementAndGet();
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+    }
+}
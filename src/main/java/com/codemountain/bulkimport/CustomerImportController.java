@@ -0,0 +1,43 @@
+package com.codemountain.bulkimport;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+/*
+Bulk import of customers from CSV files: upload a file, then poll
+the returned job until it is COMPLETED or FAILED.
+Not mapped when sharding is enabled, see CustomerImportService.
+ */
+
+@RestController
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@RequestMapping(path = "api/v1/customers/imports")
+public class CustomerImportController {
+
+    private final CustomerImportService customerImportService;
+
+    public CustomerImportController(CustomerImportService customerImportService) {
+        this.customerImportService = customerImportService;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CustomerImportStatus> startImport(@RequestParam("file") MultipartFile file) throws IOException {
+        CustomerImportStatus status = customerImportService.submit(file);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/v1/customers/imports/" + status.id()))
+                .body(status);
+    }
+
+    @GetMapping("{id}")
+    public CustomerImportStatus getImport(@PathVariable(name = "id") UUID jobId) {
+        return customerImportService.getStatus(jobId);
+    }
+}
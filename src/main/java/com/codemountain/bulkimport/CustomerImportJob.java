@@ -0,0 +1,93 @@
+package com.codemountain.bulkimport;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Mutable progress of one import, written by the importing thread
+and read by status requests.
+ */
+
+public class CustomerImportJob {
+
+    private final UUID id = UUID.randomUUID();
+    private final Path file;
+    private final long bytesTotal;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private volatile CustomerImportState state = CustomerImportState.QUEUED;
+    private volatile long rowsStaged;
+    private volatile long rowsImported;
+    private volatile List<String> duplicateSample = List.of();
+    private volatile String error;
+    private volatile Instant finishedAt;
+
+    public CustomerImportJob(Path file, long bytesTotal) {
+        this.file = file;
+        this.bytesTotal = bytesTotal;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public CustomerImportState getState() {
+        return state;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    AtomicLong bytesRead() {
+        return bytesRead;
+    }
+
+    void copying() {
+        state = CustomerImportState.COPYING;
+    }
+
+    void merging(long rowsStaged, List<String> duplicateSample) {
+        this.rowsStaged = rowsStaged;
+        this.duplicateSample = List.copyOf(duplicateSample);
+        state = CustomerImportState.MERGING;
+    }
+
+    void completed(long rowsImported) {
+        this.rowsImported = rowsImported;
+        finishedAt = Instant.now();
+        state = CustomerImportState.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        state = CustomerImportState.FAILED;
+    }
+
+    public CustomerImportStatus toStatus() {
+        CustomerImportState currentState = state;
+        long imported = rowsImported;
+        return new CustomerImportStatus(
+                id,
+                currentState,
+                bytesTotal,
+                bytesRead.get(),
+                rowsStaged,
+                imported,
+                currentState == CustomerImportState.COMPLETED ? rowsStaged - imported : 0,
+                duplicateSample,
+                error,
+                createdAt,
+                finishedAt
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.codemountain.bulkimport;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+concurrentImports: imports running at the same time, each holds its own unpooled connection until it finishes.
+queueCapacity: accepted imports waiting for a free slot before new uploads are turned away.
+sampleSize: duplicate emails listed in the status of a job.
+retention: how long the status of a finished job can still be polled.
+ */
+
+@ConfigurationProperties(prefix = "customer.import")
+public record CustomerImportProperties(
+        int concurrentImports,
+        int queueCapacity,
+        int sampleSize,
+        Duration retention
+) {
+}
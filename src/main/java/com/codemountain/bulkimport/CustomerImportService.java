@@ -0,0 +1,128 @@
+package com.codemountain.bulkimport;
+
+import com.codemountain.exception.ResourceNotFoundException;
+import com.codemountain.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Accepts CSV uploads and imports them in the background.
+Imports run on a small bounded executor over their own connections,
+outside the Hikari pool, so they cannot take connections or threads
+away from online requests. Uploads beyond the queue are turned away.
+COPY loads into the primary database only, there is no per-shard split,
+so imports are not offered when sharding is enabled.
+ */
+
+@Service
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@EnableConfigurationProperties(CustomerImportProperties.class)
+public class CustomerImportService implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private final CustomerImportProperties properties;
+    private final CopyCustomerImporter importer;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, CustomerImportJob> jobs = new ConcurrentHashMap<>();
+
+    public CustomerImportService(CustomerImportProperties properties, DataSourceProperties dataSourceProperties) {
+        this.properties = properties;
+        this.importer = new CopyCustomerImporter(
+                new DriverManagerDataSource(
+                        dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(),
+                        dataSourceProperties.determinePassword()
+                ),
+                properties.sampleSize()
+        );
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.concurrentImports(),
+                properties.concurrentImports(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "customer-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    public CustomerImportStatus submit(MultipartFile file) throws IOException {
+        evictExpiredJobs();
+
+        Path upload = Files.createTempFile("customer-import-", ".csv");
+        file.transferTo(upload);
+        CustomerImportJob job = new CustomerImportJob(upload, Files.size(upload));
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(upload);
+            throw new TooManyRequestsException("Too many customer imports in progress, try again later.");
+        }
+        return job.toStatus();
+    }
+
+    public CustomerImportStatus getStatus(UUID jobId) {
+        CustomerImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Customer import with id [%s] was not found.".formatted(jobId));
+        }
+        return job.toStatus();
+    }
+
+    private void run(CustomerImportJob job) {
+        try {
+            importer.importFile(job);
+            CustomerImportStatus status = job.toStatus();
+            log.info("Customer import {} finished: {} rows imported, {} duplicates skipped",
+                    job.getId(), status.rowsImported(), status.duplicates());
+        } catch (Exception e) {
+            // The cause can carry SQL and row contents, it stays in the log
+            log.warn("Customer import {} failed", job.getId(), e);
+            job.failed("The import failed and was rolled back, no customers were added.");
+        } finally {
+            try {
+                Files.deleteIfExists(job.getFile());
+            } catch (IOException e) {
+                log.warn("Could not delete upload {}", job.getFile(), e);
+            }
+        }
+    }
+
+    private void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minus(properties.retention());
+        jobs.values().removeIf(job -> job.getState().isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
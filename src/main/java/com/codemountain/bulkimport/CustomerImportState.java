@@ -0,0 +1,13 @@
+package com.codemountain.bulkimport;
+
+public enum CustomerImportState {
+    QUEUED,
+    COPYING,
+    MERGING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
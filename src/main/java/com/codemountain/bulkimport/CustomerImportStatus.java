@@ -0,0 +1,26 @@
+package com.codemountain.bulkimport;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/*
+Snapshot of an import job as returned by the API.
+duplicates counts rows that were skipped because their email was already
+taken, either by an existing customer or by an earlier row of the file.
+ */
+
+public record CustomerImportStatus(
+        UUID id,
+        CustomerImportState state,
+        long bytesTotal,
+        long bytesRead,
+        long rowsStaged,
+        long rowsImported,
+        long duplicates,
+        List<String> duplicateSample,
+        String error,
+        Instant createdAt,
+        Instant finishedAt
+) {
+}
@@ -0,0 +1,151 @@
+package com.codemountain.cache;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerQuery;
+import com.codemountain.customer.CustomerView;
+import com.codemountain.datasource.DataSourceRoute;
+import com.codemountain.datasource.DataSourceRouting;
+import com.codemountain.jfr.CustomerCacheEvent;
+import com.codemountain.warmup.WarmupPhase;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/*
+Caches selectCustomerById results, including misses, per customer id.
+Local writes evict their id straight away, writes from other nodes are
+evicted through CustomerChangeNotifications.
+With replica routing, a miss right after an invalidation can still load
+the old row from a lagging replica; expireAfterWrite bounds how long.
+Reads made while the primary is requested or during warm-up skip the cache.
+ */
+
+public class CachingCustomerDao implements CustomerDao, CustomerChangeListener {
+
+    private static final String CACHE_NAME = "dao";
+
+    private final CustomerDao delegate;
+    private final Cache<Integer, Optional<CustomerView>> cache;
+
+    public CachingCustomerDao(CustomerDao delegate, Cache<Integer, Optional<CustomerView>> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomers() {
+        return delegate.selectAllCustomers();
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
+        if (DataSourceRouting.current() == DataSourceRoute.PRIMARY || WarmupPhase.isRunning()) {
+            return delegate.selectCustomerById(customerId);
+        }
+        if (!CustomerCacheEvent.isRecorded()) {
+            return cache.get(customerId, delegate::selectCustomerById);
+        }
+        boolean[] loaded = {false};
+        Optional<CustomerView> customer = cache.get(customerId, id -> {
+            loaded[0] = true;
+            return delegate.selectCustomerById(id);
+        });
+        CustomerCacheEvent.record(CACHE_NAME, 1, loaded[0] ? 0 : 1);
+        return customer;
+    }
+
+    // Only the ids missing from the cache are loaded, in one call
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        if (WarmupPhase.isRunning()) {
+            return delegate.selectCustomersByIds(customerIds);
+        }
+        if (!CustomerCacheEvent.isRecorded()) {
+            return present(cache.getAll(customerIds, this::loadCustomers));
+        }
+        int[] loaded = {0};
+        Map<Integer, Optional<CustomerView>> customers = cache.getAll(customerIds, missing -> {
+            loaded[0] = missing.size();
+            return loadCustomers(missing);
+        });
+        CustomerCacheEvent.record(CACHE_NAME, customers.size(), customers.size() - loaded[0]);
+        return present(customers);
+    }
+
+    private static List<CustomerView> present(Map<Integer, Optional<CustomerView>> customers) {
+        return customers.values()
+                .stream()
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    private Map<Integer, Optional<CustomerView>> loadCustomers(Set<? extends Integer> customerIds) {
+        Map<Integer, Optional<CustomerView>> loaded = new HashMap<>();
+        customerIds.forEach(customerId -> loaded.put(customerId, Optional.empty()));
+        delegate.selectCustomersByIds(List.copyOf(customerIds))
+                .forEach(customer -> loaded.put(customer.id(), Optional.of(customer)));
+        return loaded;
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        return delegate.selectCustomers(query);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        delegate.insertCustomer(customer);
+        if (customer.getId() != null) {
+            // Drop a cached miss for the new id
+            cache.invalidate(customer.getId());
+        }
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return delegate.existsCustomerWithEmail(email);
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Integer customerId) {
+        Optional<CustomerView> cached = cache.getIfPresent(customerId);
+        if (cached != null) {
+            return cached.isPresent();
+        }
+        return delegate.existsCustomerWithId(customerId);
+    }
+
+    @Override
+    public void deleteCustomerWithId(Integer customerId) {
+        try {
+            delegate.deleteCustomerWithId(customerId);
+        } finally {
+            cache.invalidate(customerId);
+        }
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        try {
+            delegate.updateCustomer(updatedCustomer);
+        } finally {
+            cache.invalidate(updatedCustomer.getId());
+        }
+    }
+
+    @Override
+    public void onCustomersChanged(Collection<Integer> customerIds) {
+        cache.invalidateAll(customerIds);
+    }
+
+    @Override
+    public void onAllCustomersChanged() {
+        cache.invalidateAll();
+    }
+}
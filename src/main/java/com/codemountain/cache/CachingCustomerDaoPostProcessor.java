@@ -0,0 +1,64 @@
+package com.codemountain.cache;
+
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/*
+Wraps every CustomerDao bean in a CachingCustomerDao with its own cache,
+registered for change notifications. Runs after replica routing so cache
+misses are still routed.
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "customer.cache", name = "enabled", havingValue = "true")
+public class CachingCustomerDaoPostProcessor implements BeanPostProcessor, Ordered {
+
+    public static final int ORDER = 30;
+
+    private final ObjectProvider<CustomerCacheProperties> properties;
+    private final ObjectProvider<CustomerChangeNotifications> changeNotifications;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public CachingCustomerDaoPostProcessor(ObjectProvider<CustomerCacheProperties> properties,
+                                           ObjectProvider<CustomerChangeNotifications> changeNotifications,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.changeNotifications = changeNotifications;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof CustomerDao customerDao) {
+            CustomerCacheProperties cacheProperties = properties.getObject();
+            Cache<Integer, Optional<CustomerView>> cache = Caffeine.newBuilder()
+                    .maximumSize(cacheProperties.maximumSize())
+                    .expireAfterWrite(cacheProperties.expireAfterWrite())
+                    .recordStats()
+                    .build();
+            meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "customer." + beanName));
+
+            CachingCustomerDao cachingCustomerDao = new CachingCustomerDao(customerDao, cache);
+            changeNotifications.getObject().addListener(cachingCustomerDao);
+            return cachingCustomerDao;
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,48 @@
+package com.codemountain.cache;
+
+import com.codemountain.shard.ShardingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/*
+Listens for customer changes on the primary database configured
+under spring.datasource, or on every shard when customers are sharded.
+ */
+
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, CustomerCacheProperties.class})
+@ConditionalOnProperty(prefix = "customer.cache", name = "enabled", havingValue = "true")
+public class CustomerCacheConfig {
+
+    @Bean
+    public CustomerChangeNotifications customerChangeNotifications(DataSourceProperties dataSourceProperties,
+                                                                   ObjectProvider<ShardingProperties> sharded,
+                                                                   CustomerCacheProperties properties,
+                                                                   MeterRegistry meterRegistry) {
+        ShardingProperties sharding = sharded.getIfAvailable();
+        List<CustomerChangeNotifications.Database> databases = sharding != null && sharding.enabled()
+                ? sharding.shards()
+                .stream()
+                .map(shard -> new CustomerChangeNotifications.Database(shard.url(), shard.username(), shard.password()))
+                .toList()
+                : List.of(new CustomerChangeNotifications.Database(
+                        dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(),
+                        dataSourceProperties.determinePassword()
+                ));
+
+        return new CustomerChangeNotifications(
+                databases,
+                properties.pollTimeout(),
+                properties.reconnectDelay(),
+                meterRegistry
+        );
+    }
+}
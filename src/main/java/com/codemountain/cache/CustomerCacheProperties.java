@@ -0,0 +1,22 @@
+package com.codemountain.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+maximumSize: customers kept per cached CustomerDao.
+expireAfterWrite: upper bound on staleness should an invalidation get lost.
+pollTimeout: how long the listener waits for notifications before checking its connection.
+reconnectDelay: pause between attempts to re-open a lost listener connection.
+ */
+
+@ConfigurationProperties(prefix = "customer.cache")
+public record CustomerCacheProperties(
+        boolean enabled,
+        long maximumSize,
+        Duration expireAfterWrite,
+        Duration pollTimeout,
+        Duration reconnectDelay
+) {
+}
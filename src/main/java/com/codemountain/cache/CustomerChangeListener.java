@@ -0,0 +1,16 @@
+package com.codemountain.cache;
+
+import java.util.Collection;
+
+/*
+Receives the customers changed on any node, as published by
+CustomerChangeNotifications.
+ */
+
+public interface CustomerChangeListener {
+
+    void onCustomersChanged(Collection<Integer> customerIds);
+
+    // Called when changes may have been missed and every customer has to be considered stale
+    void onAllCustomersChanged();
+}
@@ -0,0 +1,241 @@
+package com.codemountain.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+Listens on the customer_changes channel filled by the V4 triggers (and
+their db/shard counterpart) and passes the changed ids on to the
+registered listeners. With sharding there is one connection per shard.
+Uses its own connections outside of the pool, as LISTEN holds them for
+the lifetime of the application. Whenever a connection is (re)opened
+listeners are told to drop everything, since notifications sent while
+nobody was listening are lost. A notification that cannot be handled
+does the same, rather than ending the listener thread.
+ */
+
+public class CustomerChangeNotifications implements SmartLifecycle {
+
+    public static final String CHANNEL = "customer_changes";
+    public static final String APPLICATION_NAME = "customer-change-listener";
+    private static final String ALL_CUSTOMERS = "*";
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerChangeNotifications.class);
+
+    public record Database(String url, String username, String password) {
+    }
+
+    private final List<Database> databases;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+    private final List<CustomerChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Timer lag;
+    private final Counter invalidations;
+    private final Counter flushes;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private final AtomicIntegerArray connected;
+    private final List<Thread> listenerThreads = new ArrayList<>();
+
+    public CustomerChangeNotifications(String url,
+                                       String username,
+                                       String password,
+                                       Duration pollTimeout,
+                                       Duration reconnectDelay,
+                                       MeterRegistry meterRegistry) {
+        this(List.of(new Database(url, username, password)), pollTimeout, reconnectDelay, meterRegistry);
+    }
+
+    public CustomerChangeNotifications(List<Database> databases,
+                                       Duration pollTimeout,
+                                       Duration reconnectDelay,
+                                       MeterRegistry meterRegistry) {
+        this.databases = List.copyOf(databases);
+        this.connected = new AtomicIntegerArray(databases.size());
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+
+        // Measured between the database and the local clock, so it includes clock skew
+        this.lag = Timer.builder("customer.cache.invalidation.lag")
+                .description("Time from a customer change being committed to it reaching this node")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("customer.cache.invalidations")
+                .description("Customer ids received for invalidation")
+                .register(meterRegistry);
+        this.flushes = Counter.builder("customer.cache.flushes")
+                .description("Full cache flushes after the listener (re)connected or a bulk change")
+                .register(meterRegistry);
+        this.failures = Counter.builder("customer.cache.notification.failures")
+                .description("Change notifications that could not be handled and flushed everything instead")
+                .register(meterRegistry);
+        Gauge.builder("customer.cache.listener.connected", this, notifications -> notifications.isConnected() ? 1 : 0)
+                .description("Whether every change listener connection is open")
+                .register(meterRegistry);
+    }
+
+    public void addListener(CustomerChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isConnected() {
+        for (int i = 0; i < connected.length(); i++) {
+            if (connected.get(i) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < databases.size(); i++) {
+            final int database = i;
+            Thread listenerThread = new Thread(() -> listen(database), "customer-change-listener-" + i);
+            listenerThread.setDaemon(true);
+            listenerThread.start();
+            listenerThreads.add(listenerThread);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listenerThreads.forEach(Thread::interrupt);
+        try {
+            for (Thread listenerThread : listenerThreads) {
+                listenerThread.join(pollTimeout.multipliedBy(2).toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        listenerThreads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen(int database) {
+        while (running) {
+            try (Connection connection = connect(databases.get(database))) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected.set(database, 1);
+                log.info("Listening for customer changes on channel {} of database {}", CHANNEL, database);
+                flushAll();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int timeoutMillis = (int) pollTimeout.toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+                    if (notifications == null || notifications.length == 0) {
+                        // Nothing arrived, make sure the connection is still alive
+                        if (!connection.isValid(timeoutMillis / 1000 + 1)) {
+                            throw new SQLException("Change listener connection is no longer valid");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handleOrFlush(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Customer change listener lost its connection, reconnecting in {}", reconnectDelay, e);
+            } finally {
+                if (connected.getAndSet(database, 0) == 1) {
+                    // Changes committed from now on will not be seen until reconnected
+                    flushAll();
+                }
+            }
+            sleepBeforeReconnect();
+        }
+    }
+
+    private Connection connect(Database database) throws SQLException {
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("user", database.username());
+        connectionProperties.setProperty("password", database.password());
+        // Makes the listener easy to spot in pg_stat_activity
+        connectionProperties.setProperty("ApplicationName", APPLICATION_NAME);
+        return DriverManager.getConnection(database.url(), connectionProperties);
+    }
+
+    // Which ids a broken payload or a failed listener missed is unknown, so everything goes
+    private void handleOrFlush(String payload) {
+        try {
+            handle(payload);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.error("Could not handle customer change notification [{}], flushing all caches", payload, e);
+            flushAll();
+        }
+    }
+
+    void handle(String payload) {
+        int separator = payload.indexOf(';');
+        long sentAt = Long.parseLong(payload, 0, separator, 10);
+        String ids = payload.substring(separator + 1);
+
+        if (ALL_CUSTOMERS.equals(ids)) {
+            flushAll();
+        } else {
+            List<Integer> customerIds = new ArrayList<>();
+            for (String id : ids.split(",")) {
+                customerIds.add(Integer.valueOf(id));
+            }
+            invalidations.increment(customerIds.size());
+            for (CustomerChangeListener listener : listeners) {
+                listener.onCustomersChanged(customerIds);
+            }
+        }
+        lag.record(Math.max(0, System.currentTimeMillis() - sentAt), TimeUnit.MILLISECONDS);
+    }
+
+    private void flushAll() {
+        flushes.increment();
+        for (CustomerChangeListener listener : listeners) {
+            try {
+                listener.onAllCustomersChanged();
+            } catch (RuntimeException e) {
+                log.error("Customer change listener {} failed to flush", listener, e);
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
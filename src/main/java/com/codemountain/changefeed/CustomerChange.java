@@ -0,0 +1,20 @@
+package com.codemountain.changefeed;
+
+import com.codemountain.customer.CustomerChangedEvent;
+import com.codemountain.customer.CustomerView;
+
+import java.time.Instant;
+
+/*
+A CustomerChangedEvent numbered in the order this node saw it.
+id, prefixed with the epoch of the feed, is the SSE event id clients resume from.
+ */
+
+public record CustomerChange(
+        long id,
+        CustomerChangedEvent.Type type,
+        int customerId,
+        CustomerView customer,
+        Instant changedAt
+) {
+}
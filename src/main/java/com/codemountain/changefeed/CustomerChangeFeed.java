@@ -0,0 +1,164 @@
+package com.codemountain.changefeed;
+
+import com.codemountain.customer.CustomerChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Fans customer changes out to SSE subscribers.
+The last historySize changes are kept in a ring buffer so a subscriber
+can resume after its Last-Event-ID. Every subscriber has its own bounded
+queue; one that falls behind far enough to fill it is completed and can
+reconnect with its last event id, instead of being buffered for without
+bound. Heartbeats go through the same queue, so connections that are
+open but no longer read are dropped as well.
+Changes are numbered per node and only cover writes made through this
+node. Event ids are prefixed with an epoch drawn when the feed starts,
+so an id from another node, or from before a restart, is never mistaken
+for one of this feed's own. A Last-Event-ID this feed cannot resume from
+gets a reset event: the client missed changes and has to reload before
+applying new ones.
+ */
+
+public class CustomerChangeFeed {
+
+    static final String RESET_EVENT = "reset";
+
+    private static final ServerSentEvent<CustomerChange> HEARTBEAT =
+            ServerSentEvent.<CustomerChange>builder().comment("heartbeat").build();
+
+    private final String epoch;
+    private final int historySize;
+    private final int subscriberBufferSize;
+    private final Deque<CustomerChange> history = new ArrayDeque<>();
+    private final Set<Sinks.Many<ServerSentEvent<CustomerChange>>> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter droppedSubscribers;
+    private long lastChangeId;
+
+    public CustomerChangeFeed(int historySize, int subscriberBufferSize, MeterRegistry meterRegistry) {
+        this(UUID.randomUUID().toString().substring(0, 8), historySize, subscriberBufferSize, meterRegistry);
+    }
+
+    CustomerChangeFeed(String epoch, int historySize, int subscriberBufferSize, MeterRegistry meterRegistry) {
+        this.epoch = epoch;
+        this.historySize = historySize;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.droppedSubscribers = Counter.builder("customer.changes.dropped")
+                .description("Change feed subscribers dropped because they fell behind")
+                .register(meterRegistry);
+        Gauge.builder("customer.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed subscriptions")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        synchronized (history) {
+            CustomerChange change = new CustomerChange(
+                    ++lastChangeId,
+                    event.type(),
+                    event.customerId(),
+                    event.customer(),
+                    Instant.now()
+            );
+            history.addLast(change);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            emit(toEvent(change));
+        }
+    }
+
+    public void heartbeat() {
+        synchronized (history) {
+            emit(HEARTBEAT);
+        }
+    }
+
+    public Flux<ServerSentEvent<CustomerChange>> subscribe(String lastEventId) {
+        Sinks.Many<ServerSentEvent<CustomerChange>> subscriber = Sinks.many()
+                .unicast()
+                .onBackpressureBuffer(new ArrayBlockingQueue<>(subscriberBufferSize));
+
+        List<ServerSentEvent<CustomerChange>> replay = new ArrayList<>();
+        // Taking the replay and registering under one lock leaves no gap and no duplicates
+        synchronized (history) {
+            long lastSeenId = lastEventId == null ? lastChangeId : changeId(lastEventId);
+            if (lastSeenId != lastChangeId) {
+                CustomerChange oldest = history.peekFirst();
+                boolean canResume = lastSeenId >= 0
+                        && lastSeenId < lastChangeId
+                        && oldest != null
+                        && oldest.id() <= lastSeenId + 1;
+                if (canResume) {
+                    for (CustomerChange change : history) {
+                        if (change.id() > lastSeenId) {
+                            replay.add(toEvent(change));
+                        }
+                    }
+                } else {
+                    replay.add(ServerSentEvent.<CustomerChange>builder()
+                            .id(eventId(lastChangeId))
+                            .event(RESET_EVENT)
+                            .build());
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        return Flux.concat(Flux.fromIterable(replay), subscriber.asFlux())
+                .doFinally(signal -> subscribers.remove(subscriber));
+    }
+
+    private void emit(ServerSentEvent<CustomerChange> event) {
+        for (Sinks.Many<ServerSentEvent<CustomerChange>> subscriber : subscribers) {
+            Sinks.EmitResult result = subscriber.tryEmitNext(event);
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                subscribers.remove(subscriber);
+                subscriber.tryEmitComplete();
+                droppedSubscribers.increment();
+            } else if (result.isFailure()) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private ServerSentEvent<CustomerChange> toEvent(CustomerChange change) {
+        return ServerSentEvent.builder(change)
+                .id(eventId(change.id()))
+                .event(change.type().name().toLowerCase())
+                .build();
+    }
+
+    private String eventId(long changeId) {
+        return epoch + "-" + changeId;
+    }
+
+    // The change number of an event id of this epoch, -1 for any other id
+    private long changeId(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.codemountain.changefeed;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(CustomerChangeFeedProperties.class)
+@ConditionalOnProperty(prefix = "customer.change-feed", name = "enabled", havingValue = "true")
+public class CustomerChangeFeedConfig {
+
+    private final CustomerChangeFeedProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public CustomerChangeFeedConfig(CustomerChangeFeedProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public CustomerChangeFeed customerChangeFeed() {
+        return new CustomerChangeFeed(
+                properties.historySize(),
+                properties.subscriberBufferSize(),
+                meterRegistry
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${customer.change-feed.heartbeat}")
+    public void sendHeartbeat() {
+        customerChangeFeed().heartbeat();
+    }
+}
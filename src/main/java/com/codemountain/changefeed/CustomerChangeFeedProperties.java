@@ -0,0 +1,22 @@
+package com.codemountain.changefeed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+historySize: recent changes kept for subscribers that resume with Last-Event-ID.
+subscriberBufferSize: changes queued for one subscriber before it is dropped.
+heartbeat: interval of the comments that keep idle streams open.
+streamTimeout: how long a stream stays open before the client has to reconnect.
+ */
+
+@ConfigurationProperties(prefix = "customer.change-feed")
+public record CustomerChangeFeedProperties(
+        boolean enabled,
+        int historySize,
+        int subscriberBufferSize,
+        Duration heartbeat,
+        Duration streamTimeout
+) {
+}
@@ -0,0 +1,72 @@
+package com.codemountain.changefeed;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/*
+Pushes customer creates, updates and deletes as Server-Sent Events,
+so consumers no longer need to poll the customer listing.
+The stream timeout is set on the emitter, other async requests keep
+the default timeout.
+ */
+
+@RestController
+@RequestMapping(path = "api/v1/customers/changes")
+@ConditionalOnProperty(prefix = "customer.change-feed", name = "enabled", havingValue = "true")
+public class CustomerChangeStreamController {
+
+    private final CustomerChangeFeed customerChangeFeed;
+    private final CustomerChangeFeedProperties properties;
+
+    public CustomerChangeStreamController(CustomerChangeFeed customerChangeFeed,
+                                          CustomerChangeFeedProperties properties) {
+        this.customerChangeFeed = customerChangeFeed;
+        this.properties = properties;
+    }
+
+    @GetMapping(path = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.streamTimeout().toMillis());
+        // Sent from another thread with a prefetch of one, a slow client fills its own queue in the feed
+        Disposable subscription = customerChangeFeed.subscribe(lastEventId)
+                .publishOn(Schedulers.boundedElastic(), 1)
+                .subscribe(event -> send(emitter, event), emitter::completeWithError, emitter::complete);
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(error -> subscription.dispose());
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, ServerSentEvent<CustomerChange> event) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (event.id() != null) {
+            builder.id(event.id());
+        }
+        if (event.event() != null) {
+            builder.name(event.event());
+        }
+        if (event.comment() != null) {
+            builder.comment(event.comment());
+        }
+        if (event.data() != null) {
+            builder.data(event.data(), MediaType.APPLICATION_JSON);
+        }
+        try {
+            emitter.send(builder);
+        } catch (IOException e) {
+            // Ends the subscription, the client is gone
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.codemountain.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "customer.concurrency-limit", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+                new GradientConcurrencyLimit(
+                        properties.initialLimit(),
+                        properties.minLimit(),
+                        properties.maxLimit()
+                ),
+                properties.lowPriorityShare()
+        );
+
+        Gauge.builder("customer.concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("customer.concurrency.inflight", limiter, ConcurrencyLimiter::getInflight)
+                .description("Requests currently admitted by the concurrency limiter")
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimiter limiter,
+                                                                                 ConcurrencyLimitProperties properties,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limiter, properties.retryAfter(), meterRegistry)
+        );
+        registration.addUrlPatterns("/api/*");
+        // Reject before any other work is done for the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
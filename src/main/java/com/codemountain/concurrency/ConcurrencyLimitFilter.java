@@ -0,0 +1,84 @@
+package com.codemountain.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/*
+Sheds load in front of the customer API. Requests over the adaptive
+limit are rejected immediately with 503 and Retry-After instead of
+queueing on Tomcat threads and JDBC connections.
+ */
+
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String CUSTOMERS_PATH = "/api/v1/customers";
+
+    private final ConcurrencyLimiter limiter;
+    private final String retryAfterSeconds;
+    private final Map<RequestPriority, Counter> rejections = new EnumMap<>(RequestPriority.class);
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter, Duration retryAfter, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejections.put(priority, Counter.builder("customer.concurrency.rejections")
+                    .description("Requests rejected by the concurrency limiter")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    // Change streams stay open indefinitely and would hold a slot for as long
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals(CUSTOMERS_PATH + "/changes/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestPriority priority = priorityOf(request);
+        if (!limiter.tryAcquire(priority)) {
+            rejections.get(priority).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests.");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    /*
+    Full listings and delta syncs are expensive and can be retried later; writes
+    and lookups of single customers or id lists are what clients are waiting on.
+     */
+    static RequestPriority priorityOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean isListing = HttpMethod.GET.matches(request.getMethod())
+                && ((path.equals(CUSTOMERS_PATH) || path.equals(CUSTOMERS_PATH + "/"))
+                        && request.getParameter("ids") == null
+                || path.equals(CUSTOMERS_PATH + "/export")
+                || path.equals(CUSTOMERS_PATH + "/changes"));
+        return isListing ? RequestPriority.LOW : RequestPriority.HIGH;
+    }
+}
@@ -0,0 +1,21 @@
+package com.codemountain.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+lowPriorityShare: fraction of the limit that full customer listings may occupy.
+retryAfter: value of the Retry-After header sent with rejections.
+ */
+
+@ConfigurationProperties(prefix = "customer.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        boolean enabled,
+        int initialLimit,
+        int minLimit,
+        int maxLimit,
+        double lowPriorityShare,
+        Duration retryAfter
+) {
+}
@@ -0,0 +1,50 @@
+package com.codemountain.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Admits requests while fewer than the current limit are in flight.
+Low priority requests may only use part of the limit so writes and
+id lookups still get through while full listings are shed.
+ */
+
+public class ConcurrencyLimiter {
+
+    private final GradientConcurrencyLimit limit;
+    private final double lowPriorityShare;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    public ConcurrencyLimiter(GradientConcurrencyLimit limit, double lowPriorityShare) {
+        this.limit = limit;
+        this.lowPriorityShare = lowPriorityShare;
+    }
+
+    public boolean tryAcquire(RequestPriority priority) {
+        int allowed = priority == RequestPriority.HIGH
+                ? limit.getLimit()
+                : Math.max(1, (int) (limit.getLimit() * lowPriorityShare));
+
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos) {
+        int current = inflight.getAndDecrement();
+        limit.onSample(rttNanos, current);
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
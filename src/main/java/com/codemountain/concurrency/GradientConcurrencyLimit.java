@@ -0,0 +1,86 @@
+package com.codemountain.concurrency;
+
+/*
+Gradient based concurrency limit (after Netflix's Gradient2).
+The ratio between the long term and the short term round trip
+time tells whether requests are queueing somewhere downstream:
+when recent requests are slower than usual the limit shrinks,
+when they are not it grows by a small queue allowance.
+ */
+
+public class GradientConcurrencyLimit {
+
+    // Recent latency may exceed the long term average by this factor before the limit shrinks
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final MovingAverage shortRtt = new MovingAverage(SHORT_WINDOW);
+    private final MovingAverage longRtt = new MovingAverage(LONG_WINDOW);
+    private volatile double estimatedLimit;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public synchronized void onSample(long rttNanos, int inflight) {
+        double shortTerm = shortRtt.add(rttNanos);
+        double longTerm = longRtt.add(rttNanos);
+
+        // Let the long term average recover quickly after a period of high latency
+        if (longTerm / shortTerm > 2) {
+            longRtt.scale(0.95);
+            longTerm = longRtt.get();
+        }
+
+        // Not enough load to tell whether a higher limit would be sustainable
+        if (inflight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longTerm / shortTerm));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    private static class MovingAverage {
+
+        private final int window;
+        private double value;
+        private int samples;
+
+        MovingAverage(int window) {
+            this.window = window;
+        }
+
+        double add(double sample) {
+            if (samples < window) {
+                samples++;
+                value += (sample - value) / samples;
+            } else {
+                double factor = 2.0 / (window + 1);
+                value = value * (1 - factor) + sample * factor;
+            }
+            return value;
+        }
+
+        double get() {
+            return value;
+        }
+
+        void scale(double factor) {
+            value *= factor;
+        }
+    }
+}
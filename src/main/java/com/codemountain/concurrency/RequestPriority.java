@@ -0,0 +1,6 @@
+package com.codemountain.concurrency;
+
+public enum RequestPriority {
+    HIGH,
+    LOW
+}
@@ -1,7 +1,10 @@
 package com.codemountain.customer;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.OffsetDateTime;
 import java.util.Objects;
 
 /*
@@ -9,15 +12,8 @@ This class serves as the Customer model
  */
 
 @Entity
-@Table(
-        name = "customer",
-        uniqueConstraints = {
-                @UniqueConstraint(
-                        name = "customer_email_unique",
-                        columnNames = "email"
-                )
-        }
-)
+// Email uniqueness is enforced by the customer_email table, see V3__Partition_Customer_By_Id_Hash.sql
+@Table(name = "customer")
 public class Customer {
 
     @Id
@@ -37,6 +33,10 @@ public class Customer {
     private String email;
     @Column(nullable = false)
     private Integer age;
+    // Taken from the database so it matches the rows written over JDBC
+    @UpdateTimestamp(source = SourceType.DB)
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
 
     public Customer() {
     }
@@ -86,6 +86,10 @@ public class Customer {
         this.age = age;
     }
 
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,31 @@
+package com.codemountain.customer;
+
+/*
+Published after a customer write has been committed.
+customer holds the new state and is null for deletions.
+ */
+
+public record CustomerChangedEvent(
+        Type type,
+        int customerId,
+        CustomerView customer
+) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    static CustomerChangedEvent created(Customer customer) {
+        return new CustomerChangedEvent(Type.CREATED, customer.getId(), CustomerView.of(customer));
+    }
+
+    static CustomerChangedEvent updated(Customer customer) {
+        return new CustomerChangedEvent(Type.UPDATED, customer.getId(), CustomerView.of(customer));
+    }
+
+    static CustomerChangedEvent deleted(int customerId) {
+        return new CustomerChangedEvent(Type.DELETED, customerId, null);
+    }
+}
@@ -1,7 +1,13 @@
 package com.codemountain.customer;
 
+import com.codemountain.exception.RequestValidationException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 /*
@@ -14,19 +20,75 @@ and the underlying application logic.
 @RequestMapping(path = "api/v1/customers")
 public class CustomerController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final CustomerService customerService;
+    private final CustomerJsonStreamer customerJsonStreamer;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService,
+                              CustomerJsonStreamer customerJsonStreamer) {
         this.customerService = customerService;
+        this.customerJsonStreamer = customerJsonStreamer;
     }
 
+    // Filtered, sorted and paged as soon as any list parameter is given
     @GetMapping
-    public List<Customer> getCustomers() {
-        return customerService.getAllCustomers();
+    public ResponseEntity<List<CustomerView>> getCustomers(CustomerListRequest request) {
+        if (request.isEmpty()) {
+            return ResponseEntity.ok(customerService.getAllCustomers());
+        }
+
+        CustomerPage page = customerService.getCustomerPage(request);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.customers());
+    }
+
+    // Same body as getCustomers, streamed from the database without building the list
+    @GetMapping(params = {"stream=true", "!ids"})
+    public void streamCustomers(CustomerListRequest request, HttpServletResponse response) throws IOException {
+        rejectListParameters(request, "stream=true");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        customerJsonStreamer.writeAllCustomers(response.getOutputStream());
+    }
+
+    @GetMapping("export")
+    public void exportCustomers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"customers.json\"");
+        customerJsonStreamer.writeAllCustomers(response.getOutputStream());
+    }
+
+    @GetMapping(params = "ids")
+    public CustomerLookupResponse getCustomersByIds(@RequestParam(name = "ids") List<Integer> customerIds,
+                                                    @RequestParam(name = "stream", required = false) String stream,
+                                                    CustomerListRequest request) {
+        if (stream != null) {
+            throw new RequestValidationException("ids cannot be combined with stream.");
+        }
+        rejectListParameters(request, "ids");
+        return customerService.getCustomers(customerIds);
+    }
+
+    // These mappings return whole lists, silently dropping a filter or sort would return the wrong customers
+    private static void rejectListParameters(CustomerListRequest request, String parameter) {
+        if (!request.isEmpty()) {
+            throw new RequestValidationException(
+                    "%s cannot be combined with filter, sort or paging parameters.".formatted(parameter)
+            );
+        }
+    }
+
+    // Same lookup for id lists too long for a query string
+    @PostMapping("lookup")
+    public CustomerLookupResponse lookupCustomers(@RequestBody CustomerLookupRequest request) {
+        return customerService.getCustomers(request.ids());
     }
 
     @GetMapping("{id}")
-    public Customer getCustomerById(@PathVariable(name = "id") Integer customerId) {
+    public CustomerView getCustomerById(@PathVariable(name = "id") Integer customerId) {
         return customerService.getCustomer(customerId);
     }
 
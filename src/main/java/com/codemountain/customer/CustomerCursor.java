@@ -0,0 +1,51 @@
+package com.codemountain.customer;
+
+import com.codemountain.exception.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+Keyset position in the customer list: the sort value and id of the last
+customer returned. Only valid for the sort it was issued for.
+ */
+
+public record CustomerCursor(CustomerSort sort, Object value, int id) {
+
+    static CustomerCursor after(CustomerView customer, CustomerSort sort) {
+        return new CustomerCursor(sort, sort.key().valueOf(customer), customer.id());
+    }
+
+    // Whether the customer comes after this position in the sort order
+    public boolean precedes(CustomerView customer) {
+        int comparison = sort.key().compare(sort.key().valueOf(customer), value);
+        if (comparison == 0) {
+            comparison = Integer.compare(customer.id(), id);
+        }
+        return sort.descending() ? comparison < 0 : comparison > 0;
+    }
+
+    String encode() {
+        String position = sort + ":" + id + ":" + value;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CustomerCursor decode(String cursor, CustomerSort sort) {
+        String[] position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("Invalid cursor [%s].".formatted(cursor));
+        }
+        if (position.length != 3 || !position[0].equals(sort.toString())) {
+            throw new RequestValidationException("Cursor [%s] does not belong to sort [%s].".formatted(cursor, sort));
+        }
+        try {
+            return new CustomerCursor(sort, sort.key().parse(position[2]), Integer.parseInt(position[1]));
+        } catch (NumberFormatException e) {
+            throw new RequestValidationException("Invalid cursor [%s].".formatted(cursor));
+        }
+    }
+}
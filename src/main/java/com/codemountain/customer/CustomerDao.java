@@ -1,11 +1,17 @@
 package com.codemountain.customer;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CustomerDao {
-    List<Customer> selectAllCustomers();
-    Optional<Customer> selectCustomerById(Integer customerId);
+    List<CustomerView> selectAllCustomers();
+    Optional<CustomerView> selectCustomerById(Integer customerId);
+    // In no particular order, ids that do not exist are left out
+    List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds);
+    // At most query.limit() customers matching the filters, after the cursor, in the sort order
+    List<CustomerView> selectCustomers(CustomerQuery query);
+    // Sets the generated id on the given customer
     void insertCustomer(Customer customer);
     boolean existsCustomerWithEmail(String email);
     boolean existsCustomerWithId(Integer customerId);
@@ -3,6 +3,7 @@ package com.codemountain.customer;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,7 +19,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
     }
 
     @Override
-    public List<Customer> selectAllCustomers() {
+    public List<CustomerView> selectAllCustomers() {
         final String sqlQuery = """
                 SELECT id, name, email, age
                 FROM customer;
@@ -28,7 +29,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer customerId) {
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
         final String sqlQuery = """
                 SELECT id, name, email, age
                 FROM customer
@@ -40,27 +41,59 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
                 .findFirst();
     }
 
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        if (customerIds.isEmpty()) {
+            return List.of();
+        }
+
+        final String sqlQuery = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = ANY(?)
+                """;
+
+        final Integer[] ids = customerIds.toArray(Integer[]::new);
+        return jdbcTemplate.query(
+                sqlQuery,
+                preparedStatement -> preparedStatement.setArray(
+                        1, preparedStatement.getConnection().createArrayOf("integer", ids)
+                ),
+                rowMapper
+        );
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        final CustomerQuerySql querySql = CustomerQuerySql.of(query);
+
+        return jdbcTemplate.query(querySql.sql(), rowMapper, querySql.parameters());
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         String sqlQuery = """
                 INSERT INTO customer(name, email, age)
                 VALUES (?, ?, ?)
+                RETURNING id
                 """;
 
-        int result = jdbcTemplate.update(
+        Integer id = jdbcTemplate.queryForObject(
                 sqlQuery,
+                Integer.class,
                 customer.getName(),
                 customer.getEmail(),
                 customer.getAge()
         );
 
-        System.out.println("jdbcTemplate.update = " + result);
+        customer.setId(id);
     }
 
     @Override
     public boolean existsCustomerWithEmail(String email) {
+        // customer is partitioned on id, so emails are looked up in their own table
         final String sqlQuery = """
-                SELECT exists(SELECT 1 FROM customer WHERE email = (?))
+                SELECT exists(SELECT 1 FROM customer_email WHERE email = (?))
                 """;
 
         return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sqlQuery, Boolean.class, email));
@@ -77,9 +110,16 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
 
     @Override
     public void deleteCustomerWithId(Integer customerId) {
+        // The tombstone tells delta syncs about the deletion, see CustomerSyncService
         final String sqlQuery = """
-                DELETE FROM customer
-                WHERE id = (?)
+                WITH deleted AS (
+                    DELETE FROM customer
+                    WHERE id = (?)
+                    RETURNING id
+                )
+                INSERT INTO customer_tombstone(customer_id)
+                SELECT id FROM deleted
+                ON CONFLICT (customer_id) DO NOTHING
                 """;
 
         jdbcTemplate.update(sqlQuery, customerId);
@@ -89,7 +129,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
     public void updateCustomer(Customer updatedCustomer) {
         final String sqlQuery = """
                 UPDATE customer
-                SET name = (?), email = (?), age = (?)
+                SET name = (?), email = (?), age = (?), updated_at = now()
                 WHERE id = (?)
                 """;
 
@@ -2,6 +2,7 @@ package com.codemountain.customer;
 
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,13 +16,26 @@ public class CustomerJPADataAccessService implements CustomerDao {
     }
 
     @Override
-    public List<Customer> selectAllCustomers() {
-        return customerRepository.findAll();
+    public List<CustomerView> selectAllCustomers() {
+        return customerRepository.findAllViews();
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer customerId) {
-        return customerRepository.findById(customerId);
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
+        return customerRepository.findViewById(customerId);
+    }
+
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        if (customerIds.isEmpty()) {
+            return List.of();
+        }
+        return customerRepository.findAllViewsById(customerIds);
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        return customerRepository.findViews(query);
     }
 
     @Override
@@ -41,7 +55,7 @@ public class CustomerJPADataAccessService implements CustomerDao {
 
     @Override
     public void deleteCustomerWithId(Integer customerId) {
-        customerRepository.deleteById(customerId);
+        customerRepository.deleteWithTombstoneById(customerId);
     }
 
     @Override
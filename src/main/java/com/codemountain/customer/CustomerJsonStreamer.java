@@ -0,0 +1,122 @@
+package com.codemountain.customer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/*
+Writes all customers as a JSON array straight from the JDBC ResultSet
+to an output stream, without creating Customer objects or a List.
+Field names are encoded once and reused for every row.
+It reads the customer table directly and so bypasses the CustomerDao
+implementations and their decorators. Given several databases, as with
+sharding, it reads them one after the other into the same array.
+If the database fails halfway,
+the response has already started: the array is left unterminated, so
+the body never parses as complete JSON, and the exception propagates
+so the container aborts the connection instead of ending the response.
+ */
+
+public class CustomerJsonStreamer {
+
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString NAME = new SerializedString("name");
+    static final SerializedString EMAIL = new SerializedString("email");
+    static final SerializedString AGE = new SerializedString("age");
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final List<Source> sources;
+    private final JsonFactory jsonFactory;
+
+    public CustomerJsonStreamer(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this(List.of(new Source(jdbcTemplate, transactionManager)), objectMapper.getFactory());
+    }
+
+    // Databases holding a part of the customers each, streamed one after the other
+    public CustomerJsonStreamer(List<DataSource> dataSources, ObjectMapper objectMapper) {
+        this(dataSources.stream().map(Source::new).toList(), objectMapper.getFactory());
+    }
+
+    private CustomerJsonStreamer(List<Source> sources, JsonFactory jsonFactory) {
+        this.sources = sources;
+        this.jsonFactory = jsonFactory;
+    }
+
+    public void writeAllCustomers(OutputStream outputStream) throws IOException {
+        final String sqlQuery = """
+                SELECT id, name, email, age
+                FROM customer
+                """;
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Otherwise closing after a failure writes the missing ] and the truncated array looks complete
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartArray();
+
+            // Postgres only honours the fetch size inside a transaction, otherwise it reads the whole result
+            for (Source source : sources) {
+                source.transactionTemplate().executeWithoutResult(status -> source.jdbcTemplate().query(
+                        connection -> {
+                            PreparedStatement statement = connection.prepareStatement(sqlQuery);
+                            statement.setFetchSize(FETCH_SIZE);
+                            return statement;
+                        },
+                        (RowCallbackHandler) resultSet -> writeCustomer(generator, resultSet)
+                ));
+            }
+
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    static void writeCustomer(JsonGenerator generator, ResultSet resultSet) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            generator.writeNumber(resultSet.getInt(1));
+            generator.writeFieldName(NAME);
+            generator.writeString(resultSet.getString(2));
+            generator.writeFieldName(EMAIL);
+            generator.writeString(resultSet.getString(3));
+            generator.writeFieldName(AGE);
+            generator.writeNumber(resultSet.getInt(4));
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Source(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+
+        Source(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+            this(jdbcTemplate, new TransactionTemplate(transactionManager));
+            transactionTemplate.setReadOnly(true);
+        }
+
+        Source(DataSource dataSource) {
+            this(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.codemountain.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/*
+Streams from the primary database. With sharding, ShardingConfig
+provides a streamer over the shards instead.
+ */
+
+@Configuration
+public class CustomerJsonStreamerConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public CustomerJsonStreamer customerJsonStreamer(JdbcTemplate jdbcTemplate,
+                                                     PlatformTransactionManager transactionManager,
+                                                     ObjectMapper objectMapper) {
+        return new CustomerJsonStreamer(jdbcTemplate, transactionManager, objectMapper);
+    }
+}
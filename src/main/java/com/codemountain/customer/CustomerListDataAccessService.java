@@ -3,7 +3,11 @@ package com.codemountain.customer;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /*
@@ -38,16 +42,43 @@ public class CustomerListDataAccessService implements CustomerDao {
     }
 
     @Override
-    public List<Customer> selectAllCustomers() {
-        return customers;
+    public List<CustomerView> selectAllCustomers() {
+        return customers.stream()
+                .map(CustomerView::of)
+                .toList();
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer customerId) {
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
         return customers
                 .stream()
                 .filter(customer -> customer.getId().equals(customerId))
-                .findFirst();
+                .findFirst()
+                .map(CustomerView::of);
+    }
+
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        // Index the list once instead of scanning it for every id
+        Map<Integer, Customer> customersById = new HashMap<>();
+        customers.forEach(customer -> customersById.put(customer.getId(), customer));
+
+        return customerIds.stream()
+                .distinct()
+                .map(customersById::get)
+                .filter(Objects::nonNull)
+                .map(CustomerView::of)
+                .toList();
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        return customers.stream()
+                .map(CustomerView::of)
+                .filter(query::matches)
+                .sorted(query.sort().comparator())
+                .limit(query.limit())
+                .toList();
     }
 
     @Override
@@ -0,0 +1,29 @@
+package com.codemountain.customer;
+
+/*
+Query parameters of GET /api/v1/customers. Without any of them the
+full list is returned as before; with any of them the list is paged.
+sort is field or field,asc|desc over id, name and age. cursor is the
+X-Next-Cursor header of the previous page, for the same sort.
+ */
+
+public record CustomerListRequest(
+        Integer minAge,
+        Integer maxAge,
+        String emailDomain,
+        String nameStartsWith,
+        String sort,
+        String cursor,
+        Integer limit
+) {
+
+    boolean isEmpty() {
+        return minAge == null
+                && maxAge == null
+                && emailDomain == null
+                && nameStartsWith == null
+                && sort == null
+                && cursor == null
+                && limit == null;
+    }
+}
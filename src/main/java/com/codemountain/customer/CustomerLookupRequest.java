@@ -0,0 +1,8 @@
+package com.codemountain.customer;
+
+import java.util.List;
+
+public record CustomerLookupRequest(
+        List<Integer> ids
+) {
+}
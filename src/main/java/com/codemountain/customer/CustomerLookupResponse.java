@@ -0,0 +1,14 @@
+package com.codemountain.customer;
+
+import java.util.List;
+
+/*
+customers follow the order of the requested ids,
+ids without a customer are listed in missingIds.
+ */
+
+public record CustomerLookupResponse(
+        List<CustomerView> customers,
+        List<Integer> missingIds
+) {
+}
@@ -0,0 +1,22 @@
+package com.codemountain.customer;
+
+/*
+One step of a POST /api/v1/customers/operations batch.
+CREATE uses name, email and age; UPDATE uses customerId and
+any fields to change; DELETE only uses customerId.
+ */
+
+public record CustomerOperation(
+        Type type,
+        Integer customerId,
+        String name,
+        String email,
+        Integer age
+) {
+
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
@@ -0,0 +1,41 @@
+package com.codemountain.customer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/*
+Exposes CustomerOperationService. Like the service it is left out when
+sharding is enabled, so the operations endpoint is not mapped at all.
+ */
+
+@RestController
+@RequestMapping(path = "api/v1/customers")
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class CustomerOperationController {
+
+    private final CustomerOperationService customerOperationService;
+
+    public CustomerOperationController(CustomerOperationService customerOperationService) {
+        this.customerOperationService = customerOperationService;
+    }
+
+    // A rolled back batch answers with the status of the operation that failed
+    @PostMapping("operations")
+    public ResponseEntity<CustomerOperationsResponse> executeOperations(
+            @RequestBody CustomerOperationsRequest request) {
+        CustomerOperationsResponse response = customerOperationService.execute(request);
+        int status = response.committed()
+                ? HttpStatus.OK.value()
+                : response.results().stream()
+                        .mapToInt(CustomerOperationResult::status)
+                        .filter(operationStatus -> operationStatus != HttpStatus.FAILED_DEPENDENCY.value())
+                        .findFirst()
+                        .orElse(HttpStatus.BAD_REQUEST.value());
+        return ResponseEntity.status(status).body(response);
+    }
+}
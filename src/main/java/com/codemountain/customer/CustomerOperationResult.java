@@ -0,0 +1,15 @@
+package com.codemountain.customer;
+
+/*
+status is the HTTP status the operation would have had as a single
+request, or 424 when it was not applied because another operation failed.
+ */
+
+public record CustomerOperationResult(
+        int index,
+        CustomerOperation.Type type,
+        Integer customerId,
+        int status,
+        String message
+) {
+}
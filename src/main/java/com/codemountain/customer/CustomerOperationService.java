@@ -0,0 +1,376 @@
+package com.codemountain.customer;
+
+import com.codemountain.datasource.ReadYourWritesTracker;
+import com.codemountain.exception.DuplicateResourceException;
+import com.codemountain.exception.RequestValidationException;
+import com.codemountain.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/*
+Executes an ordered list of creates, updates and deletes in one transaction.
+The customers and emails the batch refers to are loaded up front, the
+customers with FOR UPDATE, and every operation is checked in order against
+that view with the same rules CustomerService applies to single requests.
+The accepted operations are then written as at most three JDBC batches:
+deletes, updates and inserts. Running them in that order gives the same
+end state as running them one by one, because deletes and updates only
+touch customers that existed before the batch and inserts only claim
+emails that are free by the end of it.
+Like CustomerJsonStreamer it works on the customer table directly, so it
+always writes to the primary database and bypasses the CustomerDao
+decorators; caches are kept coherent by the change notification triggers.
+A batch spanning shards cannot run in one transaction, so the service is
+not created when sharding is enabled.
+A CustomerChangedEvent per applied operation is published after commit.
+ */
+
+@Service
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class CustomerOperationService {
+
+    static final int MAX_OPERATIONS = 1000;
+
+    private static final int NOT_APPLIED = HttpStatus.FAILED_DEPENDENCY.value();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CustomerOperationService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public CustomerOperationsResponse execute(CustomerOperationsRequest request) {
+        final List<CustomerOperation> operations = request.operations() != null
+                ? request.operations()
+                : List.of();
+
+        if (operations.isEmpty()) {
+            throw new RequestValidationException("No customer operations were given.");
+        }
+
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new RequestValidationException(
+                    "At most %s customer operations can be sent at once.".formatted(MAX_OPERATIONS)
+            );
+        }
+
+        final boolean continueOnError = request.mode() == CustomerOperationsRequest.Mode.CONTINUE_ON_ERROR;
+
+        final CustomerOperationsResponse response;
+        try {
+            response = transactionTemplate.execute(transaction -> {
+                Batch batch = new Batch(operations, lockCustomers(operations), findTakenEmails(operations));
+
+                for (int index = 0; index < operations.size(); index++) {
+                    if (!batch.apply(index) && !continueOnError) {
+                        transaction.setRollbackOnly();
+                        return new CustomerOperationsResponse(false, batch.notAppliedExcept(index));
+                    }
+                }
+
+                write(batch);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        batch.changes.forEach(change -> eventPublisher.publishEvent(change.get()));
+                    }
+                });
+                return new CustomerOperationsResponse(true, batch.results());
+            });
+        } catch (DuplicateKeyException e) {
+            // Another request claimed one of the emails after it was checked
+            throw new DuplicateResourceException("Email already taken.");
+        }
+
+        if (response.committed()) {
+            readYourWritesTracker.ifAvailable(ReadYourWritesTracker::recordWrite);
+        }
+        return response;
+    }
+
+    private Map<Integer, CustomerView> lockCustomers(List<CustomerOperation> operations) {
+        final Integer[] customerIds = operations.stream()
+                .filter(operation -> operation.type() == CustomerOperation.Type.UPDATE
+                        || operation.type() == CustomerOperation.Type.DELETE)
+                .map(CustomerOperation::customerId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Integer[]::new);
+
+        final Map<Integer, CustomerView> customers = new HashMap<>();
+        if (customerIds.length == 0) {
+            return customers;
+        }
+
+        // Locking in id order keeps concurrent batches from deadlocking
+        final String sqlQuery = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = ANY(?)
+                ORDER BY id
+                FOR UPDATE
+                """;
+
+        jdbcTemplate.query(
+                sqlQuery,
+                preparedStatement -> preparedStatement.setArray(
+                        1, preparedStatement.getConnection().createArrayOf("integer", customerIds)
+                ),
+                customerRowMapper
+        ).forEach(customer -> customers.put(customer.id(), customer));
+        return customers;
+    }
+
+    private Set<String> findTakenEmails(List<CustomerOperation> operations) {
+        final String[] emails = operations.stream()
+                .filter(operation -> operation.type() == CustomerOperation.Type.CREATE
+                        || operation.type() == CustomerOperation.Type.UPDATE)
+                .map(CustomerOperation::email)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(String[]::new);
+
+        if (emails.length == 0) {
+            return new HashSet<>();
+        }
+
+        final String sqlQuery = """
+                SELECT email
+                FROM customer_email
+                WHERE email = ANY(?)
+                """;
+
+        return new HashSet<>(jdbcTemplate.query(
+                sqlQuery,
+                preparedStatement -> preparedStatement.setArray(
+                        1, preparedStatement.getConnection().createArrayOf("text", emails)
+                ),
+                (resultSet, rowNum) -> resultSet.getString(1)
+        ));
+    }
+
+    private void write(Batch batch) {
+        if (!batch.deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    """
+                    WITH deleted AS (
+                        DELETE FROM customer
+                        WHERE id = (?)
+                        RETURNING id
+                    )
+                    INSERT INTO customer_tombstone(customer_id)
+                    SELECT id FROM deleted
+                    ON CONFLICT (customer_id) DO NOTHING
+                    """,
+                    batch.deletes.stream()
+                            .map(customerId -> new Object[]{customerId})
+                            .toList()
+            );
+        }
+
+        if (!batch.updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    """
+                    UPDATE customer
+                    SET name = (?), email = (?), age = (?), updated_at = now()
+                    WHERE id = (?)
+                    """,
+                    batch.updates.stream()
+                            .map(customer -> new Object[]{
+                                    customer.getName(), customer.getEmail(), customer.getAge(), customer.getId()
+                            })
+                            .toList()
+            );
+        }
+
+        if (!batch.inserts.isEmpty()) {
+            // Ids are taken up front so they can be reported per operation
+            final List<Integer> customerIds = jdbcTemplate.queryForList(
+                    "SELECT nextval('customer_id_seq') FROM generate_series(1, ?)",
+                    Integer.class,
+                    batch.inserts.size()
+            );
+
+            final Iterator<Integer> nextId = customerIds.iterator();
+            batch.inserts.forEach((index, customer) -> {
+                customer.setId(nextId.next());
+                batch.succeeded(index, customer.getId(), HttpStatus.CREATED);
+            });
+
+            jdbcTemplate.batchUpdate(
+                    """
+                    INSERT INTO customer(id, name, email, age)
+                    VALUES (?, ?, ?, ?)
+                    """,
+                    batch.inserts.values().stream()
+                            .map(customer -> new Object[]{
+                                    customer.getId(), customer.getName(), customer.getEmail(), customer.getAge()
+                            })
+                            .toList()
+            );
+        }
+    }
+
+    private static int statusOf(RuntimeException exception) {
+        final ResponseStatus responseStatus =
+                AnnotatedElementUtils.findMergedAnnotation(exception.getClass(), ResponseStatus.class);
+        return responseStatus != null
+                ? responseStatus.code().value()
+                : HttpStatus.BAD_REQUEST.value();
+    }
+
+    /*
+    The batch's view of the data while its operations are checked,
+    and the writes it has accepted so far.
+     */
+
+    private static final class Batch {
+
+        private final List<CustomerOperation> operations;
+        private final Map<Integer, CustomerView> customers;
+        private final Set<String> takenEmails;
+        private final CustomerOperationResult[] results;
+
+        private final List<Integer> deletes = new ArrayList<>();
+        private final List<Customer> updates = new ArrayList<>();
+        private final Map<Integer, Customer> inserts = new LinkedHashMap<>();
+        // In operation order, built after commit when insert ids are known
+        private final List<Supplier<CustomerChangedEvent>> changes = new ArrayList<>();
+
+        Batch(List<CustomerOperation> operations, Map<Integer, CustomerView> customers, Set<String> takenEmails) {
+            this.operations = operations;
+            this.customers = customers;
+            this.takenEmails = takenEmails;
+            this.results = new CustomerOperationResult[operations.size()];
+        }
+
+        boolean apply(int index) {
+            final CustomerOperation operation = operations.get(index);
+            try {
+                if (operation.type() == null) {
+                    throw new RequestValidationException("Operation type is missing.");
+                }
+
+                switch (operation.type()) {
+                    case CREATE -> create(index, operation);
+                    case UPDATE -> update(index, operation);
+                    case DELETE -> delete(index, operation);
+                }
+                return true;
+            } catch (DuplicateResourceException | RequestValidationException | ResourceNotFoundException e) {
+                results[index] = new CustomerOperationResult(
+                        index, operation.type(), operation.customerId(), statusOf(e), e.getMessage()
+                );
+                return false;
+            }
+        }
+
+        private void create(int index, CustomerOperation operation) {
+            if (operation.name() == null || operation.email() == null || operation.age() == null) {
+                throw new RequestValidationException("Name, email and age are required to create a customer.");
+            }
+
+            final Customer customer = CustomerService.newCustomer(
+                    new CustomerRegistrationRequest(operation.name(), operation.email(), operation.age()),
+                    takenEmails::contains
+            );
+            takenEmails.add(customer.getEmail());
+            inserts.put(index, customer);
+            changes.add(() -> CustomerChangedEvent.created(customer));
+        }
+
+        private void update(int index, CustomerOperation operation) {
+            final CustomerView existingCustomer = existingCustomer(operation);
+            final Customer updatedCustomer = CustomerService.updatedCustomer(
+                    existingCustomer,
+                    new CustomerUpdateRequest(operation.name(), operation.email(), operation.age()),
+                    takenEmails::contains
+            );
+
+            takenEmails.remove(existingCustomer.email());
+            takenEmails.add(updatedCustomer.getEmail());
+            customers.put(existingCustomer.id(), new CustomerView(
+                    updatedCustomer.getId(),
+                    updatedCustomer.getName(),
+                    updatedCustomer.getEmail(),
+                    updatedCustomer.getAge()
+            ));
+            updates.add(updatedCustomer);
+            changes.add(() -> CustomerChangedEvent.updated(updatedCustomer));
+            succeeded(index, existingCustomer.id(), HttpStatus.OK);
+        }
+
+        private void delete(int index, CustomerOperation operation) {
+            final CustomerView existingCustomer = existingCustomer(operation);
+
+            customers.remove(existingCustomer.id());
+            takenEmails.remove(existingCustomer.email());
+            // Deletes run first, so earlier updates of the same customer are moot
+            updates.removeIf(customer -> customer.getId().equals(existingCustomer.id()));
+            deletes.add(existingCustomer.id());
+            changes.add(() -> CustomerChangedEvent.deleted(existingCustomer.id()));
+            succeeded(index, existingCustomer.id(), HttpStatus.OK);
+        }
+
+        private CustomerView existingCustomer(CustomerOperation operation) {
+            final CustomerView customer = customers.get(operation.customerId());
+            if (customer == null) {
+                throw new ResourceNotFoundException(
+                        "Customer with id [%s] was not found.".formatted(operation.customerId())
+                );
+            }
+            return customer;
+        }
+
+        void succeeded(int index, Integer customerId, HttpStatus status) {
+            results[index] = new CustomerOperationResult(
+                    index, operations.get(index).type(), customerId, status.value(), null
+            );
+        }
+
+        List<CustomerOperationResult> results() {
+            return List.of(results);
+        }
+
+        List<CustomerOperationResult> notAppliedExcept(int failedIndex) {
+            final List<CustomerOperationResult> notApplied = new ArrayList<>(operations.size());
+            for (int index = 0; index < operations.size(); index++) {
+                final CustomerOperation operation = operations.get(index);
+                notApplied.add(index == failedIndex
+                        ? results[index]
+                        : new CustomerOperationResult(
+                                index,
+                                operation.type(),
+                                operation.customerId(),
+                                NOT_APPLIED,
+                                "Not applied because operation %s failed.".formatted(failedIndex)
+                        ));
+            }
+            return notApplied;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.codemountain.customer;
+
+import java.util.List;
+
+public record CustomerOperationsRequest(
+        Mode mode,
+        List<CustomerOperation> operations
+) {
+
+    public enum Mode {
+        // The first failing operation rolls back the whole batch
+        ALL_OR_NOTHING,
+        // Failing operations are reported and skipped, the rest is committed
+        CONTINUE_ON_ERROR
+    }
+}
@@ -0,0 +1,9 @@
+package com.codemountain.customer;
+
+import java.util.List;
+
+public record CustomerOperationsResponse(
+        boolean committed,
+        List<CustomerOperationResult> results
+) {
+}
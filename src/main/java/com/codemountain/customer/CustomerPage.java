@@ -0,0 +1,13 @@
+package com.codemountain.customer;
+
+import java.util.List;
+
+/*
+nextCursor is null on the last page.
+ */
+
+public record CustomerPage(
+        List<CustomerView> customers,
+        String nextCursor
+) {
+}
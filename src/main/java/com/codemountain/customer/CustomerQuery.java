@@ -0,0 +1,36 @@
+package com.codemountain.customer;
+
+import java.util.Locale;
+
+/*
+A validated page request for the customer list. Filters left null do not
+apply, after is null on the first page. emailDomain is lower case and
+matched against the part of the email after the @, nameStartsWith is
+matched case-sensitively.
+ */
+
+public record CustomerQuery(
+        Integer minAge,
+        Integer maxAge,
+        String emailDomain,
+        String nameStartsWith,
+        CustomerSort sort,
+        CustomerCursor after,
+        int limit
+) {
+
+    // The same conditions as the database queries, for the in-memory DAOs
+    public boolean matches(CustomerView customer) {
+        return (minAge == null || customer.age() >= minAge)
+                && (maxAge == null || customer.age() <= maxAge)
+                && (emailDomain == null || emailDomainOf(customer.email()).equals(emailDomain))
+                && (nameStartsWith == null || customer.name().startsWith(nameStartsWith))
+                && (after == null || after.precedes(customer));
+    }
+
+    // split_part(email, '@', 2): the text between the first and a possible second @
+    private static String emailDomainOf(String email) {
+        String[] parts = email.split("@", 3);
+        return parts.length > 1 ? parts[1].toLowerCase(Locale.ROOT) : "";
+    }
+}
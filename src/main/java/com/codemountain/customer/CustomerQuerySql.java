@@ -0,0 +1,63 @@
+package com.codemountain.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+The SQL for a CustomerQuery, shared by the JDBC and the sharded DAO.
+Every value is bound as a parameter; only the sort column and direction,
+both taken from CustomerSortKey, are written into the statement.
+Each condition matches one of the indexes of V7__Index_Customer_List_Filters.sql.
+ */
+
+public record CustomerQuerySql(String sql, Object[] parameters) {
+
+    public static CustomerQuerySql of(CustomerQuery query) {
+        final StringBuilder where = new StringBuilder();
+        final List<Object> parameters = new ArrayList<>();
+
+        if (query.minAge() != null) {
+            and(where, "age >= ?");
+            parameters.add(query.minAge());
+        }
+        if (query.maxAge() != null) {
+            and(where, "age <= ?");
+            parameters.add(query.maxAge());
+        }
+        if (query.emailDomain() != null) {
+            and(where, "lower(split_part(email, '@', 2)) = ?");
+            parameters.add(query.emailDomain());
+        }
+        if (query.nameStartsWith() != null) {
+            and(where, "name COLLATE ucs_basic LIKE ? ESCAPE '\\'");
+            parameters.add(escapeLike(query.nameStartsWith()) + "%");
+        }
+
+        final CustomerSort sort = query.sort();
+        final String column = sort.key().column();
+        final String direction = sort.descending() ? "DESC" : "ASC";
+        if (query.after() != null) {
+            and(where, "(%s, id) %s (?, ?)".formatted(column, sort.descending() ? "<" : ">"));
+            parameters.add(query.after().value());
+            parameters.add(query.after().id());
+        }
+        parameters.add(query.limit());
+
+        final String sql = """
+                SELECT id, name, email, age
+                FROM customer
+                %s
+                ORDER BY %s %s, id %s
+                LIMIT ?
+                """.formatted(where, column, direction, direction);
+        return new CustomerQuerySql(sql, parameters.toArray());
+    }
+
+    private static void and(StringBuilder where, String condition) {
+        where.append(where.isEmpty() ? "WHERE " : "  AND ").append(condition).append('\n');
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
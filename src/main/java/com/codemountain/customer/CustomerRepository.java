@@ -1,12 +1,49 @@
 package com.codemountain.customer;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CustomerRepository
-        extends JpaRepository<Customer, Integer> {
+        extends JpaRepository<Customer, Integer>, CustomerRepositoryCustom {
+
+    // Constructor projections, so reads never load managed entities
+    @Query("SELECT new com.codemountain.customer.CustomerView(c.id, c.name, c.email, c.age) FROM Customer c")
+    List<CustomerView> findAllViews();
+
+    @Query("SELECT new com.codemountain.customer.CustomerView(c.id, c.name, c.email, c.age) FROM Customer c WHERE c.id = :id")
+    Optional<CustomerView> findViewById(Integer id);
 
+    // findAllById as a projection
+    @Query("SELECT new com.codemountain.customer.CustomerView(c.id, c.name, c.email, c.age) FROM Customer c WHERE c.id IN :ids")
+    List<CustomerView> findAllViewsById(Collection<Integer> ids);
+
+    // customer is partitioned on id, so emails are looked up in their own table
+    @Query(
+            value = "SELECT exists(SELECT 1 FROM customer_email WHERE email = :email)",
+            nativeQuery = true
+    )
     boolean existsCustomerByEmail(String email);
     boolean existsCustomerById(Integer id);
+
+    // deleteById, leaving the tombstone delta syncs read, see CustomerSyncService
+    @Transactional
+    @Modifying
+    @Query(
+            value = """
+                    WITH deleted AS (DELETE FROM customer WHERE id = :id RETURNING id)
+                    INSERT INTO customer_tombstone(customer_id)
+                    SELECT id FROM deleted
+                    ON CONFLICT (customer_id) DO NOTHING
+                    """,
+            nativeQuery = true
+    )
+    void deleteWithTombstoneById(Integer id);
 //    void updateCustomer(Customer customer);
 
 }
@@ -0,0 +1,13 @@
+package com.codemountain.customer;
+
+import java.util.List;
+
+/*
+Queries of CustomerRepository built with the Criteria API,
+implemented by CustomerRepositoryCustomImpl.
+ */
+
+public interface CustomerRepositoryCustom {
+
+    List<CustomerView> findViews(CustomerQuery query);
+}
@@ -0,0 +1,47 @@
+package com.codemountain.customer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+
+import java.util.List;
+
+class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    CustomerRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // A constructor projection like the other finders, so no managed entities are loaded
+    @Override
+    public List<CustomerView> findViews(CustomerQuery query) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CustomerView> criteriaQuery = criteriaBuilder.createQuery(CustomerView.class);
+        Root<Customer> root = criteriaQuery.from(Customer.class);
+
+        Expression<?> sortKey = CustomerSpecifications.sortExpression(root, criteriaBuilder, query.sort().key());
+        boolean descending = query.sort().descending();
+
+        criteriaQuery
+                .select(criteriaBuilder.construct(
+                        CustomerView.class,
+                        root.get("id"),
+                        root.get("name"),
+                        root.get("email"),
+                        root.get("age")
+                ))
+                .where(CustomerSpecifications.of(query).toPredicate(root, criteriaQuery, criteriaBuilder))
+                .orderBy(
+                        descending ? criteriaBuilder.desc(sortKey) : criteriaBuilder.asc(sortKey),
+                        descending ? criteriaBuilder.desc(root.get("id")) : criteriaBuilder.asc(root.get("id"))
+                );
+
+        return entityManager.createQuery(criteriaQuery)
+                .setMaxResults(query.limit())
+                .getResultList();
+    }
+}
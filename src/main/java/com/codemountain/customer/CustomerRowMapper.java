@@ -6,15 +6,19 @@ import org.springframework.stereotype.Component;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+/*
+Maps by column index, so queries must select id, name, email, age in this order.
+ */
+
 @Component
-public class CustomerRowMapper implements RowMapper<Customer> {
+public class CustomerRowMapper implements RowMapper<CustomerView> {
     @Override
-    public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return new Customer(
-                rs.getInt("id"),
-                rs.getString("name"),
-                rs.getString("email"),
-                rs.getInt("age")
+    public CustomerView mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new CustomerView(
+                rs.getInt(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getInt(4)
         );
     }
 }
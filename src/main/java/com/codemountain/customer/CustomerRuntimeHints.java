@@ -0,0 +1,55 @@
+package com.codemountain.customer;
+
+import com.codemountain.sync.CustomerChanges;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/*
+Reflection and proxy hints needed to run the customer API as a
+GraalVM native image: Jackson binds the request records and
+serializes CustomerView reflectively, and datasource-proxy wraps JDBC
+objects in JDK proxies.
+ */
+
+public class CustomerRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : new Class<?>[]{
+                Customer.class,
+                CustomerView.class,
+                CustomerRegistrationRequest.class,
+                CustomerUpdateRequest.class,
+                CustomerLookupRequest.class,
+                CustomerLookupResponse.class,
+                CustomerListRequest.class,
+                CustomerOperation.class,
+                CustomerOperationsRequest.class,
+                CustomerOperationResult.class,
+                CustomerOperationsResponse.class,
+                CustomerChanges.class,
+                CustomerRowMapper.class
+        }) {
+            hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+
+        for (Class<?> jdbcType : new Class<?>[]{
+                Connection.class,
+                Statement.class,
+                PreparedStatement.class,
+                CallableStatement.class
+        }) {
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, jdbcType);
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.codemountain.customer;
 
+import com.codemountain.datasource.DataSourceRoute;
+import com.codemountain.datasource.DataSourceRouting;
 import com.codemountain.exception.DuplicateResourceException;
 import com.codemountain.exception.RequestValidationException;
 import com.codemountain.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 /*
 This class plays a crucial role in encapsulating
@@ -16,19 +26,78 @@ Data Access Layer.
  */
 
 @Service
+@Timed(value = "customer.service", histogram = true)
 public class CustomerService {
 
+    // Qualifier of the CustomerDao serving requests, sharding provides a primary one with the same qualifier
+    public static final String DAO_QUALIFIER = "jdbc";
+
+    static final int MAX_LOOKUP_IDS = 1000;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final CustomerDao customerDao;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CustomerService(@Qualifier("jdbc") CustomerDao customerDao) {
+    public CustomerService(@Qualifier(DAO_QUALIFIER) CustomerDao customerDao,
+                           ApplicationEventPublisher eventPublisher) {
         this.customerDao = customerDao;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<Customer> getAllCustomers() {
+    public List<CustomerView> getAllCustomers() {
         return customerDao.selectAllCustomers();
     }
 
-    public Customer getCustomer(Integer customerId) {
+    public CustomerPage getCustomerPage(CustomerListRequest request) {
+        final CustomerSort sort = CustomerSort.parse(request.sort());
+        final int limit = request.limit() != null ? request.limit() : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new RequestValidationException("limit must be between 1 and %s.".formatted(MAX_PAGE_SIZE));
+        }
+
+        final Integer minAge = request.minAge();
+        final Integer maxAge = request.maxAge();
+        if ((minAge != null && minAge < 0) || (maxAge != null && maxAge < 0)) {
+            throw new RequestValidationException("minAge and maxAge must not be negative.");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new RequestValidationException("minAge must not be greater than maxAge.");
+        }
+
+        String emailDomain = request.emailDomain();
+        if (emailDomain != null) {
+            emailDomain = emailDomain.trim().toLowerCase(Locale.ROOT);
+            if (emailDomain.startsWith("@")) {
+                emailDomain = emailDomain.substring(1);
+            }
+            if (emailDomain.isEmpty() || emailDomain.contains("@")) {
+                throw new RequestValidationException("Invalid emailDomain [%s].".formatted(request.emailDomain()));
+            }
+        }
+
+        final String nameStartsWith = request.nameStartsWith();
+        if (nameStartsWith != null && nameStartsWith.isEmpty()) {
+            throw new RequestValidationException("nameStartsWith must not be empty.");
+        }
+
+        final CustomerCursor after = request.cursor() != null
+                ? CustomerCursor.decode(request.cursor(), sort)
+                : null;
+
+        // One more than the page tells whether there is a next one
+        final List<CustomerView> customers = customerDao.selectCustomers(
+                new CustomerQuery(minAge, maxAge, emailDomain, nameStartsWith, sort, after, limit + 1)
+        );
+
+        if (customers.size() <= limit) {
+            return new CustomerPage(customers, null);
+        }
+        final List<CustomerView> page = customers.subList(0, limit);
+        return new CustomerPage(List.copyOf(page), CustomerCursor.after(page.get(limit - 1), sort).encode());
+    }
+
+    public CustomerView getCustomer(Integer customerId) {
         return customerDao
                 .selectCustomerById(customerId)
                 .orElseThrow(
@@ -36,26 +105,49 @@ public class CustomerService {
                 );
     }
 
-    public void addCustomer(
-            CustomerRegistrationRequest customerRegistrationRequest) {
-        // Check if email already exists
-        final boolean customerExists = customerDao
-                .existsCustomerWithEmail(customerRegistrationRequest.email());
+    public CustomerLookupResponse getCustomers(List<Integer> customerIds) {
+        if (customerIds == null || customerIds.isEmpty()) {
+            throw new RequestValidationException("No customer ids were given.");
+        }
 
-        if (customerExists) {
-            throw new DuplicateResourceException(
-                    "Email already taken."
+        // Request order, each id once
+        final List<Integer> ids = customerIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            throw new RequestValidationException(
+                    "At most %s customers can be fetched at once.".formatted(MAX_LOOKUP_IDS)
             );
         }
 
-        // Create and add new customer
-        Customer customer = new Customer(
-                customerRegistrationRequest.name(),
-                customerRegistrationRequest.email(),
-                customerRegistrationRequest.age()
+        final Map<Integer, CustomerView> customersById = new HashMap<>();
+        customerDao.selectCustomersByIds(ids)
+                .forEach(customer -> customersById.put(customer.id(), customer));
+
+        final List<CustomerView> customers = new ArrayList<>(customersById.size());
+        final List<Integer> missingIds = new ArrayList<>();
+        for (Integer id : ids) {
+            CustomerView customer = customersById.get(id);
+            if (customer != null) {
+                customers.add(customer);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new CustomerLookupResponse(customers, missingIds);
+    }
+
+    public void addCustomer(
+            CustomerRegistrationRequest customerRegistrationRequest) {
+        final Customer customer = newCustomer(
+                customerRegistrationRequest,
+                customerDao::existsCustomerWithEmail
         );
 
         customerDao.insertCustomer(customer);
+        eventPublisher.publishEvent(CustomerChangedEvent.created(customer));
     }
 
     public void deleteCustomerById(Integer customerId) {
@@ -68,37 +160,84 @@ public class CustomerService {
         }
 
         customerDao.deleteCustomerWithId(customerId);
+        eventPublisher.publishEvent(CustomerChangedEvent.deleted(customerId));
     }
 
+    // The whole row is written back, so it is read from the primary rather than a replica or cache
     public void updateCustomer(Integer customerId, CustomerUpdateRequest customerUpdateRequest) {
+        final Customer updatedCustomer = DataSourceRouting.with(DataSourceRoute.PRIMARY, () -> {
+            final CustomerView existingCustomer = customerDao
+                    .selectCustomerById(customerId)
+                    .orElseThrow(
+                            () -> new ResourceNotFoundException("Customer with id [%s] was not found."
+                                        .formatted(customerId))
+                    );
+
+            final Customer customer = updatedCustomer(
+                    existingCustomer,
+                    customerUpdateRequest,
+                    customerDao::existsCustomerWithEmail
+            );
+
+            customerDao.updateCustomer(customer);
+            return customer;
+        });
+        eventPublisher.publishEvent(CustomerChangedEvent.updated(updatedCustomer));
+    }
+
+    /*
+    The registration and update rules are shared with CustomerOperationService,
+    which checks them against its own view of the data inside a batch.
+     */
+
+    static Customer newCustomer(CustomerRegistrationRequest customerRegistrationRequest,
+                                Predicate<String> emailTaken) {
+        // Check if email already exists
+        if (emailTaken.test(customerRegistrationRequest.email())) {
+            throw new DuplicateResourceException(
+                    "Email already taken."
+            );
+        }
+
+        // Create new customer
+        return new Customer(
+                customerRegistrationRequest.name(),
+                customerRegistrationRequest.email(),
+                customerRegistrationRequest.age()
+        );
+    }
+
+    static Customer updatedCustomer(CustomerView existingCustomer,
+                                    CustomerUpdateRequest customerUpdateRequest,
+                                    Predicate<String> emailTaken) {
         final String name = customerUpdateRequest.name();
         final String email = customerUpdateRequest.email();
         final Integer age = customerUpdateRequest.age();
 
-        final Customer existingCustomer = customerDao
-                .selectCustomerById(customerId)
-                .orElseThrow(
-                        () -> new ResourceNotFoundException("Customer with id [%s] was not found."
-                                    .formatted(customerId))
-                );
-
+        // The read model is immutable, the update is written through a fresh entity
+        final Customer updatedCustomer = new Customer(
+                existingCustomer.id(),
+                existingCustomer.name(),
+                existingCustomer.email(),
+                existingCustomer.age()
+        );
         boolean customerUpdated = false;
 
-        if (!existingCustomer.getName().equals(name) && name != null) {
-            existingCustomer.setName(name);
+        if (!existingCustomer.name().equals(name) && name != null) {
+            updatedCustomer.setName(name);
             customerUpdated = true;
         }
 
-        if (!existingCustomer.getEmail().equals(email) && email != null) {
-            if (customerDao.existsCustomerWithEmail(email)) {
+        if (!existingCustomer.email().equals(email) && email != null) {
+            if (emailTaken.test(email)) {
                 throw new DuplicateResourceException("Email already taken.");
             }
-            existingCustomer.setEmail(email);
+            updatedCustomer.setEmail(email);
             customerUpdated = true;
         }
 
-        if (!existingCustomer.getAge().equals(age) && age != null) {
-            existingCustomer.setAge(age);
+        if (age != null && existingCustomer.age() != age) {
+            updatedCustomer.setAge(age);
             customerUpdated = true;
         }
 
@@ -106,6 +245,6 @@ public class CustomerService {
             throw new RequestValidationException("No changes to customer data were detected.");
         }
 
-        customerDao.updateCustomer(existingCustomer);
+        return updatedCustomer;
     }
 }
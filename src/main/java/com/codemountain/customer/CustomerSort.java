@@ -0,0 +1,49 @@
+package com.codemountain.customer;
+
+import com.codemountain.exception.RequestValidationException;
+
+import java.util.Comparator;
+
+/*
+Parsed from the sort parameter, written as field or field,asc|desc.
+ */
+
+public record CustomerSort(CustomerSortKey key, boolean descending) {
+
+    public static final CustomerSort DEFAULT = new CustomerSort(CustomerSortKey.ID, false);
+
+    static CustomerSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return DEFAULT;
+        }
+        String[] parts = sort.trim().split(",");
+        if (parts.length > 2) {
+            throw new RequestValidationException(
+                    "Invalid sort [%s], expected field or field,direction.".formatted(sort)
+            );
+        }
+        boolean descending = false;
+        if (parts.length == 2) {
+            String direction = parts[1].trim();
+            if (direction.equalsIgnoreCase("desc")) {
+                descending = true;
+            } else if (!direction.equalsIgnoreCase("asc")) {
+                throw new RequestValidationException("Sort direction must be asc or desc.");
+            }
+        }
+        return new CustomerSort(CustomerSortKey.fromParameter(parts[0].trim()), descending);
+    }
+
+    // The order of the database query: the key, then id, both in the sort direction
+    public Comparator<CustomerView> comparator() {
+        Comparator<CustomerView> ascending = ((Comparator<CustomerView>) (left, right) ->
+                key.compare(key.valueOf(left), key.valueOf(right)))
+                .thenComparingInt(CustomerView::id);
+        return descending ? ascending.reversed() : ascending;
+    }
+
+    @Override
+    public String toString() {
+        return key.parameterName() + (descending ? ",desc" : ",asc");
+    }
+}
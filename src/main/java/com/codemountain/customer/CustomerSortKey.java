@@ -0,0 +1,65 @@
+package com.codemountain.customer;
+
+import com.codemountain.exception.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Function;
+
+/*
+Fields the customer list can be sorted on, ties are broken by id.
+Names are ordered by code point (collation ucs_basic) rather than by the
+database's language rules, so the database, the in-memory DAOs and the
+merge of sharded results all agree, and name prefixes can use the index.
+ */
+
+public enum CustomerSortKey {
+
+    ID("id", CustomerView::id),
+    NAME("name COLLATE ucs_basic", CustomerView::name),
+    AGE("age", CustomerView::age);
+
+    private final String column;
+    private final Function<CustomerView, Object> getter;
+
+    CustomerSortKey(String column, Function<CustomerView, Object> getter) {
+        this.column = column;
+        this.getter = getter;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public Object valueOf(CustomerView customer) {
+        return getter.apply(customer);
+    }
+
+    public int compare(Object left, Object right) {
+        if (this == NAME) {
+            return Arrays.compare(((String) left).codePoints().toArray(), ((String) right).codePoints().toArray());
+        }
+        return Integer.compare((Integer) left, (Integer) right);
+    }
+
+    Object parse(String value) {
+        return this == NAME ? value : Integer.valueOf(value);
+    }
+
+    String parameterName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static CustomerSortKey fromParameter(String parameter) {
+        for (CustomerSortKey key : values()) {
+            if (key.parameterName().equals(parameter)) {
+                return key;
+            }
+        }
+        throw new RequestValidationException(
+                "Customers can only be sorted by %s.".formatted(Arrays.stream(values())
+                        .map(CustomerSortKey::parameterName)
+                        .toList())
+        );
+    }
+}
@@ -0,0 +1,115 @@
+package com.codemountain.customer;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+/*
+The conditions of CustomerQuerySql as JPA Specifications, written so
+Hibernate renders the same expressions the indexes are built on.
+JPA has no row value comparison, so the keyset condition is spelled out.
+ */
+
+final class CustomerSpecifications {
+
+    private CustomerSpecifications() {
+    }
+
+    static Specification<Customer> of(CustomerQuery query) {
+        Specification<Customer> specification = (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.conjunction();
+        if (query.minAge() != null) {
+            specification = specification.and(ageAtLeast(query.minAge()));
+        }
+        if (query.maxAge() != null) {
+            specification = specification.and(ageAtMost(query.maxAge()));
+        }
+        if (query.emailDomain() != null) {
+            specification = specification.and(emailDomain(query.emailDomain()));
+        }
+        if (query.nameStartsWith() != null) {
+            specification = specification.and(nameStartsWith(query.nameStartsWith()));
+        }
+        if (query.after() != null) {
+            specification = specification.and(after(query.after()));
+        }
+        return specification;
+    }
+
+    static Specification<Customer> ageAtLeast(int minAge) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("age"), minAge);
+    }
+
+    static Specification<Customer> ageAtMost(int maxAge) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(root.get("age"), maxAge);
+    }
+
+    static Specification<Customer> emailDomain(String emailDomain) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(
+                criteriaBuilder.lower(criteriaBuilder.function(
+                        "split_part",
+                        String.class,
+                        root.get("email"),
+                        criteriaBuilder.literal("@"),
+                        criteriaBuilder.literal(2)
+                )),
+                emailDomain
+        );
+    }
+
+    static Specification<Customer> nameStartsWith(String prefix) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.like(
+                name(root, criteriaBuilder),
+                prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%",
+                '\\'
+        );
+    }
+
+    static Specification<Customer> after(CustomerCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            boolean descending = cursor.sort().descending();
+            Path<Integer> id = root.get("id");
+            Predicate beyondId = descending
+                    ? criteriaBuilder.lessThan(id, cursor.id())
+                    : criteriaBuilder.greaterThan(id, cursor.id());
+
+            return switch (cursor.sort().key()) {
+                case ID -> beyondId;
+                case NAME -> beyond(
+                        criteriaBuilder, name(root, criteriaBuilder), (String) cursor.value(), descending, beyondId
+                );
+                case AGE -> beyond(
+                        criteriaBuilder, root.<Integer>get("age"), (Integer) cursor.value(), descending, beyondId
+                );
+            };
+        };
+    }
+
+    static Expression<?> sortExpression(Root<Customer> root, CriteriaBuilder criteriaBuilder, CustomerSortKey key) {
+        return switch (key) {
+            case ID -> root.get("id");
+            case NAME -> name(root, criteriaBuilder);
+            case AGE -> root.get("age");
+        };
+    }
+
+    // key beyond value, or key equal to value and id beyond the cursor's id
+    private static <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder criteriaBuilder,
+                                                                      Expression<T> key,
+                                                                      T value,
+                                                                      boolean descending,
+                                                                      Predicate beyondId) {
+        Predicate beyondKey = descending
+                ? criteriaBuilder.lessThan(key, value)
+                : criteriaBuilder.greaterThan(key, value);
+        return criteriaBuilder.or(beyondKey, criteriaBuilder.and(criteriaBuilder.equal(key, value), beyondId));
+    }
+
+    // Code point order, see CustomerSortKey
+    private static Expression<String> name(Root<Customer> root, CriteriaBuilder criteriaBuilder) {
+        return ((HibernateCriteriaBuilder) criteriaBuilder).collate(root.get("name"), "ucs_basic");
+    }
+}
@@ -0,0 +1,18 @@
+package com.codemountain.customer;
+
+/*
+Immutable read model returned by every customer read.
+The Customer entity is only used to write.
+ */
+
+public record CustomerView(
+        int id,
+        String name,
+        String email,
+        int age
+) {
+
+    public static CustomerView of(Customer customer) {
+        return new CustomerView(customer.getId(), customer.getName(), customer.getEmail(), customer.getAge());
+    }
+}
@@ -0,0 +1,6 @@
+package com.codemountain.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
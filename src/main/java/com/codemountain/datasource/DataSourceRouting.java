@@ -0,0 +1,41 @@
+package com.codemountain.datasource;
+
+import java.util.function.Supplier;
+
+/*
+Holds the route requested for the work running on the current
+thread. Work without a route goes to the primary.
+ */
+
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<DataSourceRoute> CURRENT = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static DataSourceRoute current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T with(DataSourceRoute route, Supplier<T> work) {
+        DataSourceRoute previous = CURRENT.get();
+        CURRENT.set(route);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void with(DataSourceRoute route, Runnable work) {
+        with(route, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
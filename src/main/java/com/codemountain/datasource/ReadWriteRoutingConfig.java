@@ -0,0 +1,113 @@
+package com.codemountain.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Replaces the single spring.datasource with a routing DataSource
+over the primary and the configured replicas.
+ */
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({DataSourceProperties.class, ReadWriteRoutingProperties.class})
+@ConditionalOnProperty(prefix = "customer.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    private final ReadWriteRoutingProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ReadWriteRoutingConfig(ReadWriteRoutingProperties properties,
+                                  DataSourceProperties dataSourceProperties,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(properties.readYourWritesWindow());
+    }
+
+    // Closes the primary and replica pools on shutdown
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor() {
+        DataSource primary = pool(
+                ReadWriteRoutingDataSource.PRIMARY_KEY,
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+        List<String> keys = new ArrayList<>();
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReadWriteRoutingProperties.Replica replica = properties.replicas().get(i);
+            String key = "replica-" + i;
+            keys.add(key);
+            replicas.add(pool(key, replica.url(), replica.username(), replica.password()));
+        }
+
+        // Measured by checkReplicas, not here, so an unreachable database cannot hold up startup
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(primary, keys, replicas, properties.maxReplicaLag());
+        meterRegistry.ifAvailable(registry -> keys.forEach(key ->
+                Gauge.builder("customer.datasource.replica.lag", lagMonitor, monitor -> monitor.lagMillis(key))
+                        .description("Replication lag of a read replica in milliseconds")
+                        .tag("replica", key)
+                        .register(registry)));
+        return lagMonitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        Map<Object, Object> targets = new HashMap<>();
+        // The monitor owns every pool, route to the same instances
+        targets.put(ReadWriteRoutingDataSource.PRIMARY_KEY, replicaLagMonitor.primaryDataSource());
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            targets.put("replica-" + i, replicaLagMonitor.dataSource("replica-" + i));
+        }
+
+        ReadWriteRoutingDataSource routingDataSource =
+                new ReadWriteRoutingDataSource(replicaLagMonitor, readYourWritesTracker);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(targets.get(ReadWriteRoutingDataSource.PRIMARY_KEY));
+        return routingDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${customer.datasource.routing.lag-check-interval}")
+    public void checkReplicas() {
+        replicaLagMonitor().checkLag();
+        readYourWritesTracker().evictExpired();
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        meterRegistry.ifAvailable(registry ->
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
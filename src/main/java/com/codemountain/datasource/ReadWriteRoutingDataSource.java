@@ -0,0 +1,32 @@
+package com.codemountain.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/*
+Sends work routed to REPLICA to a replica that is within the
+allowed lag, unless the client wrote recently. Everything else,
+including work without a route, goes to the primary.
+ */
+
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY_KEY = "primary";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWritesTracker) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (DataSourceRouting.current() != DataSourceRoute.REPLICA
+                || readYourWritesTracker.isWithinWriteWindow()) {
+            return PRIMARY_KEY;
+        }
+        String replica = lagMonitor.nextHealthyReplica();
+        return replica != null ? replica : PRIMARY_KEY;
+    }
+}
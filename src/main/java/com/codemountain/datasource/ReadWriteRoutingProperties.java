@@ -0,0 +1,30 @@
+package com.codemountain.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/*
+replicas: read-only DataSources that serve selectAllCustomers, selectCustomerById and the exists checks.
+readYourWritesWindow: how long a client's reads stay on the primary after it wrote.
+maxReplicaLag: replicas lagging further behind than this are skipped.
+lagCheckInterval: how often replica lag is measured.
+ */
+
+@ConfigurationProperties(prefix = "customer.datasource.routing")
+public record ReadWriteRoutingProperties(
+        boolean enabled,
+        List<Replica> replicas,
+        Duration readYourWritesWindow,
+        Duration maxReplicaLag,
+        Duration lagCheckInterval
+) {
+
+    public record Replica(
+            String url,
+            String username,
+            String password
+    ) {
+    }
+}
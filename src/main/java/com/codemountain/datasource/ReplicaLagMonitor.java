@@ -0,0 +1,134 @@
+package com.codemountain.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Measures how far each replica lags behind the primary and hands
+out the replicas that are within the allowed lag in round-robin.
+A replica is only caught up once it replayed the primary's current
+WAL position, read just before it; otherwise its lag is the age of
+the last transaction it replayed. A replica that cannot be reached
+or whose WAL receiver is not running counts as infinitely lagging, and
+so does every replica until its lag is first measured.
+Owns the pools it is given and closes them with the context.
+ */
+
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    // Without pg_read_all_stats the status reads as NULL, the row still tells the receiver runs
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (
+                    SELECT 1 FROM pg_stat_wal_receiver WHERE status IS NULL OR status = 'streaming'
+                ) THEN NULL
+                WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private final DataSource primaryDataSource;
+    private final JdbcTemplate primary;
+    private final List<String> replicaKeys;
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> replicas;
+    private final List<AtomicLong> lagMillis;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaLagMonitor(DataSource primary, List<String> replicaKeys, List<DataSource> replicas, Duration maxLag) {
+        this.primaryDataSource = primary;
+        this.primary = new JdbcTemplate(primary);
+        this.replicaKeys = List.copyOf(replicaKeys);
+        this.dataSources = List.copyOf(replicas);
+        this.replicas = replicas.stream().map(JdbcTemplate::new).toList();
+        this.lagMillis = replicas.stream().map(replica -> new AtomicLong(Long.MAX_VALUE)).toList();
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    public void checkLag() {
+        String primaryLsn;
+        try {
+            primaryLsn = primary.queryForObject(PRIMARY_LSN_QUERY, String.class);
+        } catch (RuntimeException e) {
+            // Replicas are then judged by the age of their last replayed transaction alone
+            log.warn("Could not read the WAL position of the primary: {}", e.getMessage());
+            primaryLsn = null;
+        }
+
+        for (int i = 0; i < replicas.size(); i++) {
+            long lag;
+            try {
+                Number measured = replicas.get(i).queryForObject(LAG_QUERY, Number.class, primaryLsn);
+                if (measured == null) {
+                    log.warn("Replica {} is not streaming from its upstream", replicaKeys.get(i));
+                    lag = Long.MAX_VALUE;
+                } else {
+                    lag = measured.longValue();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not measure lag of replica {}: {}", replicaKeys.get(i), e.getMessage());
+                lag = Long.MAX_VALUE;
+            }
+            lagMillis.get(i).set(lag);
+        }
+    }
+
+    /*
+    Returns the lookup key of the next replica within the allowed
+    lag, or null when no replica is usable.
+     */
+    public String nextHealthyReplica() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            if (lagMillis.get(i).get() <= maxLagMillis) {
+                healthy.add(replicaKeys.get(i));
+            }
+        }
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    public DataSource primaryDataSource() {
+        return primaryDataSource;
+    }
+
+    public DataSource dataSource(String replicaKey) {
+        return dataSources.get(replicaKeys.indexOf(replicaKey));
+    }
+
+    public long lagMillis(String replicaKey) {
+        return lagMillis.get(replicaKeys.indexOf(replicaKey)).get();
+    }
+
+    @Override
+    public void close() {
+        close(primaryDataSource);
+        dataSources.forEach(ReplicaLagMonitor::close);
+    }
+
+    private static void close(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Could not close {}: {}", dataSource, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.codemountain.datasource;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerQuery;
+import com.codemountain.customer.CustomerView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/*
+Decorates a CustomerDao so its read-only methods are routed to
+a replica and its writes to the primary. Writes also open the
+client's read-your-writes window. Reads made while the primary is
+requested stay there, so a read that a write is based on is current.
+ */
+
+public class ReplicaRoutingCustomerDao implements CustomerDao {
+
+    private final CustomerDao delegate;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReplicaRoutingCustomerDao(CustomerDao delegate, ReadYourWritesTracker readYourWritesTracker) {
+        this.delegate = delegate;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomers() {
+        return DataSourceRouting.with(readRoute(), delegate::selectAllCustomers);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
+        return DataSourceRouting.with(readRoute(), () -> delegate.selectCustomerById(customerId));
+    }
+
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        return DataSourceRouting.with(readRoute(), () -> delegate.selectCustomersByIds(customerIds));
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        return DataSourceRouting.with(readRoute(), () -> delegate.selectCustomers(query));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        DataSourceRouting.with(DataSourceRoute.PRIMARY, () -> delegate.insertCustomer(customer));
+        readYourWritesTracker.recordWrite();
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return DataSourceRouting.with(readRoute(), () -> delegate.existsCustomerWithEmail(email));
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Integer customerId) {
+        return DataSourceRouting.with(readRoute(), () -> delegate.existsCustomerWithId(customerId));
+    }
+
+    @Override
+    public void deleteCustomerWithId(Integer customerId) {
+        DataSourceRouting.with(DataSourceRoute.PRIMARY, () -> delegate.deleteCustomerWithId(customerId));
+        readYourWritesTracker.recordWrite();
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        DataSourceRouting.with(DataSourceRoute.PRIMARY, () -> delegate.updateCustomer(updatedCustomer));
+        readYourWritesTracker.recordWrite();
+    }
+
+    private static DataSourceRoute readRoute() {
+        return DataSourceRouting.current() == DataSourceRoute.PRIMARY
+                ? DataSourceRoute.PRIMARY
+                : DataSourceRoute.REPLICA;
+    }
+}
@@ -0,0 +1,41 @@
+package com.codemountain.datasource;
+
+import com.codemountain.customer.CustomerDao;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/*
+Wraps every CustomerDao bean in a ReplicaRoutingCustomerDao.
+Runs early so the route is in place for the plain implementation;
+only micro-batching sits below it.
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "customer.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingCustomerDaoPostProcessor implements BeanPostProcessor, Ordered {
+
+    public static final int ORDER = 10;
+
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    public ReplicaRoutingCustomerDaoPostProcessor(ObjectProvider<ReadYourWritesTracker> readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof CustomerDao customerDao) {
+            return new ReplicaRoutingCustomerDao(customerDao, readYourWritesTracker.getObject());
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,68 @@
+package com.codemountain.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/*
+The keys live in the primary database even when customers are sharded:
+they coordinate requests across nodes and never join customer rows, so
+one shared table serves every shard.
+ */
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "customer.idempotency", name = "enabled", havingValue = "true")
+public class IdempotencyConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyConfig.class);
+
+    private final IdempotencyProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyConfig(IdempotencyProperties properties, JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Bean
+    public IdempotencyStore idempotencyStore() {
+        return new IdempotencyStore(
+                jdbcTemplate,
+                properties.ttl(),
+                properties.claimTimeout(),
+                properties.maximumSize()
+        );
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(ErrorAttributes errorAttributes,
+                                                                       MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore(), properties.inFlightTimeout(), errorAttributes, meterRegistry)
+        );
+        registration.addUrlPatterns("/api/*");
+        // Behind the concurrency limiter, ahead of everything that does real work
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Scheduled(fixedDelayString = "${customer.idempotency.purge-interval}")
+    public void purgeExpiredKeys() {
+        int purged = idempotencyStore().purgeExpired();
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
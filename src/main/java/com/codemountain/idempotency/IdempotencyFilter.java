@@ -0,0 +1,319 @@
+package com.codemountain.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/*
+Makes customer writes sent with an Idempotency-Key header safe to retry.
+The first request with a key runs normally and its outcome is stored;
+retries get the stored outcome instead of running CustomerService again.
+A retry that arrives while the first request is still running on this
+node waits for it. Keys are bound to the method, path and body they were
+first used with, reusing one for a different request is rejected with 422.
+Server errors are not stored, the request may be retried.
+ */
+
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String CUSTOMERS_PATH = "/api/v1/customers";
+    private static final Pattern CUSTOMER_PATH = Pattern.compile(CUSTOMERS_PATH + "/\\d+");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final Duration inFlightTimeout;
+    private final ErrorAttributes errorAttributes;
+    private final Map<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter replays;
+    private final Counter waits;
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             Duration inFlightTimeout,
+                             ErrorAttributes errorAttributes,
+                             MeterRegistry meterRegistry) {
+        this.store = store;
+        this.inFlightTimeout = inFlightTimeout;
+        this.errorAttributes = errorAttributes;
+        this.replays = Counter.builder("customer.idempotency.replays")
+                .description("Retries answered with a stored outcome")
+                .register(meterRegistry);
+        this.waits = Counter.builder("customer.idempotency.waits")
+                .description("Retries that waited for the first execution of their key")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean isCustomerWrite = HttpMethod.POST.matches(request.getMethod())
+                && (path.equals(CUSTOMERS_PATH) || path.equals(CUSTOMERS_PATH + "/operations"))
+                || HttpMethod.PUT.matches(request.getMethod()) && CUSTOMER_PATH.matcher(path).matches();
+        return !isCustomerWrite;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    "%s must be between 1 and %s characters.".formatted(IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH));
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+
+        while (true) {
+            Optional<IdempotentResponse> stored = store.find(key);
+            if (stored.isPresent()) {
+                replay(stored.get(), fingerprint, response);
+                return;
+            }
+
+            CompletableFuture<IdempotentResponse> execution = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(key, execution);
+            if (running == null) {
+                try {
+                    execution.complete(execute(key, fingerprint, cachedRequest, response, filterChain));
+                } catch (IOException | ServletException | RuntimeException e) {
+                    execution.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(key, execution);
+                }
+                return;
+            }
+
+            waits.increment();
+            IdempotentResponse outcome;
+            try {
+                outcome = running.get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                sendInProgress(response);
+                return;
+            } catch (ExecutionException e) {
+                // The first execution failed without an outcome, run the request again
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendInProgress(response);
+                return;
+            }
+
+            if (outcome != null) {
+                replay(outcome, fingerprint, response);
+                return;
+            }
+        }
+    }
+
+    // Returns the stored outcome, or null when nothing was stored
+    private IdempotentResponse execute(String key,
+                                       String fingerprint,
+                                       CachedBodyRequest request,
+                                       HttpServletResponse response,
+                                       FilterChain filterChain) throws ServletException, IOException {
+        Optional<UUID> claimToken = store.claim(key, fingerprint);
+        if (claimToken.isEmpty()) {
+            // Finished in the meantime, or still running on another node
+            Optional<IdempotentResponse> stored = store.find(key);
+            if (stored.isPresent()) {
+                replay(stored.get(), fingerprint, response);
+                return stored.get();
+            }
+            sendInProgress(response);
+            return null;
+        }
+
+        RecordingResponse recordingResponse = new RecordingResponse(response);
+        IdempotentResponse outcome = null;
+        try {
+            filterChain.doFilter(request, recordingResponse);
+            if (recordingResponse.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                IdempotentResponse recorded =
+                        recordingResponse.toIdempotentResponse(fingerprint, errorMessage(request, recordingResponse));
+                if (store.complete(key, claimToken.get(), recorded)) {
+                    outcome = recorded;
+                }
+            }
+            return outcome;
+        } finally {
+            if (outcome == null) {
+                store.release(key, claimToken.get());
+            }
+            recordingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(IdempotentResponse stored,
+                        String fingerprint,
+                        HttpServletResponse response) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    "%s was already used for a different request.".formatted(IDEMPOTENCY_KEY_HEADER));
+            return;
+        }
+
+        replays.increment();
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.sentError()) {
+            response.sendError(stored.status(), stored.errorMessage());
+            return;
+        }
+
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void sendInProgress(HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.CONFLICT.value(),
+                "A request with this %s is still in progress.".formatted(IDEMPOTENCY_KEY_HEADER));
+    }
+
+    /*
+    Exceptions mapped with @ResponseStatus are sent as errors without a
+    message, the error page takes it from the exception instead.
+     */
+    private String errorMessage(HttpServletRequest request, RecordingResponse response) {
+        if (!response.sentError) {
+            return null;
+        }
+        Throwable error = errorAttributes.getError(new ServletWebRequest(request));
+        return error != null ? error.getMessage() : response.errorMessage;
+    }
+
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return inputStream.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+
+    private static final class RecordingResponse extends ContentCachingResponseWrapper {
+
+        private boolean sentError;
+        private String errorMessage;
+
+        RecordingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int statusCode) throws IOException {
+            sentError = true;
+            super.sendError(statusCode);
+        }
+
+        @Override
+        public void sendError(int statusCode, String message) throws IOException {
+            sentError = true;
+            errorMessage = message;
+            super.sendError(statusCode, message);
+        }
+
+        IdempotentResponse toIdempotentResponse(String fingerprint, String errorMessage) {
+            return new IdempotentResponse(
+                    fingerprint,
+                    getStatus(),
+                    getContentType(),
+                    getContentAsByteArray(),
+                    sentError,
+                    errorMessage
+            );
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.codemountain.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+ttl: how long the outcome of a keyed request is replayed to retries.
+maximumSize: outcomes kept in the in-memory front cache.
+inFlightTimeout: how long a retry waits for the first execution on this node.
+claimTimeout: after which an unfinished claim is considered abandoned and a
+retry runs the request again, keep it well above the slowest request.
+purgeInterval: how often expired outcomes are deleted from the table.
+ */
+
+@ConfigurationProperties(prefix = "customer.idempotency")
+public record IdempotencyProperties(
+        boolean enabled,
+        Duration ttl,
+        long maximumSize,
+        Duration inFlightTimeout,
+        Duration claimTimeout,
+        Duration purgeInterval
+) {
+}
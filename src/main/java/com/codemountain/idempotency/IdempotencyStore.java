@@ -0,0 +1,139 @@
+package com.codemountain.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/*
+Keeps the outcomes of keyed requests in the idempotency_key table,
+shared by all nodes, behind a local Caffeine cache.
+A request first claims its key with a row without status and a claim
+token; the outcome is filled in when it finishes, or the claim is
+released so that a retry can run the request again. Both only succeed
+with the token of the claim, so a request whose claim was taken over
+cannot overwrite the outcome of the request that took it.
+ */
+
+public class IdempotencyStore {
+
+    private static final RowMapper<IdempotentResponse> ROW_MAPPER = (resultSet, rowNum) -> new IdempotentResponse(
+            resultSet.getString("fingerprint"),
+            resultSet.getInt("status"),
+            resultSet.getString("content_type"),
+            resultSet.getBytes("body"),
+            resultSet.getBoolean("sent_error"),
+            resultSet.getString("error_message")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMillis;
+    private final long claimTimeoutMillis;
+    private final Cache<String, IdempotentResponse> cache;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate, Duration ttl, Duration claimTimeout, long maximumSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = ttl.toMillis();
+        this.claimTimeoutMillis = claimTimeout.toMillis();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public Optional<IdempotentResponse> find(String key) {
+        IdempotentResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        final String sqlQuery = """
+                SELECT fingerprint, status, content_type, body, sent_error, error_message
+                FROM idempotency_key
+                WHERE idempotency_key = (?)
+                  AND status IS NOT NULL
+                  AND created_at > now() - (?) * INTERVAL '1 millisecond'
+                """;
+
+        Optional<IdempotentResponse> stored = jdbcTemplate.query(sqlQuery, ROW_MAPPER, key, ttlMillis)
+                .stream()
+                .findFirst();
+        stored.ifPresent(response -> cache.put(key, response));
+        return stored;
+    }
+
+    /*
+    Returns the claim token, or empty when the key is taken by an outcome
+    that has not expired or by a request that is still running. Expired
+    outcomes and claims older than the claim timeout are taken over.
+     */
+    public Optional<UUID> claim(String key, String fingerprint) {
+        final String sqlQuery = """
+                INSERT INTO idempotency_key(idempotency_key, fingerprint, claim_token)
+                VALUES (?, ?, ?)
+                ON CONFLICT (idempotency_key) DO UPDATE
+                SET fingerprint = EXCLUDED.fingerprint,
+                    claim_token = EXCLUDED.claim_token,
+                    status = NULL,
+                    content_type = NULL,
+                    body = NULL,
+                    sent_error = false,
+                    error_message = NULL,
+                    created_at = now()
+                WHERE idempotency_key.created_at < now() - (?) * INTERVAL '1 millisecond'
+                   OR (idempotency_key.status IS NULL
+                       AND idempotency_key.created_at < now() - (?) * INTERVAL '1 millisecond')
+                """;
+
+        UUID claimToken = UUID.randomUUID();
+        int claimed = jdbcTemplate.update(sqlQuery, key, fingerprint, claimToken, ttlMillis, claimTimeoutMillis);
+        return claimed == 1 ? Optional.of(claimToken) : Optional.empty();
+    }
+
+    // Returns false when the claim was taken over, the outcome is then not stored
+    public boolean complete(String key, UUID claimToken, IdempotentResponse response) {
+        final String sqlQuery = """
+                UPDATE idempotency_key
+                SET status = (?), content_type = (?), body = (?), sent_error = (?), error_message = (?)
+                WHERE idempotency_key = (?) AND claim_token = (?) AND status IS NULL
+                """;
+
+        int completed = jdbcTemplate.update(
+                sqlQuery,
+                response.status(),
+                response.contentType(),
+                response.body(),
+                response.sentError(),
+                response.errorMessage(),
+                key,
+                claimToken
+        );
+        if (completed == 0) {
+            return false;
+        }
+        cache.put(key, response);
+        return true;
+    }
+
+    public void release(String key, UUID claimToken) {
+        final String sqlQuery = """
+                DELETE FROM idempotency_key
+                WHERE idempotency_key = (?) AND claim_token = (?) AND status IS NULL
+                """;
+
+        jdbcTemplate.update(sqlQuery, key, claimToken);
+    }
+
+    public int purgeExpired() {
+        final String sqlQuery = """
+                DELETE FROM idempotency_key
+                WHERE created_at < now() - (?) * INTERVAL '1 millisecond'
+                """;
+
+        return jdbcTemplate.update(sqlQuery, ttlMillis);
+    }
+}
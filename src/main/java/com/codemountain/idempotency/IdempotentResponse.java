@@ -0,0 +1,18 @@
+package com.codemountain.idempotency;
+
+/*
+The outcome of a request sent with an Idempotency-Key.
+Errors are rendered by the error page after the filter chain has
+returned, so for them only the status and message are kept and
+the error is sent again on replay.
+ */
+
+public record IdempotentResponse(
+        String fingerprint,
+        int status,
+        String contentType,
+        byte[] body,
+        boolean sentError,
+        String errorMessage
+) {
+}
@@ -0,0 +1,48 @@
+package com.codemountain.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(CustomerCacheEvent.NAME)
+@Label("Customer Cache Lookup")
+@Description("A lookup in one of the customer caches, a multi-get counts every id")
+@Category({"Customer API", "Cache"})
+@StackTrace(false)
+@Enabled(false)
+public class CustomerCacheEvent extends Event {
+
+    public static final String NAME = "com.codemountain.CustomerCache";
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Lookups")
+    int lookups;
+
+    @Label("Hits")
+    int hits;
+
+    /*
+    Lets callers skip the work of counting hits when nobody records
+    the event. The event does not escape, so without a recording this
+    costs no more than the enabled check.
+     */
+    public static boolean isRecorded() {
+        return new CustomerCacheEvent().isEnabled();
+    }
+
+    public static void record(String cache, int lookups, int hits) {
+        CustomerCacheEvent event = new CustomerCacheEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.lookups = lookups;
+            event.hits = hits;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.codemountain.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name(CustomerDaoEvent.NAME)
+@Label("Customer DAO Call")
+@Description("A CustomerDao call, rows is the number of customers or matches a read returned")
+@Category({"Customer API", "DAO"})
+@StackTrace(false)
+@Threshold("10 ms")
+public class CustomerDaoEvent extends Event {
+
+    public static final String NAME = "com.codemountain.CustomerDao";
+
+    @Label("Method")
+    String method;
+
+    @Label("DAO")
+    String dao;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
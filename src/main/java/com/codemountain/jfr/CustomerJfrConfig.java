@@ -0,0 +1,61 @@
+package com.codemountain.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+@org.springframework.context.annotation.Configuration
+@EnableConfigurationProperties(CustomerJfrProperties.class)
+public class CustomerJfrConfig {
+
+    static final String SETTINGS = "jfr/customer.jfc";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "customer.jfr", name = "enabled", havingValue = "true")
+    public WebMvcConfigurer customerRequestEvents() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new CustomerRequestEventInterceptor())
+                        .addPathPatterns("/api/v1/customers/**");
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "customer.jfr", name = "start-recording", havingValue = "true")
+    public Recording customerRecording(CustomerJfrProperties properties) throws IOException, ParseException {
+        // The JDK's default profile keeps GC, locks and I/O in the recording, customer.jfc adds our events
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        try (Reader reader = new InputStreamReader(
+                new ClassPathResource(SETTINGS).getInputStream(), StandardCharsets.UTF_8)) {
+            settings.putAll(Configuration.create(reader).getSettings());
+        }
+
+        Recording recording = new Recording(settings);
+        recording.setName("customer-api");
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.maxAge());
+        recording.setMaxSize(properties.maxSize().toBytes());
+        recording.start();
+        return recording;
+    }
+
+    @Bean
+    public CustomerJfrEndpoint customerJfrEndpoint() {
+        return new CustomerJfrEndpoint();
+    }
+}
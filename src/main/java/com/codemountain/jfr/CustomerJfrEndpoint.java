@@ -0,0 +1,97 @@
+package com.codemountain.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+GET /actuator/jfr dumps what the running recordings hold so far, whether
+started with -XX:StartFlightRecording, jcmd or customer.jfr.start-recording,
+as a .jfr file for JDK Mission Control or `jfr print`.
+Answers 503 while nothing is recording, and 403 while a recording
+captures environment variables, system properties, JVM arguments or
+process command lines, which can hold credentials. customer.jfc turns
+those events off, start recordings with it last in the settings.
+Not exposed by default; expose it on a management port that is not
+reachable from outside, see the README.
+ */
+
+@WebEndpoint(id = "jfr")
+public class CustomerJfrEndpoint {
+
+    static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess"
+    );
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump() throws IOException {
+        if (!isRecording()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        if (capturesSensitiveEvents()) {
+            return new WebEndpointResponse<>(HttpStatus.FORBIDDEN.value());
+        }
+        Path file = Files.createTempFile("customer-", ".jfr");
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            snapshot.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(file));
+    }
+
+    private static boolean isRecording() {
+        return FlightRecorder.isAvailable()
+                && FlightRecorder.getFlightRecorder()
+                .getRecordings()
+                .stream()
+                .anyMatch(recording -> recording.getState() == RecordingState.RUNNING);
+    }
+
+    // A snapshot holds the events of every running recording, so one that records them is enough
+    private static boolean capturesSensitiveEvents() {
+        return FlightRecorder.getFlightRecorder()
+                .getRecordings()
+                .stream()
+                .filter(recording -> recording.getState() == RecordingState.RUNNING)
+                .anyMatch(recording -> SENSITIVE_EVENTS.stream()
+                        .anyMatch(event -> !"false".equals(recording.getSettings().get(event + "#enabled"))));
+    }
+
+    // Deleted once the response has been streamed, as with the heap dump endpoint
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private TemporaryFileResource(Path path) {
+            super(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(getFile().toPath(),
+                    StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        @Override
+        public boolean isFile() {
+            // Forces the converter to go through getInputStream
+            return false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.codemountain.jfr;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/*
+enabled: whether requests and CustomerDao calls emit events. They only cost
+anything while a recording has the events enabled.
+startRecording: starts a continuous recording at startup with the JDK's default
+settings plus jfr/customer.jfc, for deployments not started with -XX:StartFlightRecording.
+maxAge, maxSize: how much of that recording is kept.
+ */
+
+@ConfigurationProperties(prefix = "customer.jfr")
+public record CustomerJfrProperties(
+        boolean enabled,
+        boolean startRecording,
+        Duration maxAge,
+        DataSize maxSize
+) {
+}
@@ -0,0 +1,53 @@
+package com.codemountain.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name(CustomerRequestEvent.NAME)
+@Label("Customer Request")
+@Description("A request handled by CustomerController or answered from the response cache")
+@Category({"Customer API", "HTTP"})
+@StackTrace(false)
+@Threshold("20 ms")
+public class CustomerRequestEvent extends Event {
+
+    public static final String NAME = "com.codemountain.CustomerRequest";
+
+    @Label("Method")
+    String method;
+
+    @Label("Route")
+    String route;
+
+    @Label("Handler")
+    String handler;
+
+    @Label("Status")
+    int status;
+
+    // Begun when recorded, null otherwise
+    public static CustomerRequestEvent start(String handler) {
+        CustomerRequestEvent event = new CustomerRequestEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.handler = handler;
+        event.begin();
+        return event;
+    }
+
+    public void finish(String method, String route, int status) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.route = route;
+            this.status = status;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.codemountain.jfr;
+
+import com.codemountain.customer.CustomerController;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/*
+Emits a CustomerRequestEvent for every request CustomerController handles.
+The event is only created and kept on the request while it is recorded.
+An async request is dispatched twice; the event begun on the first
+dispatch is kept and committed when the second one completes, so it
+covers the whole request.
+ */
+
+public class CustomerRequestEventInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String EVENT_ATTRIBUTE = CustomerRequestEventInterceptor.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(EVENT_ATTRIBUTE) != null) {
+            // The async dispatch of a request that already has its event
+            return true;
+        }
+        if (handler instanceof HandlerMethod handlerMethod
+                && handlerMethod.getBeanType() == CustomerController.class) {
+            CustomerRequestEvent event = CustomerRequestEvent.start(handlerMethod.getMethod().getName());
+            if (event != null) {
+                request.setAttribute(EVENT_ATTRIBUTE, event);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request,
+                                               HttpServletResponse response,
+                                               Object handler) {
+        // Nothing to commit yet, the event stays on the request for the async dispatch
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request,
+                                HttpServletResponse response,
+                                Object handler,
+                                Exception ex) {
+        if (request.getAttribute(EVENT_ATTRIBUTE) instanceof CustomerRequestEvent event) {
+            request.removeAttribute(EVENT_ATTRIBUTE);
+            event.finish(
+                    request.getMethod(),
+                    // The mapping, not the path, so events group by endpoint
+                    String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)),
+                    // Exceptions are resolved to their status before afterCompletion
+                    response.getStatus()
+            );
+        }
+    }
+}
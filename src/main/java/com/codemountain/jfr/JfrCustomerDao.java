@@ -0,0 +1,112 @@
+package com.codemountain.jfr;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerQuery;
+import com.codemountain.customer.CustomerView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/*
+Emits a CustomerDaoEvent for every call, so recordings can tie GC
+pauses and lock contention to the customer queries running at the time.
+When the event is not recorded begin, end and shouldCommit do nothing.
+ */
+
+public class JfrCustomerDao implements CustomerDao {
+
+    private final CustomerDao delegate;
+    private final String qualifier;
+
+    public JfrCustomerDao(CustomerDao delegate, String qualifier) {
+        this.delegate = delegate;
+        this.qualifier = qualifier;
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomers() {
+        return record("selectAllCustomers", delegate::selectAllCustomers, List::size);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
+        return record("selectCustomerById", () -> delegate.selectCustomerById(customerId), JfrCustomerDao::found);
+    }
+
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        return record("selectCustomersByIds", () -> delegate.selectCustomersByIds(customerIds), List::size);
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        return record("selectCustomers", () -> delegate.selectCustomers(query), List::size);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        record("insertCustomer", () -> delegate.insertCustomer(customer));
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return record("existsCustomerWithEmail",
+                () -> delegate.existsCustomerWithEmail(email), JfrCustomerDao::matched);
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Integer customerId) {
+        return record("existsCustomerWithId", () -> delegate.existsCustomerWithId(customerId), JfrCustomerDao::matched);
+    }
+
+    @Override
+    public void deleteCustomerWithId(Integer customerId) {
+        record("deleteCustomerWithId", () -> delegate.deleteCustomerWithId(customerId));
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        record("updateCustomer", () -> delegate.updateCustomer(updatedCustomer));
+    }
+
+    private <T> T record(String method, Supplier<T> call, ToIntFunction<? super T> rows) {
+        CustomerDaoEvent event = new CustomerDaoEvent();
+        event.begin();
+        T result = null;
+        boolean failed = true;
+        try {
+            result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = method;
+                event.dao = qualifier;
+                event.rows = failed ? 0 : rows.applyAsInt(result);
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    // Writes do not report how many rows they touched
+    private void record(String method, Runnable call) {
+        record(method, () -> {
+            call.run();
+            return null;
+        }, result -> 0);
+    }
+
+    private static int found(Optional<?> result) {
+        return result.isPresent() ? 1 : 0;
+    }
+
+    private static int matched(Boolean result) {
+        return Boolean.TRUE.equals(result) ? 1 : 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.codemountain.jfr;
+
+import com.codemountain.customer.CustomerDao;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/*
+Wraps every CustomerDao bean in a JfrCustomerDao, using the bean name
+(the qualifier) as the dao field. Runs after caching and just before
+the metrics decorator, so events cover the same calls as the
+customer.dao timers and cache hits show up as short calls.
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "customer.jfr", name = "enabled", havingValue = "true")
+public class JfrCustomerDaoPostProcessor implements BeanPostProcessor, Ordered {
+
+    public static final int ORDER = 40;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof CustomerDao customerDao) {
+            return new JfrCustomerDao(customerDao, beanName);
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,101 @@
+package com.codemountain.metrics;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerQuery;
+import com.codemountain.customer.CustomerView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/*
+Decorates a CustomerDao with a timer per method, tagged with
+the qualifier of the decorated implementation so jdbc, jpa
+and list can be compared side by side.
+ */
+
+public class MeteredCustomerDao implements CustomerDao {
+
+    static final String METRIC_NAME = "customer.dao";
+
+    private final CustomerDao delegate;
+    private final Timer selectAllCustomersTimer;
+    private final Timer selectCustomerByIdTimer;
+    private final Timer selectCustomersByIdsTimer;
+    private final Timer selectCustomersTimer;
+    private final Timer insertCustomerTimer;
+    private final Timer existsCustomerWithEmailTimer;
+    private final Timer existsCustomerWithIdTimer;
+    private final Timer deleteCustomerWithIdTimer;
+    private final Timer updateCustomerTimer;
+
+    public MeteredCustomerDao(CustomerDao delegate, String qualifier, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.selectAllCustomersTimer = timer("selectAllCustomers", qualifier, meterRegistry);
+        this.selectCustomerByIdTimer = timer("selectCustomerById", qualifier, meterRegistry);
+        this.selectCustomersByIdsTimer = timer("selectCustomersByIds", qualifier, meterRegistry);
+        this.selectCustomersTimer = timer("selectCustomers", qualifier, meterRegistry);
+        this.insertCustomerTimer = timer("insertCustomer", qualifier, meterRegistry);
+        this.existsCustomerWithEmailTimer = timer("existsCustomerWithEmail", qualifier, meterRegistry);
+        this.existsCustomerWithIdTimer = timer("existsCustomerWithId", qualifier, meterRegistry);
+        this.deleteCustomerWithIdTimer = timer("deleteCustomerWithId", qualifier, meterRegistry);
+        this.updateCustomerTimer = timer("updateCustomer", qualifier, meterRegistry);
+    }
+
+    private static Timer timer(String method, String qualifier, MeterRegistry meterRegistry) {
+        return Timer.builder(METRIC_NAME)
+                .description("Time spent in CustomerDao operations")
+                .tag("dao", qualifier)
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomers() {
+        return selectAllCustomersTimer.record(delegate::selectAllCustomers);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
+        return selectCustomerByIdTimer.record(() -> delegate.selectCustomerById(customerId));
+    }
+
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        return selectCustomersByIdsTimer.record(() -> delegate.selectCustomersByIds(customerIds));
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        return selectCustomersTimer.record(() -> delegate.selectCustomers(query));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        insertCustomerTimer.record(() -> delegate.insertCustomer(customer));
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return Boolean.TRUE.equals(existsCustomerWithEmailTimer.record(() -> delegate.existsCustomerWithEmail(email)));
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Integer customerId) {
+        return Boolean.TRUE.equals(existsCustomerWithIdTimer.record(() -> delegate.existsCustomerWithId(customerId)));
+    }
+
+    @Override
+    public void deleteCustomerWithId(Integer customerId) {
+        deleteCustomerWithIdTimer.record(() -> delegate.deleteCustomerWithId(customerId));
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        updateCustomerTimer.record(() -> delegate.updateCustomer(updatedCustomer));
+    }
+}
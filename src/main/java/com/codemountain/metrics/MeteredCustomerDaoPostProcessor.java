@@ -0,0 +1,38 @@
+package com.codemountain.metrics;
+
+import com.codemountain.customer.CustomerDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/*
+Wraps every CustomerDao bean in a MeteredCustomerDao, using
+the bean name (the qualifier) as the dao tag. Runs last so the
+timers measure the complete decorated call.
+ */
+
+@Component
+public class MeteredCustomerDaoPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MeteredCustomerDaoPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof CustomerDao customerDao) {
+            return new MeteredCustomerDao(customerDao, beanName, meterRegistry.getObject());
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
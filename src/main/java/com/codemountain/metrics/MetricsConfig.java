@@ -0,0 +1,47 @@
+package com.codemountain.metrics;
+
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Enables @Timed on service methods and tags every meter with
+the name of the CustomerDao bean CustomerService is injected with.
+The name is resolved from the bean definitions the way the injection
+is, so no DAO has to be created before the meter registry.
+ */
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterFilter activeDaoTag(ConfigurableListableBeanFactory beanFactory) {
+        return MeterFilter.commonTags(Tags.of("dao", activeDao(beanFactory)));
+    }
+
+    static String activeDao(ConfigurableListableBeanFactory beanFactory) {
+        List<String> candidates = Arrays.stream(beanFactory.getBeanNamesForType(CustomerDao.class, false, false))
+                .filter(name -> BeanFactoryAnnotationUtils.isQualifierMatch(
+                        CustomerService.DAO_QUALIFIER::equals, name, beanFactory))
+                .toList();
+        return candidates.stream()
+                .filter(name -> beanFactory.getBeanDefinition(name).isPrimary())
+                .findFirst()
+                .orElse(candidates.isEmpty() ? CustomerService.DAO_QUALIFIER : candidates.get(0));
+    }
+}
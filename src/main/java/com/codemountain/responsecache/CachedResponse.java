@@ -0,0 +1,17 @@
+package com.codemountain.responsecache;
+
+/*
+An encoded GET /api/v1/customers/{id} response.
+gzipped is null when the body is not worth compressing.
+ */
+
+record CachedResponse(String contentType, byte[] body, byte[] gzipped) {
+
+    // Rough per entry overhead of the key, the record and the cache node
+    private static final int ENTRY_OVERHEAD = 96;
+
+    int weight() {
+        long weight = ENTRY_OVERHEAD + body.length + (gzipped != null ? gzipped.length : 0);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,104 @@
+package com.codemountain.responsecache;
+
+import com.codemountain.cache.CustomerChangeListener;
+import com.codemountain.customer.CustomerChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.context.event.EventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.GZIPOutputStream;
+
+/*
+Encoded customer responses by customer id.
+Writes through CustomerService evict their id when they publish their
+CustomerChangedEvent, writes on other nodes and outside CustomerService
+through CustomerChangeNotifications.
+A response is rendered from data read before it is put, so an
+invalidation in between would be undone by the put. Every invalidation
+therefore bumps a generation, and a response is only kept if the
+generation of its id did not change while it was being rendered.
+As with CachingCustomerDao, replica lag can still get an old row
+cached after an invalidation; expireAfterWrite bounds how long.
+ */
+
+public class CustomerResponseCache implements CustomerChangeListener {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<Integer, CachedResponse> cache;
+    private final boolean gzip;
+    private final int gzipMinSize;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong allGeneration = new AtomicLong();
+
+    public CustomerResponseCache(Cache<Integer, CachedResponse> cache, boolean gzip, int gzipMinSize) {
+        this.cache = cache;
+        this.gzip = gzip;
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    CachedResponse get(int customerId) {
+        return cache.getIfPresent(customerId);
+    }
+
+    // Taken before the response is rendered and handed back to put
+    long generation(int customerId) {
+        return allGeneration.get() + generations.get(stripe(customerId));
+    }
+
+    void put(int customerId, long generation, String contentType, byte[] body) {
+        if (generation(customerId) != generation) {
+            return;
+        }
+        byte[] gzipped = gzip && body.length >= gzipMinSize ? gzip(body) : null;
+        cache.put(customerId, new CachedResponse(contentType, body, gzipped));
+        // Invalidated while being put
+        if (generation(customerId) != generation) {
+            cache.invalidate(customerId);
+        }
+    }
+
+    boolean gzipEnabled() {
+        return gzip;
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        invalidate(event.customerId());
+    }
+
+    @Override
+    public void onCustomersChanged(Collection<Integer> customerIds) {
+        customerIds.forEach(this::invalidate);
+    }
+
+    @Override
+    public void onAllCustomersChanged() {
+        allGeneration.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void invalidate(int customerId) {
+        generations.incrementAndGet(stripe(customerId));
+        cache.invalidate(customerId);
+    }
+
+    private static int stripe(int customerId) {
+        return Math.floorMod(customerId, GENERATION_STRIPES);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2 + 32);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
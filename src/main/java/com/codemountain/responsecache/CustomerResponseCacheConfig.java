@@ -0,0 +1,65 @@
+package com.codemountain.responsecache;
+
+import com.codemountain.cache.CustomerChangeNotifications;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(CustomerResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "customer.response-cache", name = "enabled", havingValue = "true")
+public class CustomerResponseCacheConfig {
+
+    @Bean
+    public CustomerResponseCache customerResponseCache(CustomerResponseCacheProperties properties,
+                                                       ObjectProvider<CustomerChangeNotifications> changeNotifications,
+                                                       MeterRegistry meterRegistry) {
+        // Bounded by the bytes held, a handful of large bodies must not crowd out everything else
+        Cache<Integer, CachedResponse> cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maximumSize().toBytes())
+                .weigher((Integer customerId, CachedResponse response) -> response.weight())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customer.responses");
+        Gauge.builder("customer.response.cache.bytes", cache,
+                        responses -> responses.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .description("Bytes held by the customer response cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("customer.response.cache.hit.ratio", cache, responses -> responses.stats().hitRate())
+                .description("Share of customer GETs answered from the response cache")
+                .register(meterRegistry);
+
+        CustomerResponseCache responseCache = new CustomerResponseCache(
+                cache,
+                properties.gzip(),
+                (int) properties.gzipMinSize().toBytes()
+        );
+        // Without notifications only writes through this node's CustomerService evict
+        changeNotifications.ifAvailable(notifications -> notifications.addListener(responseCache));
+        return responseCache;
+    }
+
+    @Bean
+    public FilterRegistrationBean<CustomerResponseCacheFilter> customerResponseCacheFilter(
+            CustomerResponseCache customerResponseCache) {
+        FilterRegistrationBean<CustomerResponseCacheFilter> registration = new FilterRegistrationBean<>(
+                new CustomerResponseCacheFilter(customerResponseCache)
+        );
+        registration.addUrlPatterns("/api/v1/customers/*");
+        // Behind the concurrency limiter and idempotency keys
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,153 @@
+package com.codemountain.responsecache;
+
+import com.codemountain.jfr.CustomerCacheEvent;
+import com.codemountain.jfr.CustomerRequestEvent;
+import com.codemountain.warmup.WarmupPhase;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Serves GET /api/v1/customers/{id} from CustomerResponseCache, writing the
+stored bytes without going through the controller or Jackson. A miss is
+rendered as usual and its body kept if it was a 200 with a JSON body.
+Requests that do not accept JSON, and all requests during warm-up, are
+passed through untouched.
+ */
+
+public class CustomerResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern CUSTOMER_PATH = Pattern.compile("/api/v1/customers/(\\d{1,9})");
+    // The mapping of CustomerController#getCustomerById, so hits group with the requests it handles
+    private static final String CUSTOMER_ROUTE = "/api/v1/customers/{id}";
+    private static final String GZIP = "gzip";
+
+    private final CustomerResponseCache cache;
+
+    public CustomerResponseCacheFilter(CustomerResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !CUSTOMER_PATH.matcher(pathOf(request)).matches()
+                || WarmupPhase.isRunning();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!acceptsJson(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Matcher matcher = CUSTOMER_PATH.matcher(pathOf(request));
+        matcher.matches();
+        int customerId = Integer.parseInt(matcher.group(1));
+
+        if (cache.gzipEnabled()) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        // Hits never reach the controller, so they are recorded here
+        CustomerRequestEvent event = CustomerRequestEvent.start("responseCache");
+        CachedResponse cached = cache.get(customerId);
+        CustomerCacheEvent.record("response", 1, cached != null ? 1 : 0);
+        if (cached != null) {
+            write(cached, request, response);
+            if (event != null) {
+                event.finish(request.getMethod(), CUSTOMER_ROUTE, HttpStatus.OK.value());
+            }
+            return;
+        }
+
+        long generation = cache.generation(customerId);
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if (responseWrapper.getStatus() == HttpStatus.OK.value() && isJson(responseWrapper.getContentType())) {
+                cache.put(customerId, generation, responseWrapper.getContentType(),
+                        responseWrapper.getContentAsByteArray());
+            }
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void write(CachedResponse cached,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        byte[] body = cached.body();
+        if (cached.gzipped() != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            body = cached.gzipped();
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept)
+                    .stream()
+                    .anyMatch(mediaType -> mediaType.getQualityValue() > 0
+                            && mediaType.isCompatibleWith(MediaType.APPLICATION_JSON));
+        } catch (InvalidMediaTypeException e) {
+            // Left to content negotiation to reject
+            return false;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.trim().split(";");
+            if (parameters[0].trim().equalsIgnoreCase(GZIP)) {
+                for (int i = 1; i < parameters.length; i++) {
+                    if (parameters[i].trim().replace(" ", "").matches("q=0(\\.0{0,3})?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isJson(String contentType) {
+        try {
+            return contentType != null
+                    && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,23 @@
+package com.codemountain.responsecache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/*
+maximumSize: total size of the cached response bodies, gzipped copies included.
+expireAfterWrite: upper bound on staleness should an invalidation get lost.
+gzip: whether a gzipped copy is kept for clients sending Accept-Encoding: gzip.
+gzipMinSize: bodies smaller than this are only kept as they are.
+ */
+
+@ConfigurationProperties(prefix = "customer.response-cache")
+public record CustomerResponseCacheProperties(
+        boolean enabled,
+        DataSize maximumSize,
+        Duration expireAfterWrite,
+        boolean gzip,
+        DataSize gzipMinSize
+) {
+}
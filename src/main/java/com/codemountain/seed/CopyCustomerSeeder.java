@@ -0,0 +1,66 @@
+package com.codemountain.seed;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+Streams generated customers into Postgres with COPY FROM STDIN,
+one connection per shard. Rows are buffered and flushed to the
+copy stream in chunks so memory use stays flat for any count.
+ */
+
+class CopyCustomerSeeder {
+
+    private static final String COPY_SQL = "COPY customer(name, email, age) FROM STDIN WITH (FORMAT csv)";
+
+    private final DataSource dataSource;
+    private final int flushSize;
+
+    CopyCustomerSeeder(DataSource dataSource, int flushSize) {
+        this.dataSource = dataSource;
+        this.flushSize = flushSize;
+    }
+
+    void seedShard(int shard, int shards, long count, String run, SeedProgress progress) throws SQLException {
+        CustomerGenerator generator = new CustomerGenerator(shard, run);
+        StringBuilder buffer = new StringBuilder(flushSize * 64);
+
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyIn(COPY_SQL);
+            try {
+                int buffered = 0;
+                for (long sequence = shard; sequence < count; sequence += shards) {
+                    generator.appendCsv(sequence, buffer);
+                    if (++buffered == flushSize) {
+                        flush(copyIn, buffer);
+                        progress.add(buffered);
+                        buffered = 0;
+                    }
+                }
+                flush(copyIn, buffer);
+                progress.add(buffered);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    private static void flush(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.codemountain.seed;
+
+import com.codemountain.customer.Customer;
+import com.github.javafaker.Faker;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/*
+Generates fake customers for one shard. Faker is only used to build
+pools of names up front since calling it per row is far too slow.
+Emails embed the run and the customer's sequence number, which is
+unique across shards, so they collide neither within a run nor with
+customers seeded by earlier runs.
+ */
+
+class CustomerGenerator {
+
+    private static final int NAME_POOL_SIZE = 1_000;
+    private static final String EMAIL_DOMAIN = "@codemountain.com";
+    private static final Pattern NOT_EMAIL_SAFE = Pattern.compile("[^a-z0-9]");
+
+    private final String run;
+    private final String[] firstNames;
+    private final String[] lastNames;
+    // The email local parts of the names, computed with the pools instead of per row
+    private final String[] firstLocalParts;
+    private final String[] lastLocalParts;
+    private final Random random;
+
+    CustomerGenerator(int shard, String run) {
+        Faker faker = new Faker(new Random(shard));
+        this.run = run;
+        this.firstNames = IntStream.range(0, NAME_POOL_SIZE).mapToObj(i -> faker.name().firstName()).toArray(String[]::new);
+        this.lastNames = IntStream.range(0, NAME_POOL_SIZE).mapToObj(i -> faker.name().lastName()).toArray(String[]::new);
+        this.firstLocalParts = Arrays.stream(firstNames).map(CustomerGenerator::emailLocalPart).toArray(String[]::new);
+        this.lastLocalParts = Arrays.stream(lastNames).map(CustomerGenerator::emailLocalPart).toArray(String[]::new);
+        this.random = new Random(shard);
+    }
+
+    Customer next(long sequence) {
+        int first = random.nextInt(NAME_POOL_SIZE);
+        int last = random.nextInt(NAME_POOL_SIZE);
+        return new Customer(
+                firstNames[first] + " " + lastNames[last],
+                firstLocalParts[first] + "." + lastLocalParts[last] + "." + run + "." + sequence + EMAIL_DOMAIN,
+                16 + random.nextInt(60)
+        );
+    }
+
+    /*
+    Appends the customer as a CSV line in the column order
+    name, email, age.
+     */
+    void appendCsv(long sequence, StringBuilder buffer) {
+        Customer customer = next(sequence);
+        buffer.append('"').append(customer.getName().replace("\"", "\"\"")).append('"')
+                .append(',').append(customer.getEmail())
+                .append(',').append(customer.getAge())
+                .append('\n');
+    }
+
+    private static String emailLocalPart(String name) {
+        return NOT_EMAIL_SAFE.matcher(name.toLowerCase(Locale.ROOT)).replaceAll("");
+    }
+}
@@ -0,0 +1,22 @@
+package com.codemountain.seed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+count: number of customers to generate.
+shards: number of generators (and Postgres connections) working in parallel.
+target: jdbc streams into Postgres through COPY, list inserts into the in-memory list DAO.
+flushSize: rows buffered per shard before they are written to the COPY stream or the list.
+ */
+
+@ConfigurationProperties(prefix = "customer.seed")
+public record CustomerSeedProperties(
+        long count,
+        int shards,
+        String target,
+        int flushSize,
+        Duration progressInterval
+) {
+}
@@ -0,0 +1,183 @@
+package com.codemountain.seed;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerView;
+import com.codemountain.shard.ShardingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+Opt-in bulk seeding of fake customers, enabled with the seed profile:
+    java -jar customer-api.jar --spring.profiles.active=seed --customer.seed.count=5000000
+Shards generate customers in parallel and stream them into Postgres
+through COPY (target jdbc), or into the in-memory list DAO (target list).
+Any other target fails startup. COPY writes to the primary database,
+which does not hold the customers once sharding is enabled, so seeding
+with COPY is refused then.
+After seeding through COPY the application exits, the rows stay in
+Postgres. The list DAO only lives as long as the application, so with
+target list it carries on and serves the seeded customers.
+ */
+
+@Component
+@Profile("seed")
+@Order(0)
+@EnableConfigurationProperties(CustomerSeedProperties.class)
+public class CustomerSeedRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSeedRunner.class);
+
+    static final String COPY_TARGET = "jdbc";
+    static final String LIST_TARGET = "list";
+
+    private final CustomerSeedProperties properties;
+    private final DataSource dataSource;
+    private final ApplicationContext applicationContext;
+
+    public CustomerSeedRunner(CustomerSeedProperties properties,
+                              DataSource dataSource,
+                              ApplicationContext applicationContext,
+                              ObjectProvider<ShardingProperties> sharding) {
+        if (!COPY_TARGET.equals(properties.target()) && !LIST_TARGET.equals(properties.target())) {
+            throw new IllegalArgumentException("customer.seed.target must be %s or %s, was '%s'"
+                    .formatted(COPY_TARGET, LIST_TARGET, properties.target()));
+        }
+        ShardingProperties shardingProperties = sharding.getIfAvailable();
+        if (COPY_TARGET.equals(properties.target()) && shardingProperties != null && shardingProperties.enabled()) {
+            throw new IllegalStateException("Seeding with COPY is not supported when customer.sharding is enabled");
+        }
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        log.info("Seeding {} customers into '{}' with {} shards",
+                properties.count(), properties.target(), properties.shards());
+
+        // Part of every email, so seeding a database that holds earlier runs does not collide with them
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        SeedProgress progress = new SeedProgress(properties.count());
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(
+                progress::report,
+                properties.progressInterval().toMillis(),
+                properties.progressInterval().toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+
+        try {
+            if (LIST_TARGET.equals(properties.target())) {
+                seedList(run, progress);
+            } else {
+                seedWithCopy(run, progress);
+            }
+        } finally {
+            reporter.shutdownNow();
+            progress.report();
+        }
+
+        if (COPY_TARGET.equals(properties.target())) {
+            log.info("Seeding done, exiting");
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private void seedWithCopy(String run, SeedProgress progress) throws InterruptedException, ExecutionException {
+        CopyCustomerSeeder seeder = new CopyCustomerSeeder(dataSource, properties.flushSize());
+        ExecutorService executor = Executors.newFixedThreadPool(properties.shards());
+        try {
+            List<Future<?>> shards = new ArrayList<>();
+            for (int shard = 0; shard < properties.shards(); shard++) {
+                final int current = shard;
+                shards.add(executor.submit(() -> {
+                    seeder.seedShard(current, properties.shards(), properties.count(), run, progress);
+                    return null;
+                }));
+            }
+            for (Future<?> shard : shards) {
+                shard.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+    The list DAO is not thread safe, so customers are generated in
+    parallel but inserted from this thread, one chunk of flushSize
+    customers per shard at a time. It does not generate ids, so they
+    continue from the highest existing one.
+     */
+    private void seedList(String run, SeedProgress progress) throws InterruptedException, ExecutionException {
+        CustomerDao customerDao = applicationContext.getBean(LIST_TARGET, CustomerDao.class);
+        int nextId = customerDao.selectAllCustomers()
+                .stream()
+                .mapToInt(CustomerView::id)
+                .max()
+                .orElse(0) + 1;
+
+        List<CustomerGenerator> generators = new ArrayList<>();
+        // Sequence numbers of shard s are s, s + shards, ...; each entry is only touched by its shard's task
+        long[] nextSequences = new long[properties.shards()];
+        for (int shard = 0; shard < properties.shards(); shard++) {
+            generators.add(new CustomerGenerator(shard, run));
+            nextSequences[shard] = shard;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.shards());
+        try {
+            boolean generated = true;
+            while (generated) {
+                List<Future<List<Customer>>> chunks = new ArrayList<>();
+                for (int shard = 0; shard < properties.shards(); shard++) {
+                    final int current = shard;
+                    chunks.add(executor.submit(() -> {
+                        List<Customer> chunk = new ArrayList<>(properties.flushSize());
+                        long sequence = nextSequences[current];
+                        for (; sequence < properties.count() && chunk.size() < properties.flushSize();
+                             sequence += properties.shards()) {
+                            chunk.add(generators.get(current).next(sequence));
+                        }
+                        nextSequences[current] = sequence;
+                        return chunk;
+                    }));
+                }
+
+                generated = false;
+                for (Future<List<Customer>> chunk : chunks) {
+                    List<Customer> customers = chunk.get();
+                    for (Customer customer : customers) {
+                        customer.setId(nextId++);
+                        customerDao.insertCustomer(customer);
+                    }
+                    progress.add(customers.size());
+                    generated |= !customers.isEmpty();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.codemountain.seed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SeedProgress {
+
+    private static final Logger log = LoggerFactory.getLogger(SeedProgress.class);
+
+    private final long total;
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong written = new AtomicLong();
+
+    SeedProgress(long total) {
+        this.total = total;
+    }
+
+    void add(long rows) {
+        written.addAndGet(rows);
+    }
+
+    void report() {
+        long rows = written.get();
+        double seconds = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)) / 1000.0;
+        log.info("Seeded {}/{} customers ({}%), {} rows/s",
+                rows,
+                total,
+                total == 0 ? 100 : rows * 100 / total,
+                (long) (rows / seconds));
+    }
+}
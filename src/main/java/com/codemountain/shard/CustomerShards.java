@@ -0,0 +1,151 @@
+package com.codemountain.shard;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/*
+The set of customer shards. A customer row lives on the shard encoded
+in its id (id % shard count), an email is registered in the directory
+of the shard its hash points to.
+Scatter queries run one shard on the calling thread and the others on
+a shared executor. It has as many threads as the other shards have
+connections together, so concurrent requests wait for a connection in
+the pool as they would without sharding, not for a free thread.
+ */
+
+public class CustomerShards implements AutoCloseable {
+
+    private static final String MIGRATION_LOCATION = "classpath:db/shard";
+
+    // Hikari's default maximum pool size
+    private static final int DEFAULT_CONNECTIONS_PER_SHARD = 10;
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> jdbcTemplates;
+    private final ExecutorService executor;
+
+    public CustomerShards(List<DataSource> dataSources) {
+        this(dataSources, DEFAULT_CONNECTIONS_PER_SHARD);
+    }
+
+    public CustomerShards(List<DataSource> dataSources, int connectionsPerShard) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.dataSources = List.copyOf(dataSources);
+        this.jdbcTemplates = dataSources.stream().map(JdbcTemplate::new).toList();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, (dataSources.size() - 1) * connectionsPerShard),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "customer-shard-query-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    /*
+    Runs the shard schema migrations, giving each shard its own id offset.
+     */
+    public void migrate() {
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            Flyway.configure()
+                    .dataSource(dataSources.get(shard))
+                    .locations(MIGRATION_LOCATION)
+                    .placeholders(Map.of(
+                            "shardCount", String.valueOf(count()),
+                            "firstId", String.valueOf(count() + shard)
+                    ))
+                    .load()
+                    .migrate();
+        }
+    }
+
+    public List<DataSource> dataSources() {
+        return dataSources;
+    }
+
+    public int count() {
+        return jdbcTemplates.size();
+    }
+
+    public int shardOfId(int id) {
+        return Math.floorMod(id, count());
+    }
+
+    public int shardOfEmail(String email) {
+        // String.hashCode is specified, so every node routes an email the same way
+        return Math.floorMod(email.hashCode(), count());
+    }
+
+    public JdbcTemplate forId(int id) {
+        return jdbcTemplates.get(shardOfId(id));
+    }
+
+    public JdbcTemplate forEmail(String email) {
+        return jdbcTemplates.get(shardOfEmail(email));
+    }
+
+    /*
+    Runs the query on every shard in parallel and returns the results in shard order.
+     */
+    public <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        return scatter(jdbcTemplates, query);
+    }
+
+    /*
+    Runs the query on the given shards in parallel and returns the results in their order.
+     */
+    public <T> List<T> scatter(Collection<JdbcTemplate> shards, Function<JdbcTemplate, T> query) {
+        if (shards.isEmpty()) {
+            return List.of();
+        }
+
+        List<JdbcTemplate> targets = List.copyOf(shards);
+        List<CompletableFuture<T>> futures = new ArrayList<>(targets.size());
+        for (JdbcTemplate jdbcTemplate : targets.subList(1, targets.size())) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(jdbcTemplate), executor));
+        }
+
+        List<T> results = new ArrayList<>(targets.size());
+        try {
+            results.add(query.apply(targets.get(0)));
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ignored) {
+                    // Shutting down, nothing left to do with the pool
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.codemountain.shard;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerQuery;
+import com.codemountain.customer.CustomerQuerySql;
+import com.codemountain.customer.CustomerView;
+import com.codemountain.customer.CustomerRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/*
+CustomerDao spread over several independent Postgres databases.
+New customers are stored on the shard their email hashes to, together
+with the email claim, in one statement. Later email changes only move
+the claim, the row stays on the shard encoded in its id.
+Claims and rows on different shards are not updated atomically: a claim
+is taken before the row changes and released again if that fails.
+ */
+
+public class ShardedCustomerDao implements CustomerDao {
+
+    private final CustomerShards shards;
+    private final CustomerRowMapper rowMapper;
+
+    public ShardedCustomerDao(CustomerShards shards, CustomerRowMapper rowMapper) {
+        this.shards = shards;
+        this.rowMapper = rowMapper;
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomers() {
+        final String sqlQuery = """
+                SELECT id, name, email, age
+                FROM customer
+                ORDER BY id
+                """;
+
+        return mergeById(shards.scatter(jdbcTemplate -> jdbcTemplate.query(sqlQuery, rowMapper)));
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Integer customerId) {
+        final String sqlQuery = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = (?)
+                """;
+
+        return shards.forId(customerId)
+                .query(sqlQuery, rowMapper, customerId)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<CustomerView> selectCustomersByIds(Collection<Integer> customerIds) {
+        final String sqlQuery = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = ANY(?)
+                """;
+
+        // Shards without any of the ids are not queried
+        Map<JdbcTemplate, List<Integer>> idsByShard = new IdentityHashMap<>();
+        for (Integer customerId : customerIds) {
+            idsByShard.computeIfAbsent(shards.forId(customerId), shard -> new ArrayList<>()).add(customerId);
+        }
+
+        return shards.scatter(idsByShard.keySet(), jdbcTemplate -> jdbcTemplate.query(
+                        sqlQuery,
+                        preparedStatement -> preparedStatement.setArray(
+                                1,
+                                preparedStatement.getConnection()
+                                        .createArrayOf("integer", idsByShard.get(jdbcTemplate).toArray())
+                        ),
+                        rowMapper
+                ))
+                .stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    // Every shard returns its first page, the merge keeps the first limit of them
+    @Override
+    public List<CustomerView> selectCustomers(CustomerQuery query) {
+        final CustomerQuerySql querySql = CustomerQuerySql.of(query);
+
+        return shards.scatter(jdbcTemplate -> jdbcTemplate.query(querySql.sql(), rowMapper, querySql.parameters()))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(query.sort().comparator())
+                .limit(query.limit())
+                .toList();
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        // The claim fails with a DuplicateKeyException if the email is taken
+        final String sqlQuery = """
+                WITH claim AS (
+                    INSERT INTO customer_email_directory(email, customer_id)
+                    VALUES (?, nextval('customer_id_seq'))
+                    RETURNING customer_id
+                )
+                INSERT INTO customer(id, name, email, age)
+                SELECT customer_id, ?, ?, ? FROM claim
+                RETURNING id
+                """;
+
+        Integer id = shards.forEmail(customer.getEmail()).queryForObject(
+                sqlQuery,
+                Integer.class,
+                customer.getEmail(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getAge()
+        );
+
+        customer.setId(id);
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        final String sqlQuery = """
+                SELECT exists(SELECT 1 FROM customer_email_directory WHERE email = (?))
+                """;
+
+        return Boolean.TRUE.equals(shards.forEmail(email).queryForObject(sqlQuery, Boolean.class, email));
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Integer customerId) {
+        final String sqlQuery = """
+                SELECT exists(SELECT 1 FROM customer WHERE id = (?))
+                """;
+
+        return Boolean.TRUE.equals(shards.forId(customerId).queryForObject(sqlQuery, Boolean.class, customerId));
+    }
+
+    @Override
+    public void deleteCustomerWithId(Integer customerId) {
+        // Leaves a tombstone on the customer's shard, like CustomerJDBCDataAccessService
+        final String sqlQuery = """
+                WITH deleted AS (
+                    DELETE FROM customer
+                    WHERE id = (?)
+                    RETURNING id, email
+                ), tombstone AS (
+                    INSERT INTO customer_tombstone(customer_id)
+                    SELECT id FROM deleted
+                    ON CONFLICT (customer_id) DO NOTHING
+                )
+                SELECT email FROM deleted
+                """;
+
+        shards.forId(customerId)
+                .queryForList(sqlQuery, String.class, customerId)
+                .forEach(email -> releaseEmail(email, customerId));
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        final String sqlQuery = """
+                UPDATE customer
+                SET name = (?), email = (?), age = (?), updated_at = now()
+                WHERE id = (?)
+                """;
+
+        Integer id = updatedCustomer.getId();
+        String newEmail = updatedCustomer.getEmail();
+        Optional<String> previousEmail = shards.forId(id)
+                .queryForList("SELECT email FROM customer WHERE id = (?)", String.class, id)
+                .stream()
+                .findFirst();
+        boolean emailChanged = previousEmail.isPresent() && !previousEmail.get().equals(newEmail);
+
+        if (emailChanged) {
+            claimEmail(newEmail, id);
+        }
+        try {
+            shards.forId(id).update(
+                    sqlQuery,
+                    updatedCustomer.getName(),
+                    newEmail,
+                    updatedCustomer.getAge(),
+                    id
+            );
+        } catch (RuntimeException e) {
+            if (emailChanged) {
+                releaseEmail(newEmail, id);
+            }
+            throw e;
+        }
+        if (emailChanged) {
+            releaseEmail(previousEmail.get(), id);
+        }
+    }
+
+    private void claimEmail(String email, Integer customerId) {
+        shards.forEmail(email).update(
+                "INSERT INTO customer_email_directory(email, customer_id) VALUES (?, ?)",
+                email,
+                customerId
+        );
+    }
+
+    private void releaseEmail(String email, Integer customerId) {
+        shards.forEmail(email).update(
+                "DELETE FROM customer_email_directory WHERE email = (?) AND customer_id = (?)",
+                email,
+                customerId
+        );
+    }
+
+    /*
+    k-way merge of per-shard lists that are each sorted by id.
+     */
+    static List<CustomerView> mergeById(List<List<CustomerView>> sortedShards) {
+        record Cursor(List<CustomerView> customers, int position) {
+            CustomerView current() {
+                return customers.get(position);
+            }
+        }
+
+        int total = sortedShards.stream().mapToInt(List::size).sum();
+        List<CustomerView> merged = new ArrayList<>(total);
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(
+                Math.max(1, sortedShards.size()),
+                Comparator.comparingInt((Cursor cursor) -> cursor.current().id())
+        );
+        for (List<CustomerView> customers : sortedShards) {
+            if (!customers.isEmpty()) {
+                queue.add(new Cursor(customers, 0));
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            merged.add(cursor.current());
+            if (cursor.position() + 1 < cursor.customers().size()) {
+                queue.add(new Cursor(cursor.customers(), cursor.position() + 1));
+            }
+        }
+        return merged;
+    }
+}
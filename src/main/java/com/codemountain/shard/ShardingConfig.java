@@ -0,0 +1,80 @@
+package com.codemountain.shard;
+
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerJsonStreamer;
+import com.codemountain.customer.CustomerRowMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Stores customers across the configured shards. The sharded DAO also
+carries the jdbc qualifier and is primary, so CustomerService picks it
+up in place of the single database implementation without changes.
+The JSON streamer reads the shards too. Batch operations, bulk imports
+and delta syncs work on the primary database only and are switched off.
+ */
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private final ShardingProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ShardingConfig(ShardingProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public CustomerShards customerShards() {
+        List<DataSource> dataSources = new ArrayList<>();
+        int connectionsPerShard = 0;
+        for (int i = 0; i < properties.shards().size(); i++) {
+            HikariDataSource pool = pool("shard-" + i, properties.shards().get(i));
+            connectionsPerShard = Math.max(connectionsPerShard, pool.getMaximumPoolSize());
+            dataSources.add(pool);
+        }
+
+        CustomerShards customerShards = new CustomerShards(dataSources, connectionsPerShard);
+        customerShards.migrate();
+        return customerShards;
+    }
+
+    @Bean("sharded")
+    @Primary
+    @Qualifier("jdbc")
+    public CustomerDao shardedCustomerDao(CustomerShards customerShards, CustomerRowMapper rowMapper) {
+        return new ShardedCustomerDao(customerShards, rowMapper);
+    }
+
+    @Bean
+    public CustomerJsonStreamer shardedCustomerJsonStreamer(CustomerShards customerShards, ObjectMapper objectMapper) {
+        return new CustomerJsonStreamer(customerShards.dataSources(), objectMapper);
+    }
+
+    private HikariDataSource pool(String name, ShardingProperties.Shard shard) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(shard.url());
+        dataSource.setUsername(shard.username());
+        dataSource.setPassword(shard.password());
+        meterRegistry.ifAvailable(registry ->
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
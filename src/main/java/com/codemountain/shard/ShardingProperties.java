@@ -0,0 +1,25 @@
+package com.codemountain.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/*
+shards: independent Postgres databases holding the customers. The position
+of a shard in this list is encoded in every id it generates, so shards may
+only ever be appended to an empty deployment, never reordered or removed.
+ */
+
+@ConfigurationProperties(prefix = "customer.sharding")
+public record ShardingProperties(
+        boolean enabled,
+        List<Shard> shards
+) {
+
+    public record Shard(
+            String url,
+            String username,
+            String password
+    ) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.codemountain.sql;
+
+/*
+Binds StatementStatistics to the current thread. Statements
+executed while no statistics are bound are not accounted.
+ */
+
+public final class StatementAccounting {
+
+    private static final ThreadLocal<StatementStatistics> CURRENT = new ThreadLocal<>();
+
+    private StatementAccounting() {
+    }
+
+    public static StatementStatistics begin() {
+        StatementStatistics statistics = new StatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static StatementStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+}
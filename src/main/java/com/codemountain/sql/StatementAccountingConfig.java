@@ -0,0 +1,22 @@
+package com.codemountain.sql;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(StatementAccountingProperties.class)
+public class StatementAccountingConfig {
+
+    @Bean
+    public FilterRegistrationBean<StatementAccountingFilter> statementAccountingFilter(
+            StatementAccountingProperties properties) {
+        FilterRegistrationBean<StatementAccountingFilter> registration =
+                new FilterRegistrationBean<>(new StatementAccountingFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,36 @@
+package com.codemountain.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/*
+Routes every DataSource bean through datasource-proxy so the
+statements it executes are accounted and slow ones logged.
+ */
+
+@Component
+public class StatementAccountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<StatementAccountingProperties> properties;
+
+    public StatementAccountingDataSourcePostProcessor(ObjectProvider<StatementAccountingProperties> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new StatementAccountingListener(properties.getObject().slowQueryThreshold()))
+                    .build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,102 @@
+package com.codemountain.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/*
+Accounts the statements issued while handling each request.
+The totals are reported in response headers (added just before
+the body is written) and requests exceeding the statement budget
+are logged so extra queries do not go unnoticed.
+ */
+
+public class StatementAccountingFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Sql-Statement-Count";
+    public static final String STATEMENT_TIME_HEADER = "X-Sql-Time-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(StatementAccountingFilter.class);
+
+    private final StatementAccountingProperties properties;
+
+    public StatementAccountingFilter(StatementAccountingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        StatementStatistics statistics = StatementAccounting.begin();
+        HeaderWritingResponse wrappedResponse = new HeaderWritingResponse(response, statistics);
+        try {
+            filterChain.doFilter(request, wrappedResponse);
+        } finally {
+            wrappedResponse.writeHeaders();
+            StatementAccounting.end();
+
+            if (statistics.getStatementCount() > properties.statementBudget()) {
+                log.warn("{} {} issued {} statements ({} ms), budget is {}",
+                        request.getMethod(),
+                        request.getRequestURI(),
+                        statistics.getStatementCount(),
+                        statistics.getElapsedMillis(),
+                        properties.statementBudget());
+            } else {
+                log.debug("{} {} issued {} statements ({} ms)",
+                        request.getMethod(),
+                        request.getRequestURI(),
+                        statistics.getStatementCount(),
+                        statistics.getElapsedMillis());
+            }
+        }
+    }
+
+    private class HeaderWritingResponse extends HttpServletResponseWrapper {
+
+        private final StatementStatistics statistics;
+        private boolean headersWritten;
+
+        HeaderWritingResponse(HttpServletResponse response, StatementStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted() || !properties.responseHeaders()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(STATEMENT_COUNT_HEADER, String.valueOf(statistics.getStatementCount()));
+            setHeader(STATEMENT_TIME_HEADER, String.valueOf(statistics.getElapsedMillis()));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.codemountain.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+Accounts every executed statement against the statistics bound
+to the current thread and logs statements slower than the
+configured threshold together with their bind parameters.
+ */
+
+public class StatementAccountingListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementAccountingListener.class);
+
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+    private final Duration slowQueryThreshold;
+
+    public StatementAccountingListener(Duration slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        startedAt.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = startedAt.get();
+        startedAt.remove();
+        long elapsed = start == null ? 0 : System.nanoTime() - start;
+
+        StatementStatistics statistics = StatementAccounting.current();
+        if (statistics != null) {
+            statistics.record(elapsed);
+        }
+
+        if (slowQueryThreshold != null && elapsed >= slowQueryThreshold.toNanos()) {
+            log.warn("Slow statement took {} ms: {}", Duration.ofNanos(elapsed).toMillis(), describe(queryInfoList));
+        }
+    }
+
+    private static String describe(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                .map(queryInfo -> queryInfo.getQuery().strip() + " " + parameters(queryInfo))
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String parameters(QueryInfo queryInfo) {
+        return queryInfo.getParametersList()
+                .stream()
+                .map(parameterSet -> parameterSet.stream()
+                        .map(ParameterSetOperation::getArgs)
+                        .map(args -> args.length > 1 ? String.valueOf(args[1]) : "?")
+                        .collect(Collectors.joining(", ", "[", "]")))
+                .collect(Collectors.joining(" "));
+    }
+}
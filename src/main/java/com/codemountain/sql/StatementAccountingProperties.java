@@ -0,0 +1,19 @@
+package com.codemountain.sql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+slowQueryThreshold: statements taking at least this long are logged with their bind parameters.
+statementBudget: requests issuing more statements than this are logged as suspicious.
+responseHeaders: whether to report the statistics in X-Sql-* response headers.
+ */
+
+@ConfigurationProperties(prefix = "customer.sql")
+public record StatementAccountingProperties(
+        Duration slowQueryThreshold,
+        int statementBudget,
+        boolean responseHeaders
+) {
+}
@@ -0,0 +1,35 @@
+package com.codemountain.sql;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Number of statements executed and the time spent executing
+them, accumulated for a single unit of work (usually a request).
+ */
+
+public class StatementStatistics {
+
+    private int statementCount;
+    private long elapsedNanos;
+
+    void record(long nanos) {
+        statementCount++;
+        elapsedNanos += nanos;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "StatementStatistics{" +
+                "statementCount=" + statementCount +
+                ", elapsedMillis=" + getElapsedMillis() +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package com.codemountain.sync;
+
+import com.codemountain.customer.CustomerView;
+
+import java.util.List;
+
+/*
+One page of a delta sync. nextToken is passed as since on the next
+request; while hasMore is set the client should ask again right away.
+ */
+
+public record CustomerChanges(
+        List<CustomerView> changed,
+        List<Integer> deletedIds,
+        String nextToken,
+        boolean hasMore
+) {
+}
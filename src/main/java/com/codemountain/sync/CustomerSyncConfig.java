@@ -0,0 +1,51 @@
+package com.codemountain.sync;
+
+import com.codemountain.customer.CustomerRowMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/*
+Sync tokens are positions in the transaction id order of one database.
+Every shard has its own, so delta sync is not offered with sharding.
+ */
+
+@Configuration
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@EnableScheduling
+@EnableConfigurationProperties(CustomerSyncProperties.class)
+public class CustomerSyncConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSyncConfig.class);
+
+    private final CustomerSyncProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerRowMapper rowMapper;
+
+    public CustomerSyncConfig(CustomerSyncProperties properties,
+                              JdbcTemplate jdbcTemplate,
+                              CustomerRowMapper rowMapper) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rowMapper = rowMapper;
+    }
+
+    @Bean
+    public CustomerSyncService customerSyncService() {
+        return new CustomerSyncService(jdbcTemplate, rowMapper, properties);
+    }
+
+    @Scheduled(fixedDelayString = "${customer.sync.compaction-interval}")
+    public void compactTombstones() {
+        int compacted = customerSyncService().compactTombstones();
+        if (compacted > 0) {
+            log.debug("Compacted {} customer tombstones", compacted);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.codemountain.sync;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/*
+Lets clients keep a copy of the customer list current by fetching
+only what changed since their last sync. Without since, the sync
+starts from scratch and returns every customer.
+Not mapped when sharding is enabled, see CustomerSyncConfig.
+ */
+
+@RestController
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@RequestMapping(path = "api/v1/customers/changes")
+public class CustomerSyncController {
+
+    private final CustomerSyncService customerSyncService;
+
+    public CustomerSyncController(CustomerSyncService customerSyncService) {
+        this.customerSyncService = customerSyncService;
+    }
+
+    @GetMapping
+    public CustomerChanges getChanges(@RequestParam(name = "since", required = false) String since,
+                                      @RequestParam(name = "limit", required = false) Integer limit) {
+        return customerSyncService.getChanges(since, limit);
+    }
+}
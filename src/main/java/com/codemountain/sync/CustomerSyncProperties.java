@@ -0,0 +1,22 @@
+package com.codemountain.sync;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+pageSize: changes returned per request when the client does not ask for a limit.
+maxPageSize: upper bound for the limit a client can ask for.
+tombstoneRetention: how long deletions are kept. Older tokens can no
+longer be synced and the client has to start over.
+compactionInterval: how often tombstones past the retention are deleted.
+ */
+
+@ConfigurationProperties(prefix = "customer.sync")
+public record CustomerSyncProperties(
+        int pageSize,
+        int maxPageSize,
+        Duration tombstoneRetention,
+        Duration compactionInterval
+) {
+}
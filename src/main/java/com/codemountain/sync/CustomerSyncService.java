@@ -0,0 +1,187 @@
+package com.codemountain.sync;
+
+import com.codemountain.customer.CustomerRowMapper;
+import com.codemountain.customer.CustomerView;
+import com.codemountain.exception.SyncTokenExpiredException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Delta syncs over customer and customer_tombstone, keyset paged on
+(xact_id, id) so every page is an index range scan.
+xact_id is the id of the writing transaction, which can commit long
+after later ids are already visible. A page therefore ends below the
+xmin of the current snapshot, the oldest transaction id still running,
+and a token never moves past a change that could still appear.
+Transactions only get an id once they write, so long reads and idle
+sessions do not hold syncs back; a long transaction writing to any
+table of the database still does while it runs.
+ */
+
+public class CustomerSyncService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerRowMapper rowMapper;
+    private final CustomerSyncProperties properties;
+
+    public CustomerSyncService(JdbcTemplate jdbcTemplate,
+                               CustomerRowMapper rowMapper,
+                               CustomerSyncProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rowMapper = rowMapper;
+        this.properties = properties;
+    }
+
+    public CustomerChanges getChanges(String since, Integer limit) {
+        // A full sync has nothing to delete yet, so tombstones are only read for deltas
+        final CustomerSyncToken from = since == null || since.isBlank()
+                ? null
+                : CustomerSyncToken.decode(since);
+
+        if (from != null && from.issuedAt().isBefore(Instant.now().minus(properties.tombstoneRetention()))) {
+            throw new SyncTokenExpiredException(
+                    "Sync token is older than %s, start over without since.".formatted(properties.tombstoneRetention())
+            );
+        }
+
+        final int pageSize = limit == null
+                ? properties.pageSize()
+                : Math.max(1, Math.min(limit, properties.maxPageSize()));
+        final Watermark watermark = watermark();
+
+        final List<Change> changes = from == null
+                ? selectUpdates(watermark.xactId(), pageSize + 1)
+                : selectChanges(from, watermark.xactId(), pageSize + 1);
+
+        final boolean hasMore = changes.size() > pageSize;
+        final List<Change> page = hasMore ? changes.subList(0, pageSize) : changes;
+
+        final List<CustomerView> changed = new ArrayList<>();
+        final List<Integer> deletedIds = new ArrayList<>();
+        for (Change change : page) {
+            if (change.customer() != null) {
+                changed.add(change.customer());
+            } else {
+                deletedIds.add(change.customerId());
+            }
+        }
+
+        // Everything below the bound has been returned, so an exhausted sync continues from there
+        final Instant issuedAt = watermark.issuedAt();
+        final CustomerSyncToken next;
+        if (hasMore) {
+            next = page.get(page.size() - 1).token(issuedAt);
+        } else if (from == null || watermark.xactId() > from.xactId()) {
+            next = new CustomerSyncToken(watermark.xactId(), 0, issuedAt);
+        } else {
+            next = new CustomerSyncToken(from.xactId(), from.customerId(), issuedAt);
+        }
+        return new CustomerChanges(changed, deletedIds, next.encode(), hasMore);
+    }
+
+    public int compactTombstones() {
+        final String sqlQuery = """
+                DELETE FROM customer_tombstone
+                WHERE deleted_at < now() - (?) * INTERVAL '1 millisecond'
+                """;
+
+        return jdbcTemplate.update(sqlQuery, properties.tombstoneRetention().toMillis());
+    }
+
+    /*
+    Tombstones are written with the start time of their transaction, so
+    a token is issued no later than the start of the oldest transaction
+    still writing, and expires before any tombstone it has not seen.
+    pg_stat_activity shows the sessions of the application's own user.
+     */
+    private Watermark watermark() {
+        final String sqlQuery = """
+                SELECT pg_snapshot_xmin(pg_current_snapshot())::text,
+                       least(
+                           clock_timestamp(),
+                           (SELECT min(xact_start)
+                            FROM pg_stat_activity
+                            WHERE datname = current_database()
+                              AND backend_xid IS NOT NULL)
+                       )
+                """;
+
+        return jdbcTemplate.queryForObject(
+                sqlQuery,
+                (resultSet, rowNum) -> new Watermark(
+                        Long.parseLong(resultSet.getString(1)),
+                        resultSet.getObject(2, OffsetDateTime.class).toInstant()
+                )
+        );
+    }
+
+    private List<Change> selectUpdates(long settledBelow, int limit) {
+        final String sqlQuery = """
+                SELECT id, name, email, age, xact_id
+                FROM customer
+                WHERE xact_id < CAST(? AS xid8)
+                ORDER BY xact_id, id
+                LIMIT ?
+                """;
+
+        return jdbcTemplate.query(
+                sqlQuery,
+                (resultSet, rowNum) -> new Change(
+                        resultSet.getInt(1),
+                        rowMapper.mapRow(resultSet, rowNum),
+                        Long.parseLong(resultSet.getString(5))
+                ),
+                String.valueOf(settledBelow), limit
+        );
+    }
+
+    private List<Change> selectChanges(CustomerSyncToken from, long settledBelow, int limit) {
+        // Each side is limited on its own index before the two are merged
+        final String sqlQuery = """
+                (SELECT id, name, email, age, xact_id, false AS deleted
+                 FROM customer
+                 WHERE (xact_id, id) > (CAST(? AS xid8), ?)
+                   AND xact_id < CAST(? AS xid8)
+                 ORDER BY xact_id, id
+                 LIMIT ?)
+                UNION ALL
+                (SELECT customer_id, NULL, NULL, NULL, xact_id, true
+                 FROM customer_tombstone
+                 WHERE (xact_id, customer_id) > (CAST(? AS xid8), ?)
+                   AND xact_id < CAST(? AS xid8)
+                 ORDER BY xact_id, customer_id
+                 LIMIT ?)
+                ORDER BY 5, 1
+                LIMIT ?
+                """;
+
+        final String xactId = String.valueOf(from.xactId());
+        final String bound = String.valueOf(settledBelow);
+        return jdbcTemplate.query(
+                sqlQuery,
+                (resultSet, rowNum) -> new Change(
+                        resultSet.getInt(1),
+                        resultSet.getBoolean(6) ? null : rowMapper.mapRow(resultSet, rowNum),
+                        Long.parseLong(resultSet.getString(5))
+                ),
+                xactId, from.customerId(), bound, limit,
+                xactId, from.customerId(), bound, limit,
+                limit
+        );
+    }
+
+    private record Watermark(long xactId, Instant issuedAt) {
+    }
+
+    // customer is null for deletions
+    private record Change(int customerId, CustomerView customer, long xactId) {
+
+        CustomerSyncToken token(Instant issuedAt) {
+            return new CustomerSyncToken(xactId, customerId, issuedAt);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.codemountain.sync;
+
+import com.codemountain.exception.RequestValidationException;
+import com.codemountain.exception.SyncTokenExpiredException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/*
+Position of a client in the (xact_id, id) order of changes, and
+when it was handed out. Deletions the client still has to hear about
+happened after issuedAt, so the token expires with the tombstones.
+Sent as an opaque string; times are kept to the microsecond, the
+precision of a Postgres timestamp. Positions are marked with an x,
+tokens from the former (updated_at, id) order have no mark and are
+treated as expired.
+ */
+
+record CustomerSyncToken(long xactId, int customerId, Instant issuedAt) {
+
+    private static final String XACT_MARK = "x";
+
+    String encode() {
+        String position = XACT_MARK + xactId + ":" + customerId + ":" + micros(issuedAt);
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static CustomerSyncToken decode(String token) {
+        String[] position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("Invalid sync token [%s].".formatted(token));
+        }
+        if (position.length == 3 && !position[0].startsWith(XACT_MARK) && isNumber(position[0])) {
+            throw new SyncTokenExpiredException("Sync token is from an earlier version, start over without since.");
+        }
+        try {
+            if (!position[0].startsWith(XACT_MARK)) {
+                throw new IllegalArgumentException();
+            }
+            return new CustomerSyncToken(
+                    Long.parseLong(position[0].substring(XACT_MARK.length())),
+                    Integer.parseInt(position[1]),
+                    instant(Long.parseLong(position[2]))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RequestValidationException("Invalid sync token [%s].".formatted(token));
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+
+    private static long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static Instant instant(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,56 @@
+package com.codemountain.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Opens as many connections as the pool may hold at the same time
+so the first requests do not pay for connection establishment.
+ */
+
+@Component
+public class ConnectionPoolWarmupTask implements WarmupTask {
+
+    private final DataSource dataSource;
+    private final WarmupProperties properties;
+
+    public ConnectionPoolWarmupTask(DataSource dataSource, WarmupProperties properties) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    @Override
+    public String name() {
+        return "connection-pool";
+    }
+
+    @Override
+    public void warmUp(Instant deadline) throws SQLException {
+        int connections = dataSource.isWrapperFor(HikariDataSource.class)
+                ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                : properties.threads();
+
+        List<Connection> borrowed = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections && Instant.now().isBefore(deadline); i++) {
+                Connection connection = dataSource.getConnection();
+                borrowed.add(connection);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+            }
+        } finally {
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+    }
+}
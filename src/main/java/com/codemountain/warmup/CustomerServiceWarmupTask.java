@@ -0,0 +1,67 @@
+package com.codemountain.warmup;
+
+import com.codemountain.customer.CustomerService;
+import com.codemountain.exception.ResourceNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+Runs the id lookup path through CustomerService from several
+threads. This gets the JIT going on the service and DAO code and,
+since every pooled connection executes the query repeatedly, lets
+pgjdbc switch each of them to a server-side prepared statement.
+ */
+
+@Component
+public class CustomerServiceWarmupTask implements WarmupTask {
+
+    private final CustomerService customerService;
+    private final WarmupProperties properties;
+
+    public CustomerServiceWarmupTask(CustomerService customerService, WarmupProperties properties) {
+        this.customerService = customerService;
+        this.properties = properties;
+    }
+
+    @Override
+    public String name() {
+        return "customer-service";
+    }
+
+    @Override
+    public void warmUp(Instant deadline) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(properties.threads());
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < properties.threads(); i++) {
+                workers.add(executor.submit(() -> lookUpSampleIds(deadline)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void lookUpSampleIds(Instant deadline) {
+        for (int iteration = 0; iteration < properties.iterations(); iteration++) {
+            for (int id = 1; id <= properties.sampleIds(); id++) {
+                if (Instant.now().isAfter(deadline)) {
+                    return;
+                }
+                try {
+                    customerService.getCustomer(id);
+                } catch (ResourceNotFoundException e) {
+                    // Missing ids exercise the not found path
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.codemountain.warmup;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+
+/*
+Sends id lookups to the customer API over loopback so Tomcat,
+the filter chain, CustomerController and the Jackson serializers
+are warm before real traffic arrives.
+ */
+
+@Component
+public class HttpWarmupTask implements WarmupTask {
+
+    private final ObjectProvider<WebServerApplicationContext> webServerContext;
+    private final WarmupProperties properties;
+
+    public HttpWarmupTask(ObjectProvider<WebServerApplicationContext> webServerContext, WarmupProperties properties) {
+        this.webServerContext = webServerContext;
+        this.properties = properties;
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void warmUp(Instant deadline) throws Exception {
+        WebServerApplicationContext context = webServerContext.getIfAvailable();
+        if (context == null || context.getWebServer() == null) {
+            return;
+        }
+
+        String customersUri = "http://localhost:" + context.getWebServer().getPort() + "/api/v1/customers/";
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+
+        for (int iteration = 0; iteration < properties.iterations(); iteration++) {
+            for (int id = 1; id <= properties.sampleIds(); id++) {
+                if (Instant.now().isAfter(deadline)) {
+                    return;
+                }
+                HttpRequest request = HttpRequest.newBuilder(URI.create(customersUri + id))
+                        .timeout(Duration.ofSeconds(5))
+                        .GET()
+                        .build();
+                httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.codemountain.warmup;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Tells whether WarmupRunner is running. The customer caches are bypassed
+meanwhile: warm-up looks up a fixed set of synthetic ids, which would
+otherwise fill them with customers real traffic may never ask for and
+let the lookups measure cache hits instead of the service and database.
+Readiness is still DOWN during warm-up, so no real request is affected.
+ */
+
+public final class WarmupPhase {
+
+    // A count rather than a flag, several application contexts may share the JVM, e.g. in tests
+    private static final AtomicInteger RUNNING = new AtomicInteger();
+
+    private WarmupPhase() {
+    }
+
+    public static boolean isRunning() {
+        return RUNNING.get() > 0;
+    }
+
+    static void begin() {
+        RUNNING.incrementAndGet();
+    }
+
+    static void end() {
+        RUNNING.decrementAndGet();
+    }
+}
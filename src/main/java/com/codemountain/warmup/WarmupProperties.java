@@ -0,0 +1,22 @@
+package com.codemountain.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/*
+timeout: readiness is reported after this long even if warm-up has not finished.
+iterations: how often each warm-up thread repeats the synthetic read paths.
+sampleIds: customer ids 1..sampleIds are used for the synthetic lookups.
+threads: concurrent warm-up threads, at least the pool size so every connection prepares its statements.
+ */
+
+@ConfigurationProperties(prefix = "customer.warmup")
+public record WarmupProperties(
+        boolean enabled,
+        Duration timeout,
+        int iterations,
+        int sampleIds,
+        int threads
+) {
+}
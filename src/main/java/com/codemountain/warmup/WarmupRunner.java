@@ -0,0 +1,124 @@
+package com.codemountain.warmup;
+
+import com.codemountain.customer.CustomerService;
+import com.codemountain.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+Runs every WarmupTask before the application reports itself ready.
+Spring Boot only switches readiness to ACCEPTING_TRAFFIC once all
+ApplicationRunners have returned, so blocking here keeps the
+readiness probe DOWN until warm-up has finished or timed out.
+The customer caches are bypassed throughout, see WarmupPhase.
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "customer.warmup", name = "enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final int LATENCY_SAMPLES = 200;
+
+    private final List<WarmupTask> tasks;
+    private final CustomerService customerService;
+    private final WarmupProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public WarmupRunner(List<WarmupTask> tasks,
+                        CustomerService customerService,
+                        WarmupProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.tasks = tasks;
+        this.customerService = customerService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        WarmupPhase.begin();
+        try {
+            warmUp();
+        } finally {
+            WarmupPhase.end();
+        }
+    }
+
+    private void warmUp() throws InterruptedException {
+        long start = System.nanoTime();
+        Instant deadline = Instant.now().plus(properties.timeout());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> warmup = executor.submit(() -> runTasks(deadline));
+            warmup.get(properties.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Warm-up did not finish within {}, accepting traffic anyway", properties.timeout());
+        } catch (ExecutionException e) {
+            log.warn("Warm-up failed, accepting traffic anyway", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        meterRegistry.timer("customer.warmup.duration").record(duration);
+        log.info("Warm-up took {} ms", duration.toMillis());
+        reportLatency();
+    }
+
+    private void runTasks(Instant deadline) {
+        for (WarmupTask task : tasks) {
+            long start = System.nanoTime();
+            try {
+                task.warmUp(deadline);
+                log.info("Warm-up task '{}' took {} ms", task.name(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                log.warn("Warm-up task '{}' failed", task.name(), e);
+            }
+        }
+    }
+
+    private void reportLatency() {
+        long[] samples = new long[LATENCY_SAMPLES];
+        for (int i = 0; i < LATENCY_SAMPLES; i++) {
+            int id = 1 + i % Math.max(1, properties.sampleIds());
+            long start = System.nanoTime();
+            try {
+                customerService.getCustomer(id);
+            } catch (ResourceNotFoundException e) {
+                // Still a complete round trip
+            }
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        log.info("Post warm-up uncached getCustomer latency: p50={} us, p99={} us, max={} us",
+                TimeUnit.NANOSECONDS.toMicros(samples[LATENCY_SAMPLES / 2]),
+                TimeUnit.NANOSECONDS.toMicros(samples[LATENCY_SAMPLES * 99 / 100]),
+                TimeUnit.NANOSECONDS.toMicros(samples[LATENCY_SAMPLES - 1]));
+    }
+
+    @Override
+    public int getOrder() {
+        // After other runners, e.g. seeding, so warm-up sees the final data
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
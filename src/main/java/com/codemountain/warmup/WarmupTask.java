@@ -0,0 +1,15 @@
+package com.codemountain.warmup;
+
+import java.time.Instant;
+
+/*
+A unit of work run before the instance reports itself ready.
+Tasks should stop early once the deadline has passed.
+ */
+
+public interface WarmupTask {
+
+    String name();
+
+    void warmUp(Instant deadline) throws Exception;
+}
@@ -0,0 +1,71 @@
+-- Hash partitions customer on id.
+-- A unique index on a table partitioned by id cannot cover email, so email
+-- uniqueness moves to the customer_email lookup table, kept in sync by a trigger.
+-- Large tables should be migrated online with db/online/partition_customer_online.sql
+-- beforehand, in which case customer is already partitioned and this migration only
+-- makes sure the sync trigger exists.
+
+CREATE OR REPLACE FUNCTION customer_email_sync() RETURNS trigger AS $f$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO customer_email(email, customer_id) VALUES (NEW.email, NEW.id);
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF NEW.email <> OLD.email THEN
+            DELETE FROM customer_email WHERE email = OLD.email;
+            INSERT INTO customer_email(email, customer_id) VALUES (NEW.email, NEW.id);
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        DELETE FROM customer_email WHERE email = OLD.email;
+    END IF;
+    RETURN NULL;
+END
+$f$ LANGUAGE plpgsql;
+
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'customer'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+
+    CREATE TABLE customer_partitioned(
+        id INT NOT NULL DEFAULT nextval('customer_id_seq'),
+        name TEXT NOT NULL,
+        email TEXT NOT NULL,
+        age INT NOT NULL,
+        CONSTRAINT customer_partitioned_pkey PRIMARY KEY (id)
+    ) PARTITION BY HASH (id);
+
+    FOR remainder IN 0..7 LOOP
+        EXECUTE format(
+            'CREATE TABLE customer_p%s PARTITION OF customer_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER %s)',
+            remainder, remainder
+        );
+    END LOOP;
+
+    CREATE TABLE customer_email(
+        email TEXT NOT NULL,
+        customer_id INT NOT NULL,
+        CONSTRAINT customer_email_pkey PRIMARY KEY (email)
+    );
+
+    INSERT INTO customer_partitioned(id, name, email, age)
+    SELECT id, name, email, age FROM customer;
+
+    INSERT INTO customer_email(email, customer_id)
+    SELECT email, id FROM customer;
+
+    -- Keep the sequence when the SERIAL column that owns it is dropped
+    ALTER SEQUENCE customer_id_seq OWNED BY NONE;
+    DROP TABLE customer;
+
+    ALTER TABLE customer_partitioned RENAME TO customer;
+    ALTER TABLE customer RENAME CONSTRAINT customer_partitioned_pkey TO customer_pkey;
+    ALTER TABLE customer_email RENAME CONSTRAINT customer_email_pkey TO customer_email_unique;
+    ALTER SEQUENCE customer_id_seq OWNED BY customer.id;
+END
+$$;
+
+DROP TRIGGER IF EXISTS customer_email_sync ON customer;
+CREATE TRIGGER customer_email_sync
+    AFTER INSERT OR UPDATE OF email OR DELETE ON customer
+    FOR EACH ROW EXECUTE FUNCTION customer_email_sync();
@@ -0,0 +1,39 @@
+-- Publishes the ids changed by every statement on the customer_changes channel,
+-- so each customer-api node can evict its cached rows. Payload format:
+--     <sent at, epoch millis>;<id>,<id>,...
+-- Statements touching more than 500 rows send * instead of the ids to stay
+-- below the 8000 byte payload limit, receivers then drop everything.
+-- Notifications are only delivered when the transaction commits.
+CREATE FUNCTION customer_notify_changes() RETURNS trigger AS $f$
+DECLARE
+    changed_ids TEXT;
+BEGIN
+    SELECT CASE WHEN count(*) > 500 THEN '*' ELSE string_agg(id::TEXT, ',') END
+    INTO changed_ids
+    FROM changed_rows;
+
+    IF changed_ids IS NOT NULL THEN
+        PERFORM pg_notify(
+            'customer_changes',
+            floor(extract(EPOCH FROM clock_timestamp()) * 1000)::BIGINT || ';' || changed_ids
+        );
+    END IF;
+    RETURN NULL;
+END
+$f$ LANGUAGE plpgsql;
+
+-- Transition tables allow only one event per trigger
+CREATE TRIGGER customer_notify_insert
+    AFTER INSERT ON customer
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_notify_changes();
+
+CREATE TRIGGER customer_notify_update
+    AFTER UPDATE ON customer
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_notify_changes();
+
+CREATE TRIGGER customer_notify_delete
+    AFTER DELETE ON customer
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_notify_changes();
@@ -0,0 +1,15 @@
+-- Outcomes of customer writes sent with an Idempotency-Key header,
+-- replayed when the client retries. status is NULL while the first
+-- request is still running. Rows are purged once older than the ttl.
+CREATE TABLE idempotency_key(
+    idempotency_key TEXT PRIMARY KEY,
+    fingerprint TEXT NOT NULL,
+    status INT,
+    content_type TEXT,
+    body BYTEA,
+    sent_error BOOLEAN NOT NULL DEFAULT false,
+    error_message TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idempotency_key_created_at_idx ON idempotency_key(created_at);
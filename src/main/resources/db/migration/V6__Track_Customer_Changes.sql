@@ -0,0 +1,17 @@
+-- Change tracking for delta syncs, see CustomerSyncService.
+-- updated_at is set to the writing transaction's start time by every write,
+-- deletions leave a tombstone that is compacted once older than the
+-- tombstone retention. A constant default makes adding the column a catalog
+-- only change, existing rows count as changed at migration time.
+ALTER TABLE customer
+    ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+-- Keyset order of the sync, created on every partition
+CREATE INDEX customer_updated_at_id_idx ON customer(updated_at, id);
+
+CREATE TABLE customer_tombstone(
+    customer_id INT PRIMARY KEY,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX customer_tombstone_deleted_at_id_idx ON customer_tombstone(deleted_at, customer_id);
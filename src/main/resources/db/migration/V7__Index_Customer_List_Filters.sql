@@ -0,0 +1,10 @@
+-- Indexes for the filtered and sorted customer list, see CustomerQuerySql.
+-- Every index ends in id, the tie breaker of the keyset, so a page is one
+-- range scan per partition in the requested order.
+-- Names sort and match by code point (ucs_basic), which lets the same
+-- index serve both ORDER BY name and name prefixes (LIKE 'prefix%').
+CREATE INDEX customer_name_id_idx ON customer(name COLLATE ucs_basic, id);
+
+CREATE INDEX customer_age_id_idx ON customer(age, id);
+
+CREATE INDEX customer_email_domain_id_idx ON customer((lower(split_part(email, '@', 2))), id);
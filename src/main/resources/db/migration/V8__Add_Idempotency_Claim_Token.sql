@@ -0,0 +1,3 @@
+-- Identifies the request holding a claim, so that a request whose
+-- claim was taken over can no longer complete or release the key.
+ALTER TABLE idempotency_key ADD COLUMN claim_token UUID;
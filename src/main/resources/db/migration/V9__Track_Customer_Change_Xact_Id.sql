@@ -0,0 +1,33 @@
+-- Orders delta syncs by the id of the writing transaction, see
+-- CustomerSyncService. Every transaction that writes from now on gets a
+-- higher id than the oldest one still running, so a sync can stop below
+-- pg_snapshot_xmin and never skip a change that commits later.
+-- The constant default keeps adding the columns a catalog only change,
+-- existing rows and tombstones sort first. New rows take the id of their
+-- transaction from the default, updates from the trigger.
+ALTER TABLE customer
+    ADD COLUMN xact_id xid8 NOT NULL DEFAULT '0';
+ALTER TABLE customer
+    ALTER COLUMN xact_id SET DEFAULT pg_current_xact_id();
+
+ALTER TABLE customer_tombstone
+    ADD COLUMN xact_id xid8 NOT NULL DEFAULT '0';
+ALTER TABLE customer_tombstone
+    ALTER COLUMN xact_id SET DEFAULT pg_current_xact_id();
+
+CREATE FUNCTION customer_set_xact_id() RETURNS trigger AS $f$
+BEGIN
+    NEW.xact_id := pg_current_xact_id();
+    RETURN NEW;
+END
+$f$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_set_xact_id
+    BEFORE UPDATE ON customer
+    FOR EACH ROW EXECUTE FUNCTION customer_set_xact_id();
+
+-- Keyset order of the sync, replacing the one on updated_at
+CREATE INDEX customer_xact_id_id_idx ON customer(xact_id, id);
+DROP INDEX customer_updated_at_id_idx;
+
+CREATE INDEX customer_tombstone_xact_id_id_idx ON customer_tombstone(xact_id, customer_id);
@@ -0,0 +1,139 @@
+-- Online migration of an existing, large customer table to the hash partitioned
+-- layout of V3__Partition_Customer_By_Id_Hash.sql. Run with psql against the
+-- primary before deploying the release containing V3:
+--
+--     psql -v ON_ERROR_STOP=1 -f partition_customer_online.sql
+--
+-- Writes keep flowing while the rows are copied: a trigger mirrors every change
+-- on the old table into the new one and the backfill commits in small batches.
+-- Only the final swap takes a short exclusive lock.
+
+-- 1. New partitioned table and email lookup table
+CREATE TABLE customer_partitioned(
+    id INT NOT NULL DEFAULT nextval('customer_id_seq'),
+    name TEXT NOT NULL,
+    email TEXT NOT NULL,
+    age INT NOT NULL,
+    CONSTRAINT customer_partitioned_pkey PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+DO $$
+BEGIN
+    FOR remainder IN 0..7 LOOP
+        EXECUTE format(
+            'CREATE TABLE customer_p%s PARTITION OF customer_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER %s)',
+            remainder, remainder
+        );
+    END LOOP;
+END
+$$;
+
+CREATE TABLE customer_email(
+    email TEXT NOT NULL,
+    customer_id INT NOT NULL,
+    CONSTRAINT customer_email_pkey PRIMARY KEY (email)
+);
+
+-- 2. Mirror ongoing writes on the old table.
+-- Upserts, since the backfill may have copied the row already. The old table's
+-- unique constraint is authoritative for emails, so the mirror takes an email over
+-- from whatever row held it in customer_email.
+CREATE FUNCTION customer_partition_mirror() RETURNS trigger AS $f$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM customer_partitioned WHERE id = OLD.id;
+        DELETE FROM customer_email WHERE email = OLD.email AND customer_id = OLD.id;
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'UPDATE' AND NEW.email <> OLD.email THEN
+        DELETE FROM customer_email WHERE email = OLD.email AND customer_id = OLD.id;
+    END IF;
+    INSERT INTO customer_partitioned(id, name, email, age)
+    VALUES (NEW.id, NEW.name, NEW.email, NEW.age)
+    ON CONFLICT (id) DO UPDATE
+        SET name = EXCLUDED.name, email = EXCLUDED.email, age = EXCLUDED.age;
+    INSERT INTO customer_email(email, customer_id)
+    VALUES (NEW.email, NEW.id)
+    ON CONFLICT (email) DO UPDATE
+        SET customer_id = EXCLUDED.customer_id;
+    RETURN NULL;
+END
+$f$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_partition_mirror
+    AFTER INSERT OR UPDATE OR DELETE ON customer
+    FOR EACH ROW EXECUTE FUNCTION customer_partition_mirror();
+
+-- 3. Backfill existing rows in batches, committing after each one.
+-- FOR SHARE reads the current version of every row and skips rows deleted since
+-- the batch started, and keeps them from changing until the batch commits; their
+-- writers then go through the mirror. Rows the mirror already wrote are skipped,
+-- and emails are only taken from the rows this batch copied.
+-- Safe to CALL again if a batch fails, for example on a deadlock with a writer.
+CREATE PROCEDURE customer_partition_backfill(batch_size INT) AS $p$
+DECLARE
+    last_id INT := 0;
+    max_id INT;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM customer;
+    WHILE last_id < max_id LOOP
+        WITH batch AS (
+            SELECT id, name, email, age FROM customer
+            WHERE id > last_id AND id <= last_id + batch_size
+            FOR SHARE
+        ), copied AS (
+            INSERT INTO customer_partitioned(id, name, email, age)
+            SELECT id, name, email, age FROM batch
+            ON CONFLICT (id) DO NOTHING
+            RETURNING id, email
+        )
+        INSERT INTO customer_email(email, customer_id)
+        SELECT email, id FROM copied
+        ON CONFLICT (email) DO NOTHING;
+
+        last_id := last_id + batch_size;
+        COMMIT;
+    END LOOP;
+END
+$p$ LANGUAGE plpgsql;
+
+CALL customer_partition_backfill(50000);
+ANALYZE customer_partitioned;
+ANALYZE customer_email;
+
+-- 4. Swap the tables under a short exclusive lock. customer_email_sync is the
+-- same trigger V3__Partition_Customer_By_Id_Hash.sql creates, installed here so
+-- writes between the swap and the deployment of V3 keep emails unique.
+BEGIN;
+LOCK TABLE customer IN ACCESS EXCLUSIVE MODE;
+DROP TRIGGER customer_partition_mirror ON customer;
+ALTER SEQUENCE customer_id_seq OWNED BY NONE;
+DROP TABLE customer;
+ALTER TABLE customer_partitioned RENAME TO customer;
+ALTER TABLE customer RENAME CONSTRAINT customer_partitioned_pkey TO customer_pkey;
+ALTER TABLE customer_email RENAME CONSTRAINT customer_email_pkey TO customer_email_unique;
+ALTER SEQUENCE customer_id_seq OWNED BY customer.id;
+
+CREATE OR REPLACE FUNCTION customer_email_sync() RETURNS trigger AS $f$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO customer_email(email, customer_id) VALUES (NEW.email, NEW.id);
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF NEW.email <> OLD.email THEN
+            DELETE FROM customer_email WHERE email = OLD.email;
+            INSERT INTO customer_email(email, customer_id) VALUES (NEW.email, NEW.id);
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        DELETE FROM customer_email WHERE email = OLD.email;
+    END IF;
+    RETURN NULL;
+END
+$f$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_email_sync
+    AFTER INSERT OR UPDATE OF email OR DELETE ON customer
+    FOR EACH ROW EXECUTE FUNCTION customer_email_sync();
+COMMIT;
+
+DROP PROCEDURE customer_partition_backfill(INT);
+DROP FUNCTION customer_partition_mirror();
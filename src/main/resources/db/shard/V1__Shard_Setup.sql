@@ -0,0 +1,19 @@
+-- Schema of a single customer shard, migrated on every shard by CustomerShards.
+-- The id sequence starts at the shard's own offset and steps by the shard count,
+-- so ids are unique across shards and id % ${shardCount} is the owning shard.
+CREATE SEQUENCE customer_id_seq START WITH ${firstId} INCREMENT BY ${shardCount};
+
+CREATE TABLE customer(
+    id INT PRIMARY KEY DEFAULT nextval('customer_id_seq'),
+    name TEXT NOT NULL,
+    email TEXT NOT NULL,
+    age INT NOT NULL
+);
+ALTER SEQUENCE customer_id_seq OWNED BY customer.id;
+
+-- Emails that hash to this shard, wherever their customer row lives
+CREATE TABLE customer_email_directory(
+    email TEXT NOT NULL,
+    customer_id INT NOT NULL,
+    CONSTRAINT customer_email_unique PRIMARY KEY (email)
+);
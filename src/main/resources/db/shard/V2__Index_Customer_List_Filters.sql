@@ -0,0 +1,7 @@
+-- Same indexes as db/migration/V7__Index_Customer_List_Filters.sql,
+-- the sharded DAO runs the same list queries on every shard.
+CREATE INDEX customer_name_id_idx ON customer(name COLLATE ucs_basic, id);
+
+CREATE INDEX customer_age_id_idx ON customer(age, id);
+
+CREATE INDEX customer_email_domain_id_idx ON customer((lower(split_part(email, '@', 2))), id);
@@ -0,0 +1,35 @@
+-- Change tracking on every shard, the same columns, tombstones, trigger and
+-- indexes db/migration/V6__Track_Customer_Changes.sql and
+-- V9__Track_Customer_Change_Xact_Id.sql give the single database, so the
+-- sharded DAO leaves the same trail of writes and deletions.
+-- Transaction ids are per shard, the columns are not comparable across shards.
+ALTER TABLE customer
+    ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+ALTER TABLE customer
+    ADD COLUMN xact_id xid8 NOT NULL DEFAULT '0';
+ALTER TABLE customer
+    ALTER COLUMN xact_id SET DEFAULT pg_current_xact_id();
+
+CREATE TABLE customer_tombstone(
+    customer_id INT PRIMARY KEY,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    xact_id xid8 NOT NULL DEFAULT pg_current_xact_id()
+);
+
+CREATE FUNCTION customer_set_xact_id() RETURNS trigger AS $f$
+BEGIN
+    NEW.xact_id := pg_current_xact_id();
+    RETURN NEW;
+END
+$f$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_set_xact_id
+    BEFORE UPDATE ON customer
+    FOR EACH ROW EXECUTE FUNCTION customer_set_xact_id();
+
+CREATE INDEX customer_xact_id_id_idx ON customer(xact_id, id);
+
+CREATE INDEX customer_tombstone_deleted_at_id_idx ON customer_tombstone(deleted_at, customer_id);
+
+CREATE INDEX customer_tombstone_xact_id_id_idx ON customer_tombstone(xact_id, customer_id);
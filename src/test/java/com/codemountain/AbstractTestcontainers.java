@@ -1,5 +1,6 @@
 package com.codemountain;
 
+import com.codemountain.sql.StatementCountAssertions;
 import com.github.javafaker.Faker;
 import org.flywaydb.core.Flyway;
 import org.junit.jupiter.api.BeforeAll;
@@ -66,5 +67,9 @@ public abstract class AbstractTestcontainers {
         return new JdbcTemplate(getDataSource());
     }
 
+    protected JdbcTemplate getStatementCountingJdbcTemplate() {
+        return new JdbcTemplate(StatementCountAssertions.countingDataSource(getDataSource()));
+    }
+
     protected static final Faker FAKER = new Faker();
 }
@@ -0,0 +1,151 @@
+package com.codemountain.batching;
+
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingCustomerDaoTest {
+
+    private static final int MAX_BATCH_SIZE = 4;
+
+    @Mock
+    private CustomerDao customerDao;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BatchingCustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new BatchingCustomerDao(
+                customerDao,
+                Duration.ofSeconds(5),
+                MAX_BATCH_SIZE,
+                null,
+                "jdbc",
+                meterRegistry
+        );
+    }
+
+    @Test
+    void concurrentLookupsAreMergedIntoOneQuery() throws Exception {
+        // Given
+        when(customerDao.selectCustomersByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .filter(id -> id != 3)
+                    .map(id -> new CustomerView(id, "Customer " + id, id + "@codemountain.com", 20 + id))
+                    .toList();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(MAX_BATCH_SIZE);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<CompletableFuture<Optional<CustomerView>>> lookups = IntStream.rangeClosed(1, MAX_BATCH_SIZE)
+                .mapToObj(id -> CompletableFuture.supplyAsync(() -> {
+                    awaitQuietly(start);
+                    return underTest.selectCustomerById(id);
+                }, executor))
+                .toList();
+        start.countDown();
+
+        // Then
+        // A full batch is sent straight away, well within the five second window
+        for (int id = 1; id <= MAX_BATCH_SIZE; id++) {
+            Optional<CustomerView> actual = lookups.get(id - 1).get(2, TimeUnit.SECONDS);
+            if (id == 3) {
+                assertThat(actual).isEmpty();
+            } else {
+                assertThat(actual).map(CustomerView::id).contains(id);
+            }
+        }
+        verify(customerDao, times(1)).selectCustomersByIds(anyCollection());
+        verify(customerDao, never()).selectCustomerById(1);
+        assertThat(meterRegistry.get("customer.dao.batch.fill").summary().max()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("customer.dao.batch.wait").timer().count()).isEqualTo(MAX_BATCH_SIZE);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void singleLookupIsSentAfterWindow() {
+        // Given
+        underTest = new BatchingCustomerDao(customerDao, Duration.ofMillis(20), MAX_BATCH_SIZE, null, "jdbc", meterRegistry);
+        when(customerDao.selectCustomersByIds(List.of(7)))
+                .thenReturn(List.of(new CustomerView(7, "Alex", "alex@codemountain.com", 28)));
+
+        // When
+        Optional<CustomerView> actual = underTest.selectCustomerById(7);
+
+        // Then
+        assertThat(actual).map(CustomerView::name).contains("Alex");
+        assertThat(meterRegistry.get("customer.dao.batch.wait").timer().max(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    void failuresReachEveryCaller() {
+        // Given
+        underTest = new BatchingCustomerDao(customerDao, Duration.ofMillis(1), MAX_BATCH_SIZE, null, "jdbc", meterRegistry);
+        when(customerDao.selectCustomersByIds(anyCollection())).thenThrow(new IllegalStateException("down"));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.selectCustomerById(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("down");
+    }
+
+    @Test
+    void errorInLeaderStillReleasesFollowers() {
+        // Given
+        underTest = new BatchingCustomerDao(customerDao, Duration.ofMillis(500), MAX_BATCH_SIZE, null, "jdbc", meterRegistry);
+        when(customerDao.selectCustomersByIds(anyCollection())).thenThrow(new OutOfMemoryError("Java heap space"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<CompletableFuture<Optional<CustomerView>>> lookups = IntStream.rangeClosed(1, 2)
+                .mapToObj(id -> CompletableFuture.supplyAsync(() -> {
+                    awaitQuietly(start);
+                    return underTest.selectCustomerById(id);
+                }, executor))
+                .toList();
+        start.countDown();
+
+        // Then
+        assertThat(lookups).allSatisfy(lookup -> assertThat(lookup).failsWithin(Duration.ofSeconds(2)));
+        verify(customerDao, times(1)).selectCustomersByIds(anyCollection());
+        executor.shutdownNow();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.codemountain.bulkimport;
+
+import com.codemountain.AbstractTestcontainers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CopyCustomerImporterTest extends AbstractTestcontainers {
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private CopyCustomerImporter underTest;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = getJdbcTemplate();
+        underTest = new CopyCustomerImporter(
+                new DriverManagerDataSource(
+                        postgreSQLContainer.getJdbcUrl(),
+                        postgreSQLContainer.getUsername(),
+                        postgreSQLContainer.getPassword()
+                ),
+                10
+        );
+    }
+
+    @Test
+    void importFileSkipsTakenAndRepeatedEmails() throws Exception {
+        // Given
+        String suffix = UUID.randomUUID().toString();
+        String taken = "taken-" + suffix + "@codemountain.com";
+        String first = "first-" + suffix + "@codemountain.com";
+        String second = "second-" + suffix + "@codemountain.com";
+        jdbcTemplate.update("INSERT INTO customer(name, email, age) VALUES ('Existing', ?, 40)", taken);
+
+        Path file = Files.writeString(directory.resolve("customers.csv"), """
+                name,email,age
+                "Doe, Jane",%s,31
+                Alex,%s,28
+                Alex Again,%s,29
+                Someone,%s,50
+                """.formatted(first, second, second, taken));
+        CustomerImportJob job = new CustomerImportJob(file, Files.size(file));
+
+        // When
+        underTest.importFile(job);
+
+        // Then
+        CustomerImportStatus status = job.toStatus();
+        assertThat(status.state()).isEqualTo(CustomerImportState.COMPLETED);
+        assertThat(status.bytesRead()).isEqualTo(status.bytesTotal());
+        assertThat(status.rowsStaged()).isEqualTo(4);
+        assertThat(status.rowsImported()).isEqualTo(2);
+        assertThat(status.duplicates()).isEqualTo(2);
+        assertThat(status.duplicateSample()).containsExactlyInAnyOrder(second, taken);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM customer WHERE email = ?", String.class, first))
+                .isEqualTo("Doe, Jane");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM customer WHERE email = ?", String.class, second))
+                .isEqualTo("Alex");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM customer WHERE email = ?", String.class, taken))
+                .isEqualTo("Existing");
+    }
+
+    @Test
+    void importFileRollsBackOnMalformedRow() throws Exception {
+        // Given
+        String email = "valid-" + UUID.randomUUID() + "@codemountain.com";
+        Path file = Files.writeString(directory.resolve("customers.csv"), """
+                name,email,age
+                Alex,%s,28
+                Broken,broken@codemountain.com,not-a-number
+                """.formatted(email));
+        CustomerImportJob job = new CustomerImportJob(file, Files.size(file));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.importFile(job))
+                .isInstanceOf(SQLException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM customer WHERE email = ?", Integer.class, email))
+                .isZero();
+    }
+}
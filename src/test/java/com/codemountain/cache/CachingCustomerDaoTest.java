@@ -0,0 +1,133 @@
+package com.codemountain.cache;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerView;
+import com.codemountain.datasource.DataSourceRoute;
+import com.codemountain.datasource.DataSourceRouting;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCustomerDaoTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    private CachingCustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CachingCustomerDao(customerDao, Caffeine.newBuilder().build());
+    }
+
+    @Test
+    void selectCustomerByIdIsServedFromCache() {
+        // Given
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(new CustomerView(1, "Foo", "foo@gmail.com", 20)));
+        underTest.selectCustomerById(1);
+
+        // When
+        Optional<CustomerView> actual = underTest.selectCustomerById(1);
+
+        // Then
+        assertThat(actual).hasValueSatisfying(customer -> assertThat(customer.name()).isEqualTo("Foo"));
+        assertThat(underTest.existsCustomerWithId(1)).isTrue();
+        verify(customerDao, times(1)).selectCustomerById(1);
+        verify(customerDao, never()).existsCustomerWithId(1);
+    }
+
+    @Test
+    void selectCustomerByIdOnPrimaryRouteSkipsCache() {
+        // Given
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(new CustomerView(1, "Foo", "foo@gmail.com", 20)));
+        underTest.selectCustomerById(1);
+
+        // When
+        DataSourceRouting.with(DataSourceRoute.PRIMARY, () -> underTest.selectCustomerById(1));
+
+        // Then
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void selectCustomersByIdsOnlyLoadsUncachedIds() {
+        // Given
+        CustomerView foo = new CustomerView(1, "Foo", "foo@gmail.com", 20);
+        CustomerView bar = new CustomerView(2, "Bar", "bar@gmail.com", 30);
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(foo));
+        when(customerDao.selectCustomersByIds(anyCollection())).thenReturn(List.of(bar));
+        underTest.selectCustomerById(1);
+
+        // When
+        List<CustomerView> actual = underTest.selectCustomersByIds(List.of(1, 2, 3));
+
+        // Then
+        assertThat(actual).containsExactlyInAnyOrder(foo, bar);
+        assertThat(underTest.existsCustomerWithId(3)).isFalse();
+        verify(customerDao).selectCustomersByIds(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(2, 3))));
+        verify(customerDao, never()).existsCustomerWithId(3);
+    }
+
+    @Test
+    void updateCustomerEvictsCachedCustomer() {
+        // Given
+        Customer customer = new Customer(1, "Foo", "foo@gmail.com", 20);
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(new CustomerView(1, "Foo", "foo@gmail.com", 20)));
+        underTest.selectCustomerById(1);
+
+        // When
+        underTest.updateCustomer(customer);
+        underTest.selectCustomerById(1);
+
+        // Then
+        verify(customerDao).updateCustomer(customer);
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void changeNotificationEvictsCachedCustomers() {
+        // Given
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(new CustomerView(1, "Foo", "foo@gmail.com", 20)));
+        when(customerDao.selectCustomerById(2)).thenReturn(Optional.empty());
+        underTest.selectCustomerById(1);
+        underTest.selectCustomerById(2);
+
+        // When
+        underTest.onCustomersChanged(List.of(2));
+        underTest.selectCustomerById(1);
+        underTest.selectCustomerById(2);
+
+        // Then
+        verify(customerDao, times(1)).selectCustomerById(1);
+        verify(customerDao, times(2)).selectCustomerById(2);
+    }
+
+    @Test
+    void flushEvictsAllCachedCustomers() {
+        // Given
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(new CustomerView(1, "Foo", "foo@gmail.com", 20)));
+        underTest.selectCustomerById(1);
+
+        // When
+        underTest.onAllCustomersChanged();
+        underTest.selectCustomerById(1);
+
+        // Then
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+}
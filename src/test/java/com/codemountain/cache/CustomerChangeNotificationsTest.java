@@ -0,0 +1,122 @@
+package com.codemountain.cache;
+
+import com.codemountain.AbstractTestcontainers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerChangeNotificationsTest extends AbstractTestcontainers {
+
+    private static final String FLUSH = "flush";
+
+    private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+    private CustomerChangeNotifications underTest;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        underTest = new CustomerChangeNotifications(
+                postgreSQLContainer.getJdbcUrl(),
+                postgreSQLContainer.getUsername(),
+                postgreSQLContainer.getPassword(),
+                Duration.ofMillis(200),
+                Duration.ofMillis(200),
+                new SimpleMeterRegistry()
+        );
+        underTest.addListener(new CustomerChangeListener() {
+            @Override
+            public void onCustomersChanged(Collection<Integer> customerIds) {
+                received.addAll(customerIds);
+            }
+
+            @Override
+            public void onAllCustomersChanged() {
+                received.add(FLUSH);
+            }
+        });
+        underTest.start();
+
+        // Connecting flushes once
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo(FLUSH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.stop();
+    }
+
+    @Test
+    void committedChangesAreReceived() throws InterruptedException {
+        // Given
+        Integer id = getJdbcTemplate().queryForObject(
+                "INSERT INTO customer(name, email, age) VALUES (?, ?, ?) RETURNING id",
+                Integer.class,
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + UUID.randomUUID(), 20
+        );
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo(id);
+
+        // When
+        getJdbcTemplate().update("UPDATE customer SET age = 21 WHERE id = ?", id);
+        getJdbcTemplate().update("DELETE FROM customer WHERE id = ?", id);
+
+        // Then
+        List<Object> changes = new ArrayList<>();
+        changes.add(received.poll(10, TimeUnit.SECONDS));
+        changes.add(received.poll(10, TimeUnit.SECONDS));
+        assertThat(changes).containsExactly(id, id);
+    }
+
+    @Test
+    void malformedNotificationFlushesAndKeepsListening() throws InterruptedException {
+        // When
+        getJdbcTemplate().queryForList("SELECT pg_notify(?, ?)", CustomerChangeNotifications.CHANNEL, "garbage;x");
+
+        // Then
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo(FLUSH);
+        Integer id = getJdbcTemplate().queryForObject(
+                "INSERT INTO customer(name, email, age) VALUES (?, ?, ?) RETURNING id",
+                Integer.class,
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + UUID.randomUUID(), 20
+        );
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo(id);
+    }
+
+    @Test
+    void lostConnectionFlushesAndReconnects() throws InterruptedException {
+        // When
+        getJdbcTemplate().queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?",
+                CustomerChangeNotifications.APPLICATION_NAME
+        );
+
+        // Then
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo(FLUSH);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!underTest.isConnected() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(underTest.isConnected()).isTrue();
+        Integer id = getJdbcTemplate().queryForObject(
+                "INSERT INTO customer(name, email, age) VALUES (?, ?, ?) RETURNING id",
+                Integer.class,
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + UUID.randomUUID(), 20
+        );
+        Object next = received.poll(10, TimeUnit.SECONDS);
+        // The reconnect flush may arrive before the change
+        if (FLUSH.equals(next)) {
+            next = received.poll(10, TimeUnit.SECONDS);
+        }
+        assertThat(next).isEqualTo(id);
+    }
+}
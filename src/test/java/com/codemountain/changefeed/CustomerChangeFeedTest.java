@@ -0,0 +1,121 @@
+package com.codemountain.changefeed;
+
+import com.codemountain.customer.CustomerChangedEvent;
+import com.codemountain.customer.CustomerView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerChangeFeedTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CustomerChangeFeed underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerChangeFeed("epoch", 3, 2, meterRegistry);
+    }
+
+    @Test
+    void subscribersReceiveNewChanges() {
+        // Given
+        Flux<ServerSentEvent<CustomerChange>> stream = underTest.subscribe(null);
+        underTest.onCustomerChanged(updated(1));
+
+        // When
+        ServerSentEvent<CustomerChange> actual = stream.blockFirst(TIMEOUT);
+
+        // Then
+        assertThat(actual.id()).isEqualTo("epoch-1");
+        assertThat(actual.event()).isEqualTo("updated");
+        assertThat(actual.data().customer().name()).isEqualTo("Customer 1");
+    }
+
+    @Test
+    void subscribeResumesAfterLastEventId() {
+        // Given
+        underTest.onCustomerChanged(updated(1));
+        underTest.onCustomerChanged(updated(2));
+        underTest.onCustomerChanged(deleted(3));
+
+        // When
+        List<ServerSentEvent<CustomerChange>> actual = underTest.subscribe("epoch-1")
+                .take(2)
+                .collectList()
+                .block(TIMEOUT);
+
+        // Then
+        assertThat(actual).extracting(ServerSentEvent::id).containsExactly("epoch-2", "epoch-3");
+        assertThat(actual).extracting(ServerSentEvent::event).containsExactly("updated", "deleted");
+    }
+
+    @Test
+    void subscribeSendsResetWhenLastEventIdIsNoLongerKept() {
+        // Given
+        for (int customerId = 1; customerId <= 5; customerId++) {
+            underTest.onCustomerChanged(updated(customerId));
+        }
+
+        // When
+        ServerSentEvent<CustomerChange> actual = underTest.subscribe("epoch-1").blockFirst(TIMEOUT);
+
+        // Then
+        assertThat(actual.event()).isEqualTo(CustomerChangeFeed.RESET_EVENT);
+        assertThat(actual.id()).isEqualTo("epoch-5");
+    }
+
+    @Test
+    void subscribeSendsResetWhenLastEventIdIsFromAnotherEpoch() {
+        // Given
+        underTest.onCustomerChanged(updated(1));
+        underTest.onCustomerChanged(updated(2));
+
+        // When
+        // Numbered by a node that restarted, or by another node
+        ServerSentEvent<CustomerChange> actual = underTest.subscribe("restarted-1").blockFirst(TIMEOUT);
+
+        // Then
+        assertThat(actual.event()).isEqualTo(CustomerChangeFeed.RESET_EVENT);
+        assertThat(actual.id()).isEqualTo("epoch-2");
+    }
+
+    @Test
+    void slowSubscriberIsDropped() {
+        // Given
+        Flux<ServerSentEvent<CustomerChange>> stream = underTest.subscribe(null);
+
+        // When
+        underTest.onCustomerChanged(updated(1));
+        underTest.onCustomerChanged(updated(2));
+        underTest.onCustomerChanged(updated(3));
+
+        // Then
+        // The buffered changes are still delivered, then the stream ends
+        assertThat(stream.collectList().block(TIMEOUT))
+                .extracting(ServerSentEvent::id)
+                .containsExactly("epoch-1", "epoch-2");
+        assertThat(meterRegistry.get("customer.changes.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("customer.changes.subscribers").gauge().value()).isZero();
+    }
+
+    private static CustomerChangedEvent updated(int customerId) {
+        return new CustomerChangedEvent(
+                CustomerChangedEvent.Type.UPDATED,
+                customerId,
+                new CustomerView(customerId, "Customer " + customerId, customerId + "@codemountain.com", 30)
+        );
+    }
+
+    private static CustomerChangedEvent deleted(int customerId) {
+        return new CustomerChangedEvent(CustomerChangedEvent.Type.DELETED, customerId, null);
+    }
+}
@@ -0,0 +1,60 @@
+package com.codemountain.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private ConcurrencyLimiter underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ConcurrencyLimiter(new GradientConcurrencyLimit(4, 4, 4), 0.5);
+    }
+
+    @Test
+    void rejectsHighPriorityRequestsOverTheLimit() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            assertThat(underTest.tryAcquire(RequestPriority.HIGH)).isTrue();
+        }
+
+        // When
+        boolean actual = underTest.tryAcquire(RequestPriority.HIGH);
+
+        // Then
+        assertThat(actual).isFalse();
+    }
+
+    @Test
+    void lowPriorityRequestsOnlyUseTheirShare() {
+        // Given
+        assertThat(underTest.tryAcquire(RequestPriority.LOW)).isTrue();
+        assertThat(underTest.tryAcquire(RequestPriority.LOW)).isTrue();
+
+        // When
+        boolean lowPriority = underTest.tryAcquire(RequestPriority.LOW);
+        boolean highPriority = underTest.tryAcquire(RequestPriority.HIGH);
+
+        // Then
+        assertThat(lowPriority).isFalse();
+        assertThat(highPriority).isTrue();
+    }
+
+    @Test
+    void releaseFreesCapacity() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            underTest.tryAcquire(RequestPriority.HIGH);
+        }
+
+        // When
+        underTest.release(1_000_000);
+
+        // Then
+        assertThat(underTest.getInflight()).isEqualTo(3);
+        assertThat(underTest.tryAcquire(RequestPriority.HIGH)).isTrue();
+    }
+}
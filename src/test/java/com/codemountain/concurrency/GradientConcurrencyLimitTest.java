@@ -0,0 +1,70 @@
+package com.codemountain.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimitTest {
+
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private GradientConcurrencyLimit underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new GradientConcurrencyLimit(20, 4, 200);
+    }
+
+    @Test
+    void limitGrowsWhileLatencyIsStableUnderLoad() {
+        // When
+        for (int i = 0; i < 100; i++) {
+            underTest.onSample(BASELINE_RTT, underTest.getLimit());
+        }
+
+        // Then
+        assertThat(underTest.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRises() {
+        // Given
+        for (int i = 0; i < 600; i++) {
+            underTest.onSample(BASELINE_RTT, underTest.getLimit());
+        }
+        int limitBeforeSlowdown = underTest.getLimit();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            underTest.onSample(BASELINE_RTT * 5, underTest.getLimit());
+        }
+
+        // Then
+        assertThat(underTest.getLimit()).isLessThan(limitBeforeSlowdown);
+    }
+
+    @Test
+    void limitDoesNotGrowWithoutLoad() {
+        // When
+        for (int i = 0; i < 100; i++) {
+            underTest.onSample(BASELINE_RTT, 1);
+        }
+
+        // Then
+        assertThat(underTest.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void limitStaysWithinBounds() {
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            underTest.onSample(BASELINE_RTT, underTest.getLimit());
+        }
+
+        // Then
+        assertThat(underTest.getLimit()).isEqualTo(200);
+    }
+}
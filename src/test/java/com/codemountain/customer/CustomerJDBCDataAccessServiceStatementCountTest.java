@@ -0,0 +1,48 @@
+package com.codemountain.customer;
+
+import com.codemountain.AbstractTestcontainers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static com.codemountain.sql.StatementCountAssertions.assertStatementCount;
+
+class CustomerJDBCDataAccessServiceStatementCountTest extends AbstractTestcontainers {
+
+    private CustomerJDBCDataAccessService underTest;
+    private final CustomerRowMapper rowMapper = new CustomerRowMapper();
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerJDBCDataAccessService(
+                getStatementCountingJdbcTemplate(),
+                rowMapper
+        );
+    }
+
+    @Test
+    void everyOperationIssuesASingleStatement() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + UUID.randomUUID();
+        Customer customer = new Customer(FAKER.name().fullName(), email, 20);
+
+        // When
+        // Then
+        assertStatementCount(1, () -> underTest.insertCustomer(customer));
+        assertStatementCount(1, () -> underTest.selectAllCustomers());
+        assertStatementCount(1, () -> underTest.existsCustomerWithEmail(email));
+
+        Integer id = underTest.selectAllCustomers()
+                .stream()
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
+                .findFirst()
+                .orElseThrow();
+
+        assertStatementCount(1, () -> underTest.selectCustomerById(id));
+        assertStatementCount(1, () -> underTest.existsCustomerWithId(id));
+        assertStatementCount(1, () -> underTest.updateCustomer(new Customer(id, "foo", email, 21)));
+        assertStatementCount(1, () -> underTest.deleteCustomerWithId(id));
+    }
+}
@@ -3,12 +3,14 @@ package com.codemountain.customer;
 import com.codemountain.AbstractTestcontainers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
@@ -31,11 +33,74 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         underTest.insertCustomer(customer);
 
         // When
-        List<Customer> actual = underTest.selectAllCustomers();
+        List<CustomerView> actual = underTest.selectAllCustomers();
 
         // Then
         assertThat(actual).isNotEmpty();
-        assertThat(actual).hasExactlyElementsOfTypes(Customer.class);
+        assertThat(actual).hasExactlyElementsOfTypes(CustomerView.class);
+    }
+
+    @Test
+    void selectCustomersByIds() {
+        // Given
+        String firstEmail = FAKER.internet().safeEmailAddress() + UUID.randomUUID();
+        String secondEmail = FAKER.internet().safeEmailAddress() + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), firstEmail, 20));
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), secondEmail, 30));
+        List<Integer> ids = underTest.selectAllCustomers()
+                .stream()
+                .filter(customer -> customer.email().equals(firstEmail) || customer.email().equals(secondEmail))
+                .map(CustomerView::id)
+                .toList();
+
+        // When
+        List<CustomerView> actual = underTest.selectCustomersByIds(List.of(ids.get(0), ids.get(1), -1));
+
+        // Then
+        assertThat(actual)
+                .extracting(CustomerView::email)
+                .containsExactlyInAnyOrder(firstEmail, secondEmail);
+    }
+
+    @Test
+    void selectCustomersFiltersSortsAndPagesAfterCursor() {
+        // Given
+        String domain = UUID.randomUUID() + ".example";
+        underTest.insertCustomer(new Customer("Ben", "ben@" + domain, 35));
+        underTest.insertCustomer(new Customer("Anna", "anna@" + domain.toUpperCase(), 31));
+        underTest.insertCustomer(new Customer("Carl", "carl@" + domain, 38));
+        underTest.insertCustomer(new Customer("Alice", "alice@" + domain, 45));
+        underTest.insertCustomer(new Customer("Bea", "bea@other-" + domain, 33));
+        CustomerSort byName = new CustomerSort(CustomerSortKey.NAME, false);
+
+        // When
+        List<CustomerView> firstPage = underTest.selectCustomers(
+                new CustomerQuery(30, 40, domain, null, byName, null, 2)
+        );
+        List<CustomerView> secondPage = underTest.selectCustomers(
+                new CustomerQuery(30, 40, domain, null, byName, CustomerCursor.after(firstPage.get(1), byName), 2)
+        );
+
+        // Then
+        assertThat(firstPage).extracting(CustomerView::name).containsExactly("Anna", "Ben");
+        assertThat(secondPage).extracting(CustomerView::name).containsExactly("Carl");
+    }
+
+    @Test
+    void selectCustomersMatchesNamePrefixLiterally() {
+        // Given
+        String domain = UUID.randomUUID() + ".example";
+        underTest.insertCustomer(new Customer("50% Off", "first@" + domain, 20));
+        underTest.insertCustomer(new Customer("500 Club", "second@" + domain, 30));
+        CustomerSort byAgeDescending = new CustomerSort(CustomerSortKey.AGE, true);
+
+        // When
+        List<CustomerView> actual = underTest.selectCustomers(
+                new CustomerQuery(null, null, domain, "50%", byAgeDescending, null, 10)
+        );
+
+        // Then
+        assertThat(actual).extracting(CustomerView::name).containsExactly("50% Off");
     }
 
     @Test
@@ -47,20 +112,20 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         Integer id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
         // When
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerView> actual = underTest.selectCustomerById(id);
 
         // Then
         assertThat(actual).isPresent().hasValueSatisfying(c -> {
-           assertThat(c.getId()).isEqualTo(id);
-           assertThat(c.getName()).isEqualTo(customer.getName());
-           assertThat(c.getEmail()).isEqualTo(customer.getEmail());
-           assertThat(c.getAge()).isEqualTo(customer.getAge());
+           assertThat(c.id()).isEqualTo(id);
+           assertThat(c.name()).isEqualTo(customer.getName());
+           assertThat(c.email()).isEqualTo(customer.getEmail());
+           assertThat(c.age()).isEqualTo(customer.getAge());
         });
     }
 
@@ -70,7 +135,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         Integer id = -1;
 
         // When
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerView> actual = underTest.selectCustomerById(id);
 
         // Then
         assertThat(actual).isEmpty();
@@ -155,8 +220,8 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         Integer id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
@@ -164,7 +229,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         underTest.deleteCustomerWithId(id);
 
         // Then
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerView> actual = underTest.selectCustomerById(id);
         assertThat(actual).isNotPresent();
     }
 
@@ -178,28 +243,28 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         final Integer id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
         String newName = "foo";
 
         // When
-        Customer update = underTest.selectCustomerById(id).orElseThrow();
-        update.setName(newName);
+        CustomerView existing = underTest.selectCustomerById(id).orElseThrow();
+        Customer update = new Customer(id, newName, existing.email(), existing.age());
 
         underTest.updateCustomer(update);
 
 
         // Then
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerView> actual = underTest.selectCustomerById(id);
 
         assertThat(actual).isPresent().hasValueSatisfying(c -> {
-            assertThat(c.getId()).isEqualTo(id);
-            assertThat(c.getName()).isEqualTo(newName);
-            assertThat(c.getEmail()).isEqualTo(customer.getEmail());
-            assertThat(c.getAge()).isEqualTo(customer.getAge());
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(newName);
+            assertThat(c.email()).isEqualTo(customer.getEmail());
+            assertThat(c.age()).isEqualTo(customer.getAge());
         });
     }
 
@@ -213,28 +278,28 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         final Integer id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
         String newEmail = "foo@mail.com";
 
         // When
-        Customer update = underTest.selectCustomerById(id).orElseThrow();
-        update.setEmail(newEmail);
+        CustomerView existing = underTest.selectCustomerById(id).orElseThrow();
+        Customer update = new Customer(id, existing.name(), newEmail, existing.age());
 
         underTest.updateCustomer(update);
 
 
         // Then
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerView> actual = underTest.selectCustomerById(id);
 
         assertThat(actual).isPresent().hasValueSatisfying(c -> {
-            assertThat(c.getId()).isEqualTo(id);
-            assertThat(c.getName()).isEqualTo(customer.getName());
-            assertThat(c.getEmail()).isEqualTo(newEmail);
-            assertThat(c.getAge()).isEqualTo(customer.getAge());
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(customer.getName());
+            assertThat(c.email()).isEqualTo(newEmail);
+            assertThat(c.age()).isEqualTo(customer.getAge());
         });
     }
 
@@ -248,28 +313,62 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         final Integer id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
         Integer newAge = 21;
 
         // When
-        Customer update = underTest.selectCustomerById(id).orElseThrow();
-        update.setAge(newAge);
+        CustomerView existing = underTest.selectCustomerById(id).orElseThrow();
+        Customer update = new Customer(id, existing.name(), existing.email(), newAge);
 
         underTest.updateCustomer(update);
 
 
         // Then
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerView> actual = underTest.selectCustomerById(id);
 
         assertThat(actual).isPresent().hasValueSatisfying(c -> {
-            assertThat(c.getId()).isEqualTo(id);
-            assertThat(c.getName()).isEqualTo(customer.getName());
-            assertThat(c.getEmail()).isEqualTo(customer.getEmail());
-            assertThat(c.getAge()).isEqualTo(newAge);
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(customer.getName());
+            assertThat(c.email()).isEqualTo(customer.getEmail());
+            assertThat(c.age()).isEqualTo(newAge);
         });
     }
+
+    @Test
+    void insertCustomerWithTakenEmailCanThrow() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 30)))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void updateCustomerEmailReleasesPreviousEmail() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        String newEmail = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+
+        CustomerView existing = underTest.selectAllCustomers()
+                .stream()
+                .filter(c -> c.email().equals(email))
+                .findFirst()
+                .orElseThrow();
+        Customer update = new Customer(existing.id(), existing.name(), newEmail, existing.age());
+
+        // When
+        underTest.updateCustomer(update);
+
+        // Then
+        assertThat(underTest.existsCustomerWithEmail(email)).isFalse();
+        assertThat(underTest.existsCustomerWithEmail(newEmail)).isTrue();
+    }
 }
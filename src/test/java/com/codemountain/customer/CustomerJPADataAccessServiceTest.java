@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.List;
+
 import static org.mockito.Mockito.verify;
 
 class CustomerJPADataAccessServiceTest {
@@ -33,7 +35,31 @@ class CustomerJPADataAccessServiceTest {
         underTest.selectAllCustomers();
 
         // Then
-        verify(customerRepository).findAll();
+        verify(customerRepository).findAllViews();
+    }
+
+    @Test
+    void selectCustomersByIds() {
+        // Given
+        List<Integer> ids = List.of(1, 2, 3);
+
+        // When
+        underTest.selectCustomersByIds(ids);
+
+        // Then
+        verify(customerRepository).findAllViewsById(ids);
+    }
+
+    @Test
+    void selectCustomers() {
+        // Given
+        CustomerQuery query = new CustomerQuery(30, 40, null, null, CustomerSort.DEFAULT, null, 10);
+
+        // When
+        underTest.selectCustomers(query);
+
+        // Then
+        verify(customerRepository).findViews(query);
     }
 
     @Test
@@ -45,7 +71,7 @@ class CustomerJPADataAccessServiceTest {
         underTest.selectCustomerById(id);
 
         // Then
-        verify(customerRepository).findById(id);
+        verify(customerRepository).findViewById(id);
     }
 
     @Test
@@ -97,7 +123,7 @@ class CustomerJPADataAccessServiceTest {
         underTest.deleteCustomerWithId(id);
 
         // Then
-        verify(customerRepository).deleteById(id);
+        verify(customerRepository).deleteWithTombstoneById(id);
     }
 
     @Test
@@ -0,0 +1,95 @@
+package com.codemountain.customer;
+
+import com.codemountain.AbstractTestcontainers;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerJsonStreamerTest extends AbstractTestcontainers {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcTemplate jdbcTemplate;
+    private CustomerJsonStreamer underTest;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = getJdbcTemplate();
+        underTest = new CustomerJsonStreamer(
+                jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                objectMapper
+        );
+    }
+
+    @Test
+    void writeAllCustomersProducesSameJsonAsCustomerList() throws Exception {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        String name = FAKER.name().fullName();
+        new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper())
+                .insertCustomer(new Customer(name, email, 33));
+        List<CustomerView> expected = jdbcTemplate.query(
+                "SELECT id, name, email, age FROM customer", new CustomerRowMapper()
+        );
+
+        // When
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        underTest.writeAllCustomers(outputStream);
+
+        // Then
+        List<CustomerView> actual = objectMapper.readValue(outputStream.toByteArray(), new TypeReference<>() {});
+        assertThat(actual)
+                .containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(outputStream.toString())
+                .contains("{\"id\":", "\"name\":\"" + name + "\"", "\"email\":\"" + email + "\"", "\"age\":33}");
+    }
+
+    @Test
+    void failureHalfwayLeavesTheArrayUnterminated() {
+        // Given
+        CustomerJDBCDataAccessService customerDao =
+                new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper());
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), UUID.randomUUID() + "@codemountain.com", 30));
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), UUID.randomUUID() + "@codemountain.com", 31));
+        JdbcTemplate failingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+                super.query(creator, (RowCallbackHandler) resultSet -> {
+                    if (resultSet.getRow() > 1) {
+                        throw new SQLException("connection lost");
+                    }
+                    handler.processRow(resultSet);
+                });
+            }
+        };
+        CustomerJsonStreamer failingStreamer = new CustomerJsonStreamer(
+                failingJdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                objectMapper
+        );
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        // Then
+        assertThatThrownBy(() -> failingStreamer.writeAllCustomers(outputStream))
+                .isInstanceOf(DataAccessException.class);
+        assertThat(outputStream.toString()).startsWith("[{").doesNotEndWith("]");
+        assertThatThrownBy(() -> objectMapper.readTree(outputStream.toByteArray()))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+}
@@ -0,0 +1,152 @@
+package com.codemountain.customer;
+
+import com.codemountain.AbstractTestcontainers;
+import com.codemountain.datasource.ReadYourWritesTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.codemountain.customer.CustomerOperation.Type.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerOperationServiceTest extends AbstractTestcontainers {
+
+    private static final CustomerChangedEvent.Type CREATED_EVENT = CustomerChangedEvent.Type.CREATED;
+    private static final CustomerChangedEvent.Type UPDATED_EVENT = CustomerChangedEvent.Type.UPDATED;
+    private static final CustomerChangedEvent.Type DELETED_EVENT = CustomerChangedEvent.Type.DELETED;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private CustomerJDBCDataAccessService customerDao;
+    private CustomerOperationService underTest;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = getJdbcTemplate();
+        customerDao = new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper());
+        underTest = new CustomerOperationService(
+                jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                new StaticListableBeanFactory().getBeanProvider(ReadYourWritesTracker.class),
+                publishedEvents::add
+        );
+    }
+
+    @Test
+    void continueOnErrorCommitsValidOperationsAndReportsFailures() {
+        // Given
+        CustomerView alex = insertCustomer("Alex", 28);
+        CustomerView jamie = insertCustomer("Jamie", 35);
+        String newEmail = randomEmail();
+
+        // When
+        CustomerOperationsResponse actual = underTest.execute(new CustomerOperationsRequest(
+                CustomerOperationsRequest.Mode.CONTINUE_ON_ERROR,
+                List.of(
+                        new CustomerOperation(CREATE, null, "Sam", newEmail, 41),
+                        new CustomerOperation(CREATE, null, "Sam Again", newEmail, 42),
+                        new CustomerOperation(UPDATE, alex.id(), null, jamie.email(), null),
+                        new CustomerOperation(DELETE, jamie.id(), null, null, null),
+                        new CustomerOperation(UPDATE, alex.id(), null, jamie.email(), null),
+                        new CustomerOperation(UPDATE, -1, "Nobody", null, null),
+                        new CustomerOperation(UPDATE, alex.id(), null, null, 29)
+                )
+        ));
+
+        // Then
+        assertThat(actual.committed()).isTrue();
+        assertThat(actual.results())
+                .extracting(CustomerOperationResult::status)
+                .containsExactly(201, 409, 409, 200, 200, 404, 200);
+        assertThat(actual.results().get(5).message())
+                .isEqualTo("Customer with id [-1] was not found.");
+
+        Integer createdId = actual.results().get(0).customerId();
+        assertThat(customerDao.selectCustomerById(createdId))
+                .contains(new CustomerView(createdId, "Sam", newEmail, 41));
+        assertThat(customerDao.selectCustomerById(alex.id()))
+                .contains(new CustomerView(alex.id(), "Alex", jamie.email(), 29));
+        assertThat(customerDao.existsCustomerWithId(jamie.id())).isFalse();
+        assertThat(publishedEvents)
+                .extracting(event -> ((CustomerChangedEvent) event).type())
+                .containsExactly(CREATED_EVENT, DELETED_EVENT, UPDATED_EVENT, UPDATED_EVENT);
+    }
+
+    @Test
+    void allOrNothingRollsBackOnFirstFailure() {
+        // Given
+        CustomerView alex = insertCustomer("Alex", 28);
+        String newEmail = randomEmail();
+
+        // When
+        CustomerOperationsResponse actual = underTest.execute(new CustomerOperationsRequest(
+                CustomerOperationsRequest.Mode.ALL_OR_NOTHING,
+                List.of(
+                        new CustomerOperation(UPDATE, alex.id(), "Alexander", null, null),
+                        new CustomerOperation(CREATE, null, "Sam", newEmail, 41),
+                        new CustomerOperation(UPDATE, alex.id(), "Alexander", null, null),
+                        new CustomerOperation(DELETE, alex.id(), null, null, null)
+                )
+        ));
+
+        // Then
+        assertThat(actual.committed()).isFalse();
+        assertThat(actual.results())
+                .extracting(CustomerOperationResult::status)
+                .containsExactly(424, 424, 400, 424);
+        assertThat(actual.results().get(2).message())
+                .isEqualTo("No changes to customer data were detected.");
+
+        assertThat(customerDao.selectCustomerById(alex.id())).contains(alex);
+        assertThat(customerDao.existsCustomerWithEmail(newEmail)).isFalse();
+        assertThat(publishedEvents).isEmpty();
+    }
+
+    @Test
+    void emailsFreedEarlierInTheBatchCanBeReused() {
+        // Given
+        CustomerView alex = insertCustomer("Alex", 28);
+        CustomerView jamie = insertCustomer("Jamie", 35);
+        String alexNewEmail = randomEmail();
+
+        // When
+        CustomerOperationsResponse actual = underTest.execute(new CustomerOperationsRequest(
+                CustomerOperationsRequest.Mode.ALL_OR_NOTHING,
+                List.of(
+                        new CustomerOperation(UPDATE, alex.id(), null, alexNewEmail, null),
+                        new CustomerOperation(UPDATE, jamie.id(), null, alex.email(), null),
+                        new CustomerOperation(CREATE, null, "Sam", jamie.email(), 41)
+                )
+        ));
+
+        // Then
+        assertThat(actual.committed()).isTrue();
+        assertThat(customerDao.selectCustomerById(alex.id()))
+                .map(CustomerView::email)
+                .contains(alexNewEmail);
+        assertThat(customerDao.selectCustomerById(jamie.id()))
+                .map(CustomerView::email)
+                .contains(alex.email());
+        Optional<CustomerView> sam = customerDao.selectCustomerById(actual.results().get(2).customerId());
+        assertThat(sam).map(CustomerView::email).contains(jamie.email());
+    }
+
+    private CustomerView insertCustomer(String name, int age) {
+        String email = randomEmail();
+        customerDao.insertCustomer(new Customer(name, email, age));
+        return jdbcTemplate.queryForObject(
+                "SELECT id, name, email, age FROM customer WHERE email = ?", new CustomerRowMapper(), email
+        );
+    }
+
+    private static String randomEmail() {
+        return FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+    }
+}
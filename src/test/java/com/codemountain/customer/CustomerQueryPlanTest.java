@@ -0,0 +1,154 @@
+package com.codemountain.customer;
+
+import com.codemountain.AbstractTestcontainers;
+import com.codemountain.sql.QueryPlanAssertions.CapturedStatement;
+import com.codemountain.sql.QueryPlanBaseline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.codemountain.sql.QueryPlanAssertions.assertPlansWithinBaseline;
+import static com.codemountain.sql.QueryPlanAssertions.captureStatement;
+import static com.codemountain.sql.QueryPlanAssertions.capturingDataSource;
+
+/*
+Explains every statement CustomerJDBCDataAccessService and CustomerRepository
+issue against a seeded customer table and checks the plans against
+query-plans/customer-dao.json, so a schema change that turns a lookup into
+a sequential scan, or makes it noticeably more expensive, fails the build.
+The writes run in the test transaction and are rolled back.
+ */
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CustomerQueryPlanTest.CapturingDataSourceConfig.class)
+class CustomerQueryPlanTest extends AbstractTestcontainers {
+
+    private static final int SEED_ROWS = 200_000;
+    // A relation this large must not be scanned sequentially, each partition holds about 25.000 rows
+    private static final long SEQ_SCAN_ROWS = 10_000;
+    private static final CustomerSort BY_AGE = new CustomerSort(CustomerSortKey.AGE, false);
+    private static final CustomerSort BY_NAME = new CustomerSort(CustomerSortKey.NAME, false);
+    private static final QueryPlanBaseline BASELINE = QueryPlanBaseline.load("query-plans/customer-dao.json");
+
+    private static boolean seeded;
+
+    @TestConfiguration
+    static class CapturingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? capturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private CustomerRepository customerRepository;
+    private JdbcTemplate jdbcTemplate;
+    private int customerId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = getJdbcTemplate();
+        if (!seeded) {
+            seed();
+            seeded = true;
+        }
+        customerId = jdbcTemplate.queryForObject("SELECT min(id) FROM customer", Integer.class);
+    }
+
+    @Test
+    void jdbcStatementsStayWithinPlanBaseline() {
+        // Given
+        CustomerJDBCDataAccessService underTest = new CustomerJDBCDataAccessService(
+                new JdbcTemplate(dataSource),
+                new CustomerRowMapper()
+        );
+        Customer updated = new Customer(customerId, "Customer plan", "plan-update@domain0.example", 42);
+        Map<String, CapturedStatement> statements = new LinkedHashMap<>();
+
+        // When
+        statements.put("jdbc.selectAllCustomers", captureStatement(underTest::selectAllCustomers));
+        statements.put("jdbc.selectCustomerById", captureStatement(() -> underTest.selectCustomerById(customerId)));
+        statements.put("jdbc.selectCustomersByIds", captureStatement(
+                () -> underTest.selectCustomersByIds(List.of(customerId, customerId + 1, customerId + 2))));
+        statements.put("jdbc.selectCustomers", captureStatement(
+                () -> underTest.selectCustomers(query(null, null, null, null, CustomerSort.DEFAULT))));
+        statements.put("jdbc.selectCustomers.age", captureStatement(
+                () -> underTest.selectCustomers(query(30, 40, null, null, BY_AGE))));
+        statements.put("jdbc.selectCustomers.emailDomain", captureStatement(
+                () -> underTest.selectCustomers(query(null, null, "domain3.example", null, CustomerSort.DEFAULT))));
+        statements.put("jdbc.selectCustomers.nameStartsWith", captureStatement(
+                () -> underTest.selectCustomers(query(null, null, null, "Customer 1234", BY_NAME))));
+        statements.put("jdbc.insertCustomer", captureStatement(
+                () -> underTest.insertCustomer(new Customer("Customer plan", "plan@domain0.example", 42))));
+        statements.put("jdbc.existsCustomerWithEmail", captureStatement(
+                () -> underTest.existsCustomerWithEmail("customer1@domain1.example")));
+        statements.put("jdbc.existsCustomerWithId", captureStatement(() -> underTest.existsCustomerWithId(customerId)));
+        statements.put("jdbc.updateCustomer", captureStatement(() -> underTest.updateCustomer(updated)));
+        statements.put("jdbc.deleteCustomerWithId", captureStatement(() -> underTest.deleteCustomerWithId(customerId)));
+
+        // Then
+        assertPlansWithinBaseline(jdbcTemplate, statements, BASELINE, SEQ_SCAN_ROWS);
+    }
+
+    @Test
+    void repositoryQueriesStayWithinPlanBaseline() {
+        // Given
+        Map<String, CapturedStatement> statements = new LinkedHashMap<>();
+
+        // When
+        statements.put("jpa.findAllViews", captureStatement(customerRepository::findAllViews));
+        statements.put("jpa.findViewById", captureStatement(() -> customerRepository.findViewById(customerId)));
+        statements.put("jpa.findAllViewsById", captureStatement(
+                () -> customerRepository.findAllViewsById(List.of(customerId, customerId + 1, customerId + 2))));
+        statements.put("jpa.findViews", captureStatement(
+                () -> customerRepository.findViews(query(30, 40, "domain3.example", "Customer 1", BY_NAME))));
+        statements.put("jpa.existsCustomerByEmail", captureStatement(
+                () -> customerRepository.existsCustomerByEmail("customer1@domain1.example")));
+        statements.put("jpa.existsCustomerById", captureStatement(
+                () -> customerRepository.existsCustomerById(customerId)));
+        statements.put("jpa.deleteWithTombstoneById", captureStatement(
+                () -> customerRepository.deleteWithTombstoneById(customerId)));
+
+        // Then
+        assertPlansWithinBaseline(jdbcTemplate, statements, BASELINE, SEQ_SCAN_ROWS);
+    }
+
+    private static CustomerQuery query(Integer minAge,
+                                       Integer maxAge,
+                                       String emailDomain,
+                                       String nameStartsWith,
+                                       CustomerSort sort) {
+        return new CustomerQuery(minAge, maxAge, emailDomain, nameStartsWith, sort, null, 101);
+    }
+
+    // Ten email domains and eighty ages, spread evenly over the partitions
+    private void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO customer(name, email, age)
+                SELECT 'Customer ' || i, 'customer' || i || '@domain' || (i % 10) || '.example', 18 + i % 80
+                FROM generate_series(1, ?) AS i
+                """, SEED_ROWS);
+        jdbcTemplate.execute("VACUUM ANALYZE customer, customer_email, customer_tombstone");
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @DataJpaTest
@@ -22,6 +24,29 @@ class CustomerRepositoryTest extends AbstractTestcontainers {
     void setUp() {
     }
 
+    @Test
+    void findViewsFiltersSortsAndPagesAfterCursor() {
+        // Given
+        String domain = UUID.randomUUID() + ".example";
+        underTest.save(new Customer("Ben", "ben@" + domain, 35));
+        underTest.save(new Customer("Anna", "anna@" + domain, 31));
+        underTest.save(new Customer("Carl", "carl@" + domain, 38));
+        underTest.save(new Customer("Alice", "alice@" + domain, 45));
+        CustomerSort byAgeDescending = new CustomerSort(CustomerSortKey.AGE, true);
+        CustomerView ben = underTest.findViews(
+                new CustomerQuery(null, null, domain, "Be", byAgeDescending, null, 1)
+        ).get(0);
+
+        // When
+        List<CustomerView> actual = underTest.findViews(
+                new CustomerQuery(30, 40, domain, null, byAgeDescending, CustomerCursor.after(ben, byAgeDescending), 10)
+        );
+
+        // Then
+        assertThat(ben.name()).isEqualTo("Ben");
+        assertThat(actual).extracting(CustomerView::name).containsExactly("Anna");
+    }
+
     @Test
     void existsCustomerByEmail() {
         // Given
@@ -90,4 +115,30 @@ class CustomerRepositoryTest extends AbstractTestcontainers {
         // Then
         assertThat(actual).isFalse();
     }
+
+    @Test
+    void findViewById() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + UUID.randomUUID();
+        Customer customer = underTest.save(new Customer(FAKER.name().fullName(), email, 23));
+
+        // When
+        Optional<CustomerView> actual = underTest.findViewById(customer.getId());
+
+        // Then
+        assertThat(actual).contains(new CustomerView(customer.getId(), customer.getName(), email, 23));
+    }
+
+    @Test
+    void findAllViews() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + UUID.randomUUID();
+        Customer customer = underTest.save(new Customer(FAKER.name().fullName(), email, 23));
+
+        // When
+        List<CustomerView> actual = underTest.findAllViews();
+
+        // Then
+        assertThat(actual).contains(new CustomerView(customer.getId(), customer.getName(), email, 23));
+    }
 }
@@ -27,19 +27,15 @@ class CustomerRowMapperTest {
     @Test
     void testMapRow() throws SQLException {
         // Given
-        when(resultSet.getInt("id")).thenReturn(42);
-        when(resultSet.getString("name")).thenReturn("Foo");
-        when(resultSet.getString("email")).thenReturn("fUQp2@example.com");
-        when(resultSet.getInt("age")).thenReturn(20);
+        when(resultSet.getInt(1)).thenReturn(42);
+        when(resultSet.getString(2)).thenReturn("Foo");
+        when(resultSet.getString(3)).thenReturn("fUQp2@example.com");
+        when(resultSet.getInt(4)).thenReturn(20);
 
         // When
-        Customer actual = underTest.mapRow(resultSet, 1);
+        CustomerView actual = underTest.mapRow(resultSet, 1);
 
         // Then
-        assertThat(actual)
-                .hasFieldOrPropertyWithValue("id", 42)
-                .hasFieldOrPropertyWithValue("name", "Foo")
-                .hasFieldOrPropertyWithValue("email", "fUQp2@example.com")
-                .hasFieldOrPropertyWithValue("age", 20);
+        assertThat(actual).isEqualTo(new CustomerView(42, "Foo", "fUQp2@example.com", 20));
     }
 }
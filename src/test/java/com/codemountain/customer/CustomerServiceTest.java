@@ -1,5 +1,7 @@
 package com.codemountain.customer;
 
+import com.codemountain.datasource.DataSourceRoute;
+import com.codemountain.datasource.DataSourceRouting;
 import com.codemountain.exception.DuplicateResourceException;
 import com.codemountain.exception.RequestValidationException;
 import com.codemountain.exception.ResourceNotFoundException;
@@ -10,8 +12,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -26,13 +32,15 @@ class CustomerServiceTest {
 
     @Mock
     private CustomerDao customerDao;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 //    private AutoCloseable autoCloseable;
 
     @BeforeEach
     void setUp() {
 //        // Don't need to do this with MockitoExtension
 //        autoCloseable = openMocks(this);
-        underTest = new CustomerService(customerDao);
+        underTest = new CustomerService(customerDao, eventPublisher);
     }
 
     @AfterEach
@@ -50,17 +58,82 @@ class CustomerServiceTest {
         verify(customerDao).selectAllCustomers();
     }
 
+    @Test
+    void getCustomersKeepsRequestOrderAndReportsMissingIds() {
+        // Given
+        CustomerView foo = new CustomerView(1, "Foo", "foo@example.com", 20);
+        CustomerView bar = new CustomerView(2, "Bar", "bar@example.com", 24);
+        when(customerDao.selectCustomersByIds(List.of(2, 3, 1))).thenReturn(List.of(foo, bar));
+
+        // When
+        CustomerLookupResponse actual = underTest.getCustomers(List.of(2, 3, 1, 2));
+
+        // Then
+        assertThat(actual.customers()).containsExactly(bar, foo);
+        assertThat(actual.missingIds()).containsExactly(3);
+    }
+
+    @Test
+    void getCustomersWillThrowWhenTooManyIdsAreGiven() {
+        // Given
+        List<Integer> ids = IntStream.rangeClosed(1, CustomerService.MAX_LOOKUP_IDS + 1).boxed().toList();
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getCustomers(ids))
+                .isInstanceOf(RequestValidationException.class);
+        verify(customerDao, never()).selectCustomersByIds(any());
+    }
+
+    @Test
+    void getCustomerPageReturnsCursorForNextPage() {
+        // Given
+        CustomerView anna = new CustomerView(4, "Anna", "anna@example.com", 31);
+        CustomerView ben = new CustomerView(2, "Ben", "ben@example.com", 35);
+        CustomerView carl = new CustomerView(3, "Carl", "carl@example.com", 38);
+        CustomerSort byName = new CustomerSort(CustomerSortKey.NAME, false);
+        when(customerDao.selectCustomers(
+                new CustomerQuery(30, 40, "example.com", null, byName, null, 3)
+        )).thenReturn(List.of(anna, ben, carl));
+
+        // When
+        CustomerPage actual = underTest.getCustomerPage(
+                new CustomerListRequest(30, 40, "@Example.com", null, "name", null, 2)
+        );
+
+        // Then
+        assertThat(actual.customers()).containsExactly(anna, ben);
+        assertThat(CustomerCursor.decode(actual.nextCursor(), byName))
+                .isEqualTo(new CustomerCursor(byName, "Ben", 2));
+    }
+
+    @Test
+    void getCustomerPageWillThrowForInvalidParameters() {
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getCustomerPage(
+                new CustomerListRequest(40, 30, null, null, null, null, null)
+        )).isInstanceOf(RequestValidationException.class);
+        assertThatThrownBy(() -> underTest.getCustomerPage(
+                new CustomerListRequest(null, null, null, null, "email", null, null)
+        )).isInstanceOf(RequestValidationException.class);
+        assertThatThrownBy(() -> underTest.getCustomerPage(
+                new CustomerListRequest(null, null, null, null, "age", "not a cursor", null)
+        )).isInstanceOf(RequestValidationException.class);
+        verify(customerDao, never()).selectCustomers(any());
+    }
+
     @Test
     void getCustomerWithGivenId() {
         // Given
         Integer id = 42;
-        Customer customer = new Customer(
+        CustomerView customer = new CustomerView(
             id, "Foo", "fUQp2@example.com", 20
         );
         when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
 
         // When
-        Customer actual = underTest.getCustomer(id);
+        CustomerView actual = underTest.getCustomer(id);
 
         // Then
         assertThat(actual).isEqualTo(customer);
@@ -84,6 +157,11 @@ class CustomerServiceTest {
         // Given
         String email = "fUQp2@example.com";
         when(customerDao.existsCustomerWithEmail(email)).thenReturn(false);
+        // The DAO sets the generated id
+        doAnswer(invocation -> {
+            invocation.<Customer>getArgument(0).setId(7);
+            return null;
+        }).when(customerDao).insertCustomer(any());
 
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
             "Foo", email, 20
@@ -101,11 +179,13 @@ class CustomerServiceTest {
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
         assertThat(capturedCustomer)
-                .hasFieldOrPropertyWithValue("id", null)
                 .hasFieldOrPropertyWithValue("name", "Foo")
                 .hasFieldOrPropertyWithValue("email", email)
                 .hasFieldOrPropertyWithValue("age", 20);
 
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(
+                CustomerChangedEvent.Type.CREATED, 7, new CustomerView(7, "Foo", email, 20)
+        ));
     }
 
     @Test
@@ -125,6 +205,7 @@ class CustomerServiceTest {
 
         // Then
         verify(customerDao, never()).insertCustomer(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -138,6 +219,7 @@ class CustomerServiceTest {
 
         // Then
         verify(customerDao).deleteCustomerWithId(id);
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(CustomerChangedEvent.Type.DELETED, id, null));
     }
 
     @Test
@@ -155,6 +237,25 @@ class CustomerServiceTest {
         verify(customerDao, never()).deleteCustomerWithId(id);
     }
 
+    @Test
+    void updateCustomerReadsExistingCustomerFromPrimary() {
+        // Given
+        Integer id = 42;
+        CustomerUpdateRequest request = new CustomerUpdateRequest("Foo", null, null);
+        List<DataSourceRoute> routes = new ArrayList<>();
+        when(customerDao.selectCustomerById(id)).thenAnswer(invocation -> {
+            routes.add(DataSourceRouting.current());
+            return Optional.of(new CustomerView(id, "Bar", "bar@example.com", 24));
+        });
+
+        // When
+        underTest.updateCustomer(id, request);
+
+        // Then
+        assertThat(routes).containsExactly(DataSourceRoute.PRIMARY);
+        assertThat(DataSourceRouting.current()).isNull();
+    }
+
     @Test
     void canUpdateAllCustomerProperties() {
         // Given
@@ -162,7 +263,7 @@ class CustomerServiceTest {
         CustomerUpdateRequest request = new CustomerUpdateRequest(
                 "Foo", "foo@example.com", 20
         );
-        Optional<Customer> customer = Optional.of(new Customer(id, "Bar", "bar@example.com", 24));
+        Optional<CustomerView> customer = Optional.of(new CustomerView(id, "Bar", "bar@example.com", 24));
         when(customerDao.selectCustomerById(id)).thenReturn(customer);
         when(customerDao.existsCustomerWithEmail(request.email())).thenReturn(false);
 
@@ -189,7 +290,7 @@ class CustomerServiceTest {
         // Given
         Integer id = 42;
         CustomerUpdateRequest request = new CustomerUpdateRequest("Foo", null, null);
-        Optional<Customer> customer = Optional.of(new Customer(id, "Bar", "bar@example.com", 24));
+        Optional<CustomerView> customer = Optional.of(new CustomerView(id, "Bar", "bar@example.com", 24));
         when(customerDao.selectCustomerById(id)).thenReturn(customer);
 
         // When
@@ -206,8 +307,8 @@ class CustomerServiceTest {
         assertThat(capturedCustomer)
                 .hasFieldOrPropertyWithValue("id", id)
                 .hasFieldOrPropertyWithValue("name", request.name())
-                .hasFieldOrPropertyWithValue("email", customer.get().getEmail())
-                .hasFieldOrPropertyWithValue("age", customer.get().getAge());
+                .hasFieldOrPropertyWithValue("email", customer.get().email())
+                .hasFieldOrPropertyWithValue("age", customer.get().age());
     }
 
     @Test
@@ -216,7 +317,7 @@ class CustomerServiceTest {
         Integer id = 42;
         String email = "foo@example.com";
         CustomerUpdateRequest request = new CustomerUpdateRequest(null, email, null);
-        Optional<Customer> customer = Optional.of(new Customer(id, "Bar", "bar@example.com", 24));
+        Optional<CustomerView> customer = Optional.of(new CustomerView(id, "Bar", "bar@example.com", 24));
         when(customerDao.selectCustomerById(id)).thenReturn(customer);
         when(customerDao.existsCustomerWithEmail(email)).thenReturn(false);
 
@@ -233,9 +334,9 @@ class CustomerServiceTest {
 
         assertThat(capturedCustomer)
                 .hasFieldOrPropertyWithValue("id", id)
-                .hasFieldOrPropertyWithValue("name", customer.get().getName())
+                .hasFieldOrPropertyWithValue("name", customer.get().name())
                 .hasFieldOrPropertyWithValue("email", email)
-                .hasFieldOrPropertyWithValue("age", customer.get().getAge());
+                .hasFieldOrPropertyWithValue("age", customer.get().age());
     }
 
     @Test
@@ -243,7 +344,7 @@ class CustomerServiceTest {
         // Given
         Integer id = 42;
         CustomerUpdateRequest request = new CustomerUpdateRequest(null, null, 99);
-        Optional<Customer> customer = Optional.of(new Customer(id, "Bar", "bar@example.com", 24));
+        Optional<CustomerView> customer = Optional.of(new CustomerView(id, "Bar", "bar@example.com", 24));
         when(customerDao.selectCustomerById(id)).thenReturn(customer);
 
         // When
@@ -259,8 +360,8 @@ class CustomerServiceTest {
 
         assertThat(capturedCustomer)
                 .hasFieldOrPropertyWithValue("id", id)
-                .hasFieldOrPropertyWithValue("name", customer.get().getName())
-                .hasFieldOrPropertyWithValue("email", customer.get().getEmail())
+                .hasFieldOrPropertyWithValue("name", customer.get().name())
+                .hasFieldOrPropertyWithValue("email", customer.get().email())
                 .hasFieldOrPropertyWithValue("age", request.age());
     }
 
@@ -293,7 +394,7 @@ class CustomerServiceTest {
                 "Foo", "fUQp2@example.com", 20
         );
         when(customerDao.selectCustomerById(id)).thenReturn(
-                Optional.of(new Customer(id, "Foo", "fUQp2@example.com", 20))
+                Optional.of(new CustomerView(id, "Foo", "fUQp2@example.com", 20))
         );
 
         // When
@@ -314,7 +415,7 @@ class CustomerServiceTest {
                 "Foo", email, 20
         );
         when(customerDao.selectCustomerById(id)).thenReturn(
-                Optional.of(new Customer(id, "Foo", "anotherfUQp2@example.com", 20))
+                Optional.of(new CustomerView(id, "Foo", "anotherfUQp2@example.com", 20))
         );
         when(customerDao.existsCustomerWithEmail(email)).thenReturn(true);
 
@@ -0,0 +1,146 @@
+package com.codemountain.datasource;
+
+import com.codemountain.AbstractTestcontainers;
+import com.codemountain.customer.CustomerJDBCDataAccessService;
+import com.codemountain.customer.CustomerRowMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+Uses two independent Postgres instances as primary and replica.
+A row that only exists on the replica shows which one served a read.
+ */
+
+class ReadWriteRoutingDataSourceTest extends AbstractTestcontainers {
+
+    @Container
+    private static final PostgreSQLContainer<?> replicaContainer =
+            new PostgreSQLContainer<>("postgres:latest")
+                    .withDatabaseName("codemountain-dao-unit-test-replica")
+                    .withUsername("codemountain")
+                    .withPassword("password");
+
+    private static final String COUNT_BY_EMAIL = "SELECT count(*) FROM customer WHERE email = ?";
+
+    private final String replicaOnlyEmail = "replica-" + UUID.randomUUID() + "@codemountain.com";
+    private ReadYourWritesTracker readYourWritesTracker;
+    private JdbcTemplate routedJdbcTemplate;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(
+                        replicaContainer.getJdbcUrl(),
+                        replicaContainer.getUsername(),
+                        replicaContainer.getPassword()
+                ).load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = dataSource(postgreSQLContainer);
+        DataSource replica = dataSource(replicaContainer);
+
+        new JdbcTemplate(replica).update(
+                "INSERT INTO customer(name, email, age) VALUES (?, ?, ?)",
+                "Replica Only", replicaOnlyEmail, 30
+        );
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(
+                primary, List.of("replica-0"), List.of(replica), Duration.ofSeconds(5)
+        );
+        lagMonitor.checkLag();
+        readYourWritesTracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+
+        ReadWriteRoutingDataSource routingDataSource =
+                new ReadWriteRoutingDataSource(lagMonitor, readYourWritesTracker);
+        routingDataSource.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.PRIMARY_KEY, primary,
+                "replica-0", replica
+        ));
+        routingDataSource.afterPropertiesSet();
+        routedJdbcTemplate = new JdbcTemplate(routingDataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readsRoutedToReplicaHitTheReplica() {
+        // When
+        Integer actual = DataSourceRouting.with(DataSourceRoute.REPLICA,
+                () -> routedJdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, replicaOnlyEmail));
+
+        // Then
+        assertThat(actual).isEqualTo(1);
+    }
+
+    @Test
+    void unroutedWorkHitsThePrimary() {
+        // When
+        Integer actual = routedJdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, replicaOnlyEmail);
+
+        // Then
+        assertThat(actual).isZero();
+    }
+
+    @Test
+    void readsStayOnPrimaryAfterClientWrote() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ReadYourWritesTracker.CLIENT_ID_HEADER, "client-a");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        readYourWritesTracker.recordWrite();
+
+        // When
+        Integer actual = DataSourceRouting.with(DataSourceRoute.REPLICA,
+                () -> routedJdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, replicaOnlyEmail));
+
+        // Then
+        assertThat(actual).isZero();
+    }
+
+    @Test
+    void customerDaoReadsAreRoutedToReplica() {
+        // Given
+        ReplicaRoutingCustomerDao underTest = new ReplicaRoutingCustomerDao(
+                new CustomerJDBCDataAccessService(routedJdbcTemplate, new CustomerRowMapper()),
+                readYourWritesTracker
+        );
+
+        // When
+        boolean actual = underTest.existsCustomerWithEmail(replicaOnlyEmail);
+
+        // Then
+        assertThat(actual).isTrue();
+    }
+
+    private static DataSource dataSource(PostgreSQLContainer<?> container) {
+        return new DriverManagerDataSource(
+                container.getJdbcUrl(),
+                container.getUsername(),
+                container.getPassword()
+        );
+    }
+}
@@ -0,0 +1,203 @@
+package com.codemountain.idempotency;
+
+import com.codemountain.AbstractTestcontainers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest extends AbstractTestcontainers {
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyFilter underTest;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyStore store = new IdempotencyStore(
+                getJdbcTemplate(),
+                Duration.ofHours(1),
+                Duration.ofSeconds(10),
+                100
+        );
+        underTest = new IdempotencyFilter(
+                store,
+                Duration.ofSeconds(10),
+                new DefaultErrorAttributes(),
+                new SimpleMeterRegistry()
+        );
+    }
+
+    @Test
+    void retryReplaysStoredResponse() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        HttpServlet servlet = respondingWith(201, "{\"id\":7}");
+        MockHttpServletResponse first = send(key, "{\"name\":\"Alex\"}", servlet);
+
+        // When
+        MockHttpServletResponse retry = send(key, "{\"name\":\"Alex\"}", servlet);
+
+        // Then
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(first.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"id\":7}");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void retryReplaysErrorWithItsMessage() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                executions.incrementAndGet();
+                response.sendError(409, "Email already taken.");
+            }
+        };
+        send(key, "{}", servlet);
+
+        // When
+        MockHttpServletResponse retry = send(key, "{}", servlet);
+
+        // Then
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(409);
+        assertThat(retry.getErrorMessage()).isEqualTo("Email already taken.");
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        HttpServlet servlet = respondingWith(200, "");
+        send(key, "{\"name\":\"Alex\"}", servlet);
+
+        // When
+        MockHttpServletResponse actual = send(key, "{\"name\":\"Sam\"}", servlet);
+
+        // Then
+        assertThat(executions).hasValue(1);
+        assertThat(actual.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void serverErrorsAreNotStored() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        send(key, "{}", respondingWith(503, ""));
+
+        // When
+        MockHttpServletResponse retry = send(key, "{}", respondingWith(200, "ok"));
+
+        // Then
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(200);
+        assertThat(retry.getContentAsString()).isEqualTo("ok");
+    }
+
+    @Test
+    void concurrentRetryWaitsForFirstExecution() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                executions.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response.setStatus(200);
+                response.getOutputStream().write("done".getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        CompletableFuture<MockHttpServletResponse> first =
+                CompletableFuture.supplyAsync(() -> sendUnchecked(key, "{}", servlet));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<MockHttpServletResponse> retry =
+                CompletableFuture.supplyAsync(() -> sendUnchecked(key, "{}", servlet));
+        Thread.sleep(200);
+        release.countDown();
+
+        // Then
+        assertThat(first.get(10, TimeUnit.SECONDS).getContentAsString()).isEqualTo("done");
+        assertThat(retry.get(10, TimeUnit.SECONDS).getContentAsString()).isEqualTo("done");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void requestWhoseClaimWasTakenOverCannotStoreOrReleaseIt() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        IdempotencyStore store = new IdempotencyStore(getJdbcTemplate(), Duration.ofHours(1), Duration.ZERO, 100);
+        UUID slowClaim = store.claim(key, "fingerprint").orElseThrow();
+        Thread.sleep(10);
+        UUID retryClaim = store.claim(key, "fingerprint").orElseThrow();
+        IdempotentResponse response = new IdempotentResponse("fingerprint", 201, null, new byte[0], false, null);
+
+        // When
+        store.release(key, slowClaim);
+        boolean completedBySlowRequest = store.complete(key, slowClaim, response);
+        boolean completedByRetry = store.complete(key, retryClaim, response);
+
+        // Then
+        assertThat(retryClaim).isNotEqualTo(slowClaim);
+        assertThat(completedBySlowRequest).isFalse();
+        assertThat(completedByRetry).isTrue();
+        assertThat(store.find(key)).hasValue(response);
+    }
+
+    private HttpServlet respondingWith(int status, String body) {
+        return new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                executions.incrementAndGet();
+                response.setStatus(status);
+                response.setContentType("application/json");
+                response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    private MockHttpServletResponse send(String key, String body, HttpServlet servlet) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/customers");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private MockHttpServletResponse sendUnchecked(String key, String body, HttpServlet servlet) {
+        try {
+            return send(key, body, servlet);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.codemountain.jfr;
+
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerView;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JfrCustomerDaoTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    @TempDir
+    private Path tempDir;
+    private JfrCustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new JfrCustomerDao(customerDao, "jdbc");
+    }
+
+    @Test
+    void callsAreRecordedWithMethodDaoAndRows() throws IOException {
+        // Given
+        List<CustomerView> customers = List.of(
+                new CustomerView(1, "Foo", "foo@gmail.com", 20),
+                new CustomerView(2, "Bar", "bar@gmail.com", 30)
+        );
+        when(customerDao.selectCustomersByIds(List.of(1, 2, 3))).thenReturn(customers);
+        when(customerDao.selectCustomerById(4)).thenReturn(Optional.empty());
+
+        // When
+        List<RecordedEvent> events = record(() -> {
+            underTest.selectCustomersByIds(List.of(1, 2, 3));
+            underTest.selectCustomerById(4);
+        });
+
+        // Then
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getString("method")).isEqualTo("selectCustomersByIds");
+        assertThat(events.get(0).getString("dao")).isEqualTo("jdbc");
+        assertThat(events.get(0).getInt("rows")).isEqualTo(2);
+        assertThat(events.get(0).getBoolean("failed")).isFalse();
+        assertThat(events.get(1).getString("method")).isEqualTo("selectCustomerById");
+        assertThat(events.get(1).getInt("rows")).isZero();
+    }
+
+    @Test
+    void failedCallsAreRecordedAsFailed() throws IOException {
+        // Given
+        when(customerDao.existsCustomerWithId(1)).thenThrow(new IllegalStateException("connection refused"));
+
+        // When
+        List<RecordedEvent> events = record(() -> assertThatThrownBy(() -> underTest.existsCustomerWithId(1))
+                .isInstanceOf(IllegalStateException.class));
+
+        // Then
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getString("method")).isEqualTo("existsCustomerWithId");
+            assertThat(event.getBoolean("failed")).isTrue();
+        });
+    }
+
+    private List<RecordedEvent> record(Runnable calls) throws IOException {
+        Path file = tempDir.resolve("customer-dao.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CustomerDaoEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file)
+                .stream()
+                .filter(event -> event.getEventType().getName().equals(CustomerDaoEvent.NAME))
+                .toList();
+    }
+}
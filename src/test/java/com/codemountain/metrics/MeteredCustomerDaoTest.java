@@ -0,0 +1,81 @@
+package com.codemountain.metrics;
+
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerDao;
+import com.codemountain.customer.CustomerView;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredCustomerDaoTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredCustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new MeteredCustomerDao(customerDao, "jdbc", meterRegistry);
+    }
+
+    @Test
+    void selectCustomerByIdIsTimedAndDelegated() {
+        // Given
+        CustomerView customer = new CustomerView(1, "Foo", "foo@gmail.com", 20);
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+        // When
+        Optional<CustomerView> actual = underTest.selectCustomerById(1);
+
+        // Then
+        assertThat(actual).contains(customer);
+        assertThat(timer("selectCustomerById").count()).isEqualTo(1);
+    }
+
+    @Test
+    void existsCustomerWithEmailIsTimedAndDelegated() {
+        // Given
+        String email = "foo@gmail.com";
+        when(customerDao.existsCustomerWithEmail(email)).thenReturn(true);
+
+        // When
+        boolean actual = underTest.existsCustomerWithEmail(email);
+
+        // Then
+        assertThat(actual).isTrue();
+        assertThat(timer("existsCustomerWithEmail").count()).isEqualTo(1);
+    }
+
+    @Test
+    void updateCustomerIsTimedAndDelegated() {
+        // Given
+        Customer customer = new Customer(1, "Foo", "foo@gmail.com", 20);
+
+        // When
+        underTest.updateCustomer(customer);
+
+        // Then
+        verify(customerDao).updateCustomer(customer);
+        assertThat(timer("updateCustomer").count()).isEqualTo(1);
+    }
+
+    private Timer timer(String method) {
+        return meterRegistry.get(MeteredCustomerDao.METRIC_NAME)
+                .tag("dao", "jdbc")
+                .tag("method", method)
+                .timer();
+    }
+}
@@ -0,0 +1,47 @@
+package com.codemountain.metrics;
+
+import com.codemountain.customer.CustomerListDataAccessService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AutowireCandidateQualifier;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsConfigTest {
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @BeforeEach
+    void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("jdbc", new RootBeanDefinition(CustomerListDataAccessService.class));
+        beanFactory.registerBeanDefinition("list", new RootBeanDefinition(CustomerListDataAccessService.class));
+    }
+
+    @Test
+    void activeDaoIsTheBeanNamedAfterTheQualifier() {
+        // When
+        String actual = MetricsConfig.activeDao(beanFactory);
+
+        // Then
+        assertThat(actual).isEqualTo("jdbc");
+    }
+
+    @Test
+    void activeDaoIsThePrimaryBeanCarryingTheQualifier() {
+        // Given
+        RootBeanDefinition sharded = new RootBeanDefinition(CustomerListDataAccessService.class);
+        sharded.addQualifier(new AutowireCandidateQualifier(Qualifier.class, "jdbc"));
+        sharded.setPrimary(true);
+        beanFactory.registerBeanDefinition("sharded", sharded);
+
+        // When
+        String actual = MetricsConfig.activeDao(beanFactory);
+
+        // Then
+        assertThat(actual).isEqualTo("sharded");
+    }
+}
@@ -0,0 +1,154 @@
+package com.codemountain.responsecache;
+
+import com.codemountain.customer.CustomerChangedEvent;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerResponseCacheFilterTest {
+
+    private static final String BODY = "{\"id\":7,\"name\":\"Alex\",\"email\":\"alex@codemountain.com\",\"age\":28}";
+
+    private final AtomicInteger renders = new AtomicInteger();
+    private CustomerResponseCache cache;
+    private CustomerResponseCacheFilter underTest;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CustomerResponseCache(
+                Caffeine.newBuilder()
+                        .maximumWeight(1024 * 1024)
+                        .weigher((Integer customerId, CachedResponse response) -> response.weight())
+                        .build(),
+                true,
+                16
+        );
+        underTest = new CustomerResponseCacheFilter(cache);
+    }
+
+    @Test
+    void secondRequestIsServedFromCache() throws Exception {
+        // Given
+        MockHttpServletResponse first = get(7, null);
+
+        // When
+        MockHttpServletResponse second = get(7, null);
+
+        // Then
+        assertThat(renders).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getContentType()).isEqualTo(first.getContentType());
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo(BODY);
+    }
+
+    @Test
+    void gzipClientsGetPrecompressedBody() throws Exception {
+        // Given
+        get(7, null);
+
+        // When
+        MockHttpServletResponse actual = get(7, "gzip, deflate");
+
+        // Then
+        assertThat(renders).hasValue(1);
+        assertThat(actual.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(actual.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(actual.getContentAsByteArray()))) {
+            assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void customerChangeEvictsCachedResponse() throws Exception {
+        // Given
+        get(7, null);
+        get(8, null);
+
+        // When
+        cache.onCustomerChanged(new CustomerChangedEvent(CustomerChangedEvent.Type.DELETED, 7, null));
+        get(7, null);
+        get(8, null);
+
+        // Then
+        assertThat(renders).hasValue(3);
+    }
+
+    @Test
+    void invalidationWhileRenderingIsNotUndone() throws Exception {
+        // Given
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                renders.incrementAndGet();
+                cache.onCustomersChanged(List.of(7));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        send(7, null, servlet);
+
+        // When
+        send(7, null, servlet);
+
+        // Then
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void errorsAreNotCached() throws Exception {
+        // Given
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                renders.incrementAndGet();
+                response.sendError(404, "Customer with id [7] was not found.");
+            }
+        };
+        send(7, null, servlet);
+
+        // When
+        MockHttpServletResponse actual = send(7, null, servlet);
+
+        // Then
+        assertThat(renders).hasValue(2);
+        assertThat(actual.getStatus()).isEqualTo(404);
+    }
+
+    private MockHttpServletResponse get(int customerId, String acceptEncoding) throws Exception {
+        return send(customerId, acceptEncoding, new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                renders.incrementAndGet();
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    private MockHttpServletResponse send(int customerId, String acceptEncoding, HttpServlet servlet) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/" + customerId);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+}
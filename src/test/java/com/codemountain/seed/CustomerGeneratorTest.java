@@ -0,0 +1,74 @@
+package com.codemountain.seed;
+
+import com.codemountain.customer.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerGeneratorTest {
+
+    @Test
+    void emailsAreUniqueAcrossShards() {
+        // Given
+        int shards = 4;
+        Set<String> emails = new HashSet<>();
+
+        // When
+        for (int shard = 0; shard < shards; shard++) {
+            CustomerGenerator underTest = new CustomerGenerator(shard, "run");
+            for (long sequence = shard; sequence < 20_000; sequence += shards) {
+                emails.add(underTest.next(sequence).getEmail());
+            }
+        }
+
+        // Then
+        assertThat(emails).hasSize(20_000);
+    }
+
+    @Test
+    void emailsAreUniqueAcrossRuns() {
+        // Given
+        CustomerGenerator firstRun = new CustomerGenerator(0, "first");
+        CustomerGenerator secondRun = new CustomerGenerator(0, "second");
+
+        // When
+        String first = firstRun.next(7).getEmail();
+        String second = secondRun.next(7).getEmail();
+
+        // Then
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    void appendCsvQuotesTheName() {
+        // Given
+        CustomerGenerator underTest = new CustomerGenerator(0, "run");
+        StringBuilder buffer = new StringBuilder();
+
+        // When
+        underTest.appendCsv(7, buffer);
+
+        // Then
+        assertThat(buffer.toString())
+                .startsWith("\"")
+                .endsWith("\n")
+                .contains(".7@codemountain.com,");
+    }
+
+    @Test
+    void generatedCustomersAreValid() {
+        // Given
+        CustomerGenerator underTest = new CustomerGenerator(1, "run");
+
+        // When
+        Customer actual = underTest.next(42);
+
+        // Then
+        assertThat(actual.getName()).isNotBlank();
+        assertThat(actual.getEmail()).endsWith(".42@codemountain.com");
+        assertThat(actual.getAge()).isBetween(16, 75);
+    }
+}
@@ -0,0 +1,214 @@
+package com.codemountain.shard;
+
+import com.codemountain.AbstractTestcontainers;
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerRowMapper;
+import com.codemountain.customer.CustomerView;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+Runs the shards as separate databases inside the Testcontainers Postgres.
+ */
+
+class ShardedCustomerDaoTest extends AbstractTestcontainers {
+
+    private static final int SHARD_COUNT = 3;
+
+    private static CustomerShards shards;
+    private static List<JdbcTemplate> shardJdbcTemplates;
+
+    private ShardedCustomerDao underTest;
+
+    @BeforeAll
+    static void createShards() {
+        JdbcTemplate admin = new JdbcTemplate(dataSource(postgreSQLContainer.getDatabaseName()));
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            admin.execute("CREATE DATABASE customer_shard_" + shard);
+            dataSources.add(dataSource("customer_shard_" + shard));
+        }
+
+        shards = new CustomerShards(dataSources);
+        shards.migrate();
+        shardJdbcTemplates = dataSources.stream().map(JdbcTemplate::new).toList();
+    }
+
+    @AfterAll
+    static void closeShards() {
+        shards.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ShardedCustomerDao(shards, new CustomerRowMapper());
+    }
+
+    @Test
+    void insertCustomerStoresRowOnShardEncodedInId() {
+        // Given
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            emails.add(newEmail());
+        }
+
+        // When
+        emails.forEach(email -> underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20)));
+
+        // Then
+        for (String email : emails) {
+            Integer id = idOf(email);
+            assertThat(shards.shardOfId(id)).isEqualTo(shards.shardOfEmail(email));
+            assertThat(underTest.selectCustomerById(id))
+                    .hasValueSatisfying(customer -> assertThat(customer.email()).isEqualTo(email));
+        }
+    }
+
+    @Test
+    void selectAllCustomersMergesShardsInIdOrder() {
+        // Given
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            String email = newEmail();
+            emails.add(email);
+            underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+        }
+
+        // When
+        List<CustomerView> actual = underTest.selectAllCustomers();
+
+        // Then
+        assertThat(actual).extracting(CustomerView::email).containsAll(emails);
+        assertThat(actual).extracting(CustomerView::id).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void insertCustomerWithTakenEmailCanThrow() {
+        // Given
+        String email = newEmail();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 40)))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(underTest.selectAllCustomers())
+                .filteredOn(customer -> customer.email().equals(email))
+                .hasSize(1);
+    }
+
+    @Test
+    void updateCustomerEmailMovesClaimToNewEmailShard() {
+        // Given
+        String email = newEmail();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+        Integer id = idOf(email);
+
+        String newEmail = newEmail();
+        while (shards.shardOfEmail(newEmail) == shards.shardOfEmail(email)) {
+            newEmail = newEmail();
+        }
+        CustomerView existing = underTest.selectCustomerById(id).orElseThrow();
+        Customer update = new Customer(id, existing.name(), newEmail, existing.age());
+
+        // When
+        underTest.updateCustomer(update);
+
+        // Then
+        assertThat(underTest.existsCustomerWithEmail(email)).isFalse();
+        assertThat(underTest.existsCustomerWithEmail(newEmail)).isTrue();
+        assertThat(underTest.selectCustomerById(id))
+                .hasValueSatisfying(customer -> assertThat(customer.email()).isEqualTo(update.getEmail()));
+    }
+
+    @Test
+    void updateCustomerToTakenEmailCanThrow() {
+        // Given
+        String email = newEmail();
+        String takenEmail = newEmail();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), takenEmail, 20));
+        Integer id = idOf(email);
+
+        CustomerView existing = underTest.selectCustomerById(id).orElseThrow();
+        Customer update = new Customer(id, existing.name(), takenEmail, existing.age());
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.updateCustomer(update))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(underTest.selectCustomerById(id))
+                .hasValueSatisfying(customer -> assertThat(customer.email()).isEqualTo(email));
+    }
+
+    @Test
+    void selectCustomersByIdsQueriesOnlyShardsHoldingTheIds() {
+        // Given
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            String email = newEmail();
+            underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+            ids.add(idOf(email));
+        }
+
+        // When
+        List<CustomerView> actual = underTest.selectCustomersByIds(ids);
+
+        // Then
+        assertThat(actual).extracting(CustomerView::id).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(underTest.selectCustomersByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    void deleteCustomerWithIdReleasesEmailAndLeavesTombstone() {
+        // Given
+        String email = newEmail();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+        Integer id = idOf(email);
+
+        // When
+        underTest.deleteCustomerWithId(id);
+
+        // Then
+        assertThat(underTest.existsCustomerWithId(id)).isFalse();
+        assertThat(underTest.existsCustomerWithEmail(email)).isFalse();
+        assertThat(shardJdbcTemplates.get(shards.shardOfId(id)).queryForObject(
+                "SELECT count(*) FROM customer_tombstone WHERE customer_id = ?",
+                Integer.class,
+                id
+        )).isEqualTo(1);
+    }
+
+    private Integer idOf(String email) {
+        return shardJdbcTemplates.get(shards.shardOfEmail(email)).queryForObject(
+                "SELECT customer_id FROM customer_email_directory WHERE email = ?",
+                Integer.class,
+                email
+        );
+    }
+
+    private static String newEmail() {
+        return FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+    }
+
+    private static DataSource dataSource(String databaseName) {
+        return new DriverManagerDataSource(
+                postgreSQLContainer.getJdbcUrl().replace(postgreSQLContainer.getDatabaseName(), databaseName),
+                postgreSQLContainer.getUsername(),
+                postgreSQLContainer.getPassword()
+        );
+    }
+}
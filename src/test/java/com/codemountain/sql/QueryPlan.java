@@ -0,0 +1,46 @@
+package com.codemountain.sql;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/*
+The parts of an EXPLAIN (FORMAT JSON) plan the query plan guard looks at:
+the estimated total cost of the statement, the relations read by
+sequential scans and the indexes it uses, across every node of the plan.
+ */
+
+public record QueryPlan(double totalCost, Set<String> seqScans, Set<String> indexes, String json) {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static QueryPlan parse(String json) {
+        JsonNode root;
+        try {
+            root = OBJECT_MAPPER.readTree(json).get(0).get("Plan");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Set<String> seqScans = new LinkedHashSet<>();
+        Set<String> indexes = new LinkedHashSet<>();
+        collect(root, seqScans, indexes);
+        return new QueryPlan(root.get("Total Cost").asDouble(), seqScans, indexes, json);
+    }
+
+    // Init plans, CTEs and partitions all show up as child plans
+    private static void collect(JsonNode node, Set<String> seqScans, Set<String> indexes) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            seqScans.add(node.get("Relation Name").asText());
+        }
+        if (node.has("Index Name")) {
+            indexes.add(node.get("Index Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, seqScans, indexes);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.codemountain.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.assertj.core.api.SoftAssertions;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+Guards the plans of the statements DAOs issue. The statements are captured
+with their bind parameters while the DAO runs against a DataSource wrapped
+with capturingDataSource, then explained with the same parameters, so the
+planner sees what it sees in production: custom plans with partition pruning.
+ */
+
+public final class QueryPlanAssertions {
+
+    public record CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+    private QueryPlanAssertions() {
+    }
+
+    public static DataSource capturingDataSource(DataSource dataSource) {
+        return ProxyDataSourceBuilder.create(dataSource)
+                .listener(new QueryExecutionListener() {
+                    @Override
+                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                    }
+
+                    @Override
+                    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                        List<CapturedStatement> captured = CAPTURED.get();
+                        if (captured == null) {
+                            return;
+                        }
+                        for (QueryInfo queryInfo : queryInfoList) {
+                            List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+                                    ? List.of()
+                                    : List.copyOf(queryInfo.getParametersList().get(0));
+                            captured.add(new CapturedStatement(queryInfo.getQuery(), parameters));
+                        }
+                    }
+                })
+                .build();
+    }
+
+    // The one statement the operation issues
+    public static CapturedStatement captureStatement(Runnable operation) {
+        List<CapturedStatement> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            operation.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        assertThat(captured).as("statements issued").hasSize(1);
+        return captured.get(0);
+    }
+
+    public static QueryPlan explain(JdbcTemplate jdbcTemplate, CapturedStatement statement) {
+        String sql = statement.sql().strip();
+        if (sql.endsWith(";")) {
+            sql = sql.substring(0, sql.length() - 1);
+        }
+        String json = jdbcTemplate.query(
+                "EXPLAIN (FORMAT JSON) " + sql,
+                preparedStatement -> bind(preparedStatement, statement.parameters()),
+                resultSet -> resultSet.next() ? resultSet.getString(1) : null
+        );
+        return QueryPlan.parse(json);
+    }
+
+    /*
+    Fails on every statement that scans a relation of at least seqScanRows
+    rows sequentially, lost a required index, plans above its budget or has
+    no budget at all. A budget without a measured cost fails as well, so the
+    test stays red until a measured baseline is committed. In update mode
+    the budgets are rewritten instead.
+     */
+    public static void assertPlansWithinBaseline(JdbcTemplate jdbcTemplate,
+                                                 Map<String, CapturedStatement> statements,
+                                                 QueryPlanBaseline baseline,
+                                                 long seqScanRows) {
+        SoftAssertions softly = new SoftAssertions();
+        statements.forEach((name, statement) -> {
+            QueryPlan plan = explain(jdbcTemplate, statement);
+            if (QueryPlanBaseline.UPDATE) {
+                baseline.update(name, plan);
+                return;
+            }
+
+            QueryPlanBaseline.Budget budget = baseline.budget(name);
+            softly.assertThat(budget)
+                    .as("baseline of %s, run with -Dquery-plans.update=true to add it", name)
+                    .isNotNull();
+            if (budget == null) {
+                return;
+            }
+            if (!budget.seqScanAllowed()) {
+                softly.assertThat(plan.seqScans())
+                        .as("relations %s scans sequentially\n%s", name, plan.json())
+                        .allSatisfy(relation -> assertThat(estimatedRows(jdbcTemplate, relation))
+                                .as("estimated rows of %s", relation)
+                                .isLessThan(seqScanRows));
+            }
+            softly.assertThat(plan.indexes())
+                    .as("indexes %s uses\n%s", name, plan.json())
+                    .containsAll(budget.requiredIndexes());
+            softly.assertThat(budget.isMeasured())
+                    .as("measured cost budget of %s, run with -Dquery-plans.update=true and commit the baseline", name)
+                    .isTrue();
+            if (!budget.isMeasured()) {
+                return;
+            }
+            softly.assertThat(plan.totalCost())
+                    .as("estimated cost of %s\n%s", name, plan.json())
+                    .isLessThanOrEqualTo(budget.maxCost());
+        });
+
+        if (QueryPlanBaseline.UPDATE) {
+            baseline.save();
+            return;
+        }
+        softly.assertAll();
+    }
+
+    private static long estimatedRows(JdbcTemplate jdbcTemplate, String relation) {
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE relname = ?", Long.class, relation
+        );
+        return rows == null ? 0 : rows;
+    }
+
+    // Replays the setter calls of the captured statement, arrays are recreated on this connection
+    private static void bind(PreparedStatement preparedStatement,
+                             List<ParameterSetOperation> parameters) throws SQLException {
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs().clone();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof Array array) {
+                    args[i] = preparedStatement.getConnection()
+                            .createArrayOf(array.getBaseTypeName(), (Object[]) array.getArray());
+                }
+            }
+            try {
+                parameter.getMethod().invoke(preparedStatement, args);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new SQLException("Could not bind " + parameter.getMethod().getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.codemountain.sql;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+Plan budgets per statement, kept in src/test/resources/query-plans.
+maxCost: the highest estimated total cost the statement may plan at,
+absent until it has been measured.
+seqScanAllowed: for statements that read the whole table on purpose.
+requiredIndexes: indexes the plan must keep using.
+Running the tests with -Dquery-plans.update=true rewrites maxCost from the
+measured plans, with some headroom for statistics noise, and keeps the rest.
+Costs are only comparable to plans of the same Postgres version and seed,
+so they are never written by hand.
+ */
+
+public final class QueryPlanBaseline {
+
+    public record Budget(Double maxCost, boolean seqScanAllowed, List<String> requiredIndexes) {
+
+        public Budget {
+            requiredIndexes = requiredIndexes == null ? List.of() : List.copyOf(requiredIndexes);
+        }
+
+        public boolean isMeasured() {
+            return maxCost != null;
+        }
+    }
+
+    public static final boolean UPDATE = Boolean.getBoolean("query-plans.update");
+
+    private static final double HEADROOM = 1.5;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+
+    private final String resource;
+    private final Map<String, Budget> budgets;
+
+    private QueryPlanBaseline(String resource, Map<String, Budget> budgets) {
+        this.resource = resource;
+        this.budgets = budgets;
+    }
+
+    public static QueryPlanBaseline load(String resource) {
+        try (InputStream input = QueryPlanBaseline.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                return new QueryPlanBaseline(resource, new TreeMap<>());
+            }
+            Map<String, Budget> budgets = OBJECT_MAPPER.readValue(input, new TypeReference<TreeMap<String, Budget>>() {
+            });
+            return new QueryPlanBaseline(resource, budgets);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Budget budget(String statement) {
+        return budgets.get(statement);
+    }
+
+    public void update(String statement, QueryPlan plan) {
+        Budget budget = budgets.get(statement);
+        double maxCost = Math.max(1, Math.ceil(plan.totalCost() * HEADROOM));
+        budgets.put(statement, budget == null
+                ? new Budget(maxCost, false, List.of())
+                : new Budget(maxCost, budget.seqScanAllowed(), budget.requiredIndexes()));
+    }
+
+    // Relative to the module directory, which is where surefire runs the tests
+    public void save() {
+        Path file = Path.of("src", "test", "resources").resolve(resource);
+        try {
+            Files.createDirectories(file.getParent());
+            OBJECT_MAPPER.writeValue(file.toFile(), budgets);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
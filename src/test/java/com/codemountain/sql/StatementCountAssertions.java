@@ -0,0 +1,40 @@
+package com.codemountain.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+Lets DAO tests pin the number of statements an operation issues.
+The DataSource under test has to be wrapped with countingDataSource.
+ */
+
+public final class StatementCountAssertions {
+
+    private StatementCountAssertions() {
+    }
+
+    public static DataSource countingDataSource(DataSource dataSource) {
+        return ProxyDataSourceBuilder.create(dataSource)
+                .listener(new StatementAccountingListener(null))
+                .build();
+    }
+
+    public static StatementStatistics countStatements(Runnable operation) {
+        StatementStatistics statistics = StatementAccounting.begin();
+        try {
+            operation.run();
+        } finally {
+            StatementAccounting.end();
+        }
+        return statistics;
+    }
+
+    public static void assertStatementCount(int expected, Runnable operation) {
+        assertThat(countStatements(operation).getStatementCount())
+                .as("number of statements issued")
+                .isEqualTo(expected);
+    }
+}
@@ -0,0 +1,146 @@
+package com.codemountain.sync;
+
+import com.codemountain.AbstractTestcontainers;
+import com.codemountain.customer.Customer;
+import com.codemountain.customer.CustomerJDBCDataAccessService;
+import com.codemountain.customer.CustomerRowMapper;
+import com.codemountain.customer.CustomerView;
+import com.codemountain.exception.SyncTokenExpiredException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerSyncServiceTest extends AbstractTestcontainers {
+
+    private CustomerJDBCDataAccessService customerDao;
+    private CustomerSyncService underTest;
+
+    @BeforeEach
+    void setUp() {
+        CustomerRowMapper rowMapper = new CustomerRowMapper();
+        customerDao = new CustomerJDBCDataAccessService(getJdbcTemplate(), rowMapper);
+        underTest = new CustomerSyncService(
+                getJdbcTemplate(),
+                rowMapper,
+                new CustomerSyncProperties(500, 5000, Duration.ofDays(30), Duration.ofHours(1))
+        );
+    }
+
+    @Test
+    void getChangesReturnsOnlyChangesSinceToken() {
+        // Given
+        Customer unchanged = insertCustomer();
+        Customer updated = insertCustomer();
+        Customer deleted = insertCustomer();
+        String token = fullSync(new ArrayList<>());
+
+        customerDao.updateCustomer(new Customer(updated.getId(), "Updated", updated.getEmail(), 50));
+        customerDao.deleteCustomerWithId(deleted.getId());
+
+        // When
+        CustomerChanges actual = underTest.getChanges(token, null);
+
+        // Then
+        assertThat(actual.changed())
+                .extracting(CustomerView::id)
+                .contains(updated.getId())
+                .doesNotContain(unchanged.getId(), deleted.getId());
+        assertThat(actual.deletedIds()).contains(deleted.getId());
+        assertThat(actual.hasMore()).isFalse();
+        assertThat(underTest.getChanges(actual.nextToken(), null).changed())
+                .extracting(CustomerView::id)
+                .doesNotContain(updated.getId());
+    }
+
+    @Test
+    void getChangesPagesThroughChanges() {
+        // Given
+        String token = fullSync(new ArrayList<>());
+        Customer first = insertCustomer();
+        Customer second = insertCustomer();
+
+        // When
+        CustomerChanges firstPage = underTest.getChanges(token, 1);
+        CustomerChanges secondPage = underTest.getChanges(firstPage.nextToken(), 1);
+
+        // Then
+        assertThat(firstPage.hasMore()).isTrue();
+        assertThat(firstPage.changed()).extracting(CustomerView::id).containsExactly(first.getId());
+        assertThat(secondPage.changed()).extracting(CustomerView::id).containsExactly(second.getId());
+    }
+
+    @Test
+    void openReadTransactionDoesNotHoldBackChanges() throws Exception {
+        // Given
+        String token = fullSync(new ArrayList<>());
+
+        try (Connection reader = getJdbcTemplate().getDataSource().getConnection();
+             Statement statement = reader.createStatement()) {
+            reader.setAutoCommit(false);
+            statement.execute("SELECT count(*) FROM customer");
+            Customer inserted = insertCustomer();
+
+            // When
+            CustomerChanges actual = underTest.getChanges(token, null);
+
+            // Then
+            assertThat(actual.changed()).extracting(CustomerView::id).contains(inserted.getId());
+            reader.rollback();
+        }
+    }
+
+    @Test
+    void initialSyncReturnsEveryCustomer() {
+        // Given
+        Customer customer = insertCustomer();
+        List<CustomerView> customers = new ArrayList<>();
+
+        // When
+        fullSync(customers);
+
+        // Then
+        assertThat(customers).extracting(CustomerView::id).contains(customer.getId());
+    }
+
+    @Test
+    void getChangesRejectsTokenOlderThanTombstoneRetention() {
+        // Given
+        Instant issuedAt = Instant.now().minus(Duration.ofDays(31));
+        String token = new CustomerSyncToken(0, 0, issuedAt).encode();
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getChanges(token, null))
+                .isInstanceOf(SyncTokenExpiredException.class);
+    }
+
+    private String fullSync(List<CustomerView> customers) {
+        CustomerChanges page = underTest.getChanges(null, 5000);
+        customers.addAll(page.changed());
+        while (page.hasMore()) {
+            page = underTest.getChanges(page.nextToken(), 5000);
+            customers.addAll(page.changed());
+        }
+        return page.nextToken();
+    }
+
+    private Customer insertCustomer() {
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress() + UUID.randomUUID(),
+                20
+        );
+        customerDao.insertCustomer(customer);
+        return customer;
+    }
+}
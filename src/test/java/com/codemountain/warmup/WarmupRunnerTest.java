@@ -0,0 +1,101 @@
+package com.codemountain.warmup;
+
+import com.codemountain.customer.CustomerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class WarmupRunnerTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    @Test
+    void runsEveryTaskAndRecordsDuration() throws InterruptedException {
+        // Given
+        AtomicBoolean first = new AtomicBoolean();
+        AtomicBoolean second = new AtomicBoolean();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WarmupRunner underTest = new WarmupRunner(
+                List.of(task(() -> first.set(true)), task(() -> second.set(true))),
+                customerService,
+                new WarmupProperties(true, Duration.ofSeconds(5), 1, 1, 1),
+                meterRegistry
+        );
+
+        // When
+        underTest.run(null);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(meterRegistry.get("customer.warmup.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bypassesCachesOnlyWhileRunning() throws InterruptedException {
+        // Given
+        AtomicBoolean runningDuringTask = new AtomicBoolean();
+        WarmupRunner underTest = new WarmupRunner(
+                List.of(task(() -> runningDuringTask.set(WarmupPhase.isRunning()))),
+                customerService,
+                new WarmupProperties(true, Duration.ofSeconds(5), 1, 1, 1),
+                new SimpleMeterRegistry()
+        );
+
+        // When
+        underTest.run(null);
+
+        // Then
+        assertThat(runningDuringTask).isTrue();
+        assertThat(WarmupPhase.isRunning()).isFalse();
+    }
+
+    @Test
+    void stopsWaitingWhenTimeoutExpires() throws InterruptedException {
+        // Given
+        WarmupRunner underTest = new WarmupRunner(
+                List.of(task(() -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })),
+                customerService,
+                new WarmupProperties(true, Duration.ofMillis(100), 1, 1, 1),
+                new SimpleMeterRegistry()
+        );
+        long start = System.nanoTime();
+
+        // When
+        underTest.run(null);
+
+        // Then
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    private static WarmupTask task(Runnable work) {
+        return new WarmupTask() {
+            @Override
+            public String name() {
+                return "test";
+            }
+
+            @Override
+            public void warmUp(Instant deadline) {
+                work.run();
+            }
+        };
+    }
+}